@@ -25,10 +25,21 @@ export class ApiClient {
     return this.token;
   }
 
+  getUrl(endpoint: string): string {
+    return `${this.baseUrl}${endpoint}`;
+  }
+
   private async request<T>(
     endpoint: string,
     options: RequestInit = {}
   ): Promise<T> {
+    return (await this.send<T>(endpoint, options)).data;
+  }
+
+  private async send<T>(
+    endpoint: string,
+    options: RequestInit = {}
+  ): Promise<{ data: T; headers: Headers }> {
     const url = `${this.baseUrl}${endpoint}`;
 
     const headers: Record<string, string> = {
@@ -76,10 +87,10 @@ export class ApiClient {
 
       // Handle empty responses (204 No Content)
       if (response.status === 204 || !isJson) {
-        return {} as T;
+        return { data: {} as T, headers: response.headers };
       }
 
-      return await response.json();
+      return { data: await response.json(), headers: response.headers };
     } catch (error) {
       // Network errors or parsing errors
       if (error instanceof Error && !(error as ApiError).status) {
@@ -97,6 +108,11 @@ export class ApiClient {
     return this.request<T>(endpoint, { method: 'GET' });
   }
 
+  // GET that also returns the response headers, e.g. paging cursors
+  async getWithHeaders<T>(endpoint: string): Promise<{ data: T; headers: Headers }> {
+    return this.send<T>(endpoint, { method: 'GET' });
+  }
+
   async post<T>(endpoint: string, data?: unknown): Promise<T> {
     return this.request<T>(endpoint, {
       method: 'POST',
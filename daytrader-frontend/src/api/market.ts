@@ -1,9 +1,39 @@
 import { apiClient } from './client';
-import type { MarketSummary } from '../types';
+import type { MarketSummary, Quote } from '../types';
+
+export interface MarketStreamHandlers {
+  onSummary?: (summary: MarketSummary) => void;
+  onQuotes?: (quotes: Quote[]) => void;
+  onError?: () => void;
+}
 
 export const marketApi = {
   getSummary: async (): Promise<MarketSummary> => {
     return apiClient.get<MarketSummary>('/market/summary');
   },
-};
 
+  /**
+   * Subscribe to pushed market data. Returns a function that closes the stream.
+   */
+  subscribe: (symbols: string[], handlers: MarketStreamHandlers): (() => void) => {
+    const params = new URLSearchParams();
+    if (symbols.length > 0) {
+      params.set('symbols', symbols.join(','));
+    }
+    params.set('summary', String(!!handlers.onSummary));
+
+    const source = new EventSource(apiClient.getUrl(`/market/stream?${params.toString()}`));
+    if (handlers.onSummary) {
+      const onSummary = handlers.onSummary;
+      source.addEventListener('summary', (event) => onSummary(JSON.parse((event as MessageEvent).data)));
+    }
+    if (handlers.onQuotes) {
+      const onQuotes = handlers.onQuotes;
+      source.addEventListener('quotes', (event) => onQuotes(JSON.parse((event as MessageEvent).data)));
+    }
+    if (handlers.onError) {
+      source.onerror = handlers.onError;
+    }
+    return () => source.close();
+  },
+};
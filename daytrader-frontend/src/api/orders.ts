@@ -1,9 +1,21 @@
 import { apiClient } from './client';
 import type { Order, BuyRequest, SellRequest } from '../types';
 
+// Set by GET /orders when more orders exist beyond the returned page
+const NEXT_CURSOR_HEADER = 'X-Next-Cursor';
+
 export const ordersApi = {
   getOrders: async (): Promise<Order[]> => {
-    return apiClient.get<Order[]>('/orders');
+    // Orders are returned one page at a time, newest first; follow the cursor to the end
+    const orders: Order[] = [];
+    let cursor: string | null = null;
+    do {
+      const endpoint: string = cursor ? `/orders?cursor=${encodeURIComponent(cursor)}` : '/orders';
+      const page = await apiClient.getWithHeaders<Order[]>(endpoint);
+      orders.push(...page.data);
+      cursor = page.headers.get(NEXT_CURSOR_HEADER);
+    } while (cursor);
+    return orders;
   },
 
   getOrder: async (orderId: number): Promise<Order> => {
@@ -1,6 +1,9 @@
 import { describe, it, expect, beforeEach } from 'vitest';
 import { renderHook, waitFor } from '@testing-library/react';
 import { QueryClient, QueryClientProvider } from '@tanstack/react-query';
+import { http, HttpResponse } from 'msw';
+import { server } from '../../__tests__/mocks/server';
+import { mockOrder } from '../../__tests__/mocks/handlers';
 import { useOrders, useBuy, useSell } from '../useOrders';
 
 const createWrapper = () => {
@@ -46,6 +49,31 @@ describe('useOrders', () => {
     });
   });
 
+  it('follows the next cursor to load every page', async () => {
+    server.use(
+      http.get('http://localhost:8080/api/v1/orders', ({ request }) => {
+        const cursor = new URL(request.url).searchParams.get('cursor');
+        if (cursor === null) {
+          return HttpResponse.json([{ ...mockOrder, orderID: 3 }, { ...mockOrder, orderID: 2 }], {
+            headers: { 'X-Next-Cursor': 'page 2' },
+          });
+        }
+        expect(cursor).toBe('page 2');
+        return HttpResponse.json([{ ...mockOrder, orderID: 1 }]);
+      })
+    );
+
+    const { result } = renderHook(() => useOrders(), {
+      wrapper: createWrapper(),
+    });
+
+    await waitFor(() => {
+      expect(result.current.isSuccess).toBe(true);
+    });
+
+    expect(result.current.data?.map((order) => order.orderID)).toEqual([3, 2, 1]);
+  });
+
   it('handles loading state', () => {
     const { result } = renderHook(() => useOrders(), {
       wrapper: createWrapper(),
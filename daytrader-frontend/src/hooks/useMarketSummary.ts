@@ -1,12 +1,35 @@
-import { useQuery } from '@tanstack/react-query';
+import { useEffect, useState } from 'react';
+import { useQuery, useQueryClient } from '@tanstack/react-query';
 import { marketApi } from '../api/market';
 import type { MarketSummary } from '../types';
 
+const QUERY_KEY = ['market', 'summary'];
+
 export const useMarketSummary = (refetchInterval?: number) => {
+  const queryClient = useQueryClient();
+  const [streaming, setStreaming] = useState(false);
+
+  // Prefer server push; fall back to polling when streaming is unavailable
+  useEffect(() => {
+    if (typeof EventSource === 'undefined') {
+      return;
+    }
+    const close = marketApi.subscribe([], {
+      onSummary: (summary) => {
+        queryClient.setQueryData<MarketSummary>(QUERY_KEY, summary);
+        setStreaming(true);
+      },
+      onError: () => setStreaming(false),
+    });
+    return () => {
+      close();
+      setStreaming(false);
+    };
+  }, [queryClient]);
+
   return useQuery<MarketSummary>({
-    queryKey: ['market', 'summary'],
+    queryKey: QUERY_KEY,
     queryFn: marketApi.getSummary,
-    refetchInterval: refetchInterval,
+    refetchInterval: streaming ? false : refetchInterval,
   });
 };
-
@@ -78,6 +78,7 @@ export interface PortfolioSummary {
   gain: number;
   gainPercent: number;
   numberOfHoldings: number;
+  costBasis?: number;
 }
 
 // API Request/Response types
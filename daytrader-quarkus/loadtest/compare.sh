@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Compare worker-pool and virtual-thread execution of the REST resources.
+#
+# Starts the packaged application once per mode, runs trade-mix.js against it and prints
+# throughput and latency for both. Requires k6 and a built application (./mvnw package);
+# the database is taken from the DAYTRADER_DATABASE_* and QUARKUS_DATASOURCE_* environment variables.
+set -euo pipefail
+
+cd "$(dirname "$0")"
+APP_JAR=../target/quarkus-app/quarkus-run.jar
+PORT=${PORT:-8080}
+export BASE_URL=${BASE_URL:-http://localhost:${PORT}/api/v1}
+
+if [[ ! -f "$APP_JAR" ]]; then
+  echo "Build the application first: ./mvnw package -DskipTests" >&2
+  exit 1
+fi
+
+run_mode() {
+  local mode=$1 virtual=$2
+  echo "== ${mode} (quarkus.virtual-threads.enabled=${virtual})"
+  java -Dquarkus.virtual-threads.enabled="${virtual}" -Dquarkus.http.port="${PORT}" \
+       -Dquarkus.log.category.\"com.ibm.websphere.samples.daytrader\".level=WARN \
+       -jar "$APP_JAR" > "app-${mode}.log" 2>&1 &
+  local pid=$!
+  trap "kill ${pid} 2>/dev/null || true" EXIT
+
+  until curl -sf "http://localhost:${PORT}/health/ready" > /dev/null; do
+    sleep 1
+  done
+
+  MODE="${mode}" k6 run --quiet trade-mix.js
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode worker-pool false
+run_mode virtual-threads true
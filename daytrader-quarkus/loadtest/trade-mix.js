@@ -0,0 +1,86 @@
+// k6 load test: mixed DayTrader traffic against a running daytrader-quarkus instance.
+//
+//   k6 run -e BASE_URL=http://localhost:8080/api/v1 -e VUS=400 -e DURATION=2m trade-mix.js
+//
+// Used by compare.sh to compare worker-pool and virtual-thread execution.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend, Rate } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/api/v1';
+const USERS = parseInt(__ENV.USERS || '50');
+const SYMBOLS = (__ENV.SYMBOLS || 'IBM,AAPL,MSFT,GOOGL,AMZN').split(',');
+const MODE = __ENV.MODE || 'unknown';
+
+const rejected = new Rate('rejected_503');
+const tradeLatency = new Trend('trade_latency', true);
+
+export const options = {
+  scenarios: {
+    mix: {
+      executor: 'constant-vus',
+      vus: parseInt(__ENV.VUS || '400'),
+      duration: __ENV.DURATION || '2m',
+    },
+  },
+  summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export function setup() {
+  const run = Date.now();
+  const tokens = [];
+  for (let i = 0; i < USERS; i++) {
+    const userID = `load${run}_${i}`;
+    http.post(`${BASE_URL}/accounts`, JSON.stringify({
+      userID, password: 'load', fullName: `Load User ${i}`, address: '1 Load St',
+      email: 'load@example.com', creditCard: '0000-0000-0000-0000', openBalance: 100000000,
+    }), { headers: JSON_HEADERS });
+    const login = http.post(`${BASE_URL}/auth/login`, JSON.stringify({ userID, password: 'load' }),
+      { headers: JSON_HEADERS });
+    check(login, { 'login ok': (r) => r.status === 200 });
+    tokens.push(login.json('token'));
+  }
+  return { tokens };
+}
+
+function pick(values) {
+  return values[Math.floor(Math.random() * values.length)];
+}
+
+export default function (data) {
+  const auth = { headers: { ...JSON_HEADERS, Authorization: `Bearer ${pick(data.tokens)}` } };
+  const roll = Math.random();
+  let res;
+
+  if (roll < 0.40) {
+    res = http.get(`${BASE_URL}/quotes/${pick(SYMBOLS)}`, { tags: { name: 'quote' } });
+  } else if (roll < 0.55) {
+    res = http.get(`${BASE_URL}/market/summary`, { tags: { name: 'market' } });
+  } else if (roll < 0.70) {
+    res = http.get(`${BASE_URL}/portfolio`, { ...auth, tags: { name: 'portfolio' } });
+  } else if (roll < 0.80) {
+    res = http.get(`${BASE_URL}/portfolio/summary`, { ...auth, tags: { name: 'portfolio-summary' } });
+  } else if (roll < 0.90) {
+    res = http.get(`${BASE_URL}/orders`, { ...auth, tags: { name: 'orders' } });
+  } else {
+    res = http.post(`${BASE_URL}/orders/buy`, JSON.stringify({ symbol: pick(SYMBOLS), quantity: 1 }),
+      { ...auth, tags: { name: 'buy' } });
+    tradeLatency.add(res.timings.duration);
+  }
+
+  rejected.add(res.status === 503);
+  check(res, { 'status 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
+
+export function handleSummary(data) {
+  const duration = data.metrics.http_req_duration.values;
+  const line = `${MODE}: ${data.metrics.http_reqs.values.rate.toFixed(1)} req/s, ` +
+    `p50 ${duration.med.toFixed(1)} ms, p99 ${duration['p(99)'].toFixed(1)} ms, ` +
+    `503s ${(data.metrics.rejected_503.values.rate * 100).toFixed(2)}%\n`;
+  return {
+    stdout: line,
+    [`results-${MODE}.json`]: JSON.stringify(data, null, 2),
+  };
+}
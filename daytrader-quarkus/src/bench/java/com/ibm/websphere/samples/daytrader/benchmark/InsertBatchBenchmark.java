@@ -0,0 +1,193 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.benchmark;
+
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.bean;
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.inRequest;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.websphere.samples.daytrader.dto.BatchOrderResultDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderRequestDTO;
+import com.ibm.websphere.samples.daytrader.service.TradeService;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmarks for holding and order inserts: pooled sequence IDs versus IDENTITY
+ *
+ * pooled submits a batch of synchronous buys through TradeService, whose holdings and
+ * orders take their IDs from the sequence blocks and are sent as JDBC batches at commit.
+ * identity writes the same rows the way IDENTITY IDs forced Hibernate to: one insert per
+ * row, executed immediately, reading back its generated key. The inserts counter reports
+ * rows inserted per second.
+ * ./mvnw test -Pbenchmark -Djmh.include=InsertBatchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InsertBatchBenchmark {
+
+    private static final AtomicInteger TRIALS = new AtomicInteger();
+    private static final BigDecimal OPEN_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal PRICE = new BigDecimal("100.00");
+
+    @Param({"10", "100"})
+    int users;
+
+    @Param({"100"})
+    int symbols;
+
+    @Param({"1", "20", "100"})
+    int ordersPerTransaction;
+
+    TradeService tradeService;
+    AgroalDataSource dataSource;
+    String[] userIDs;
+    Integer[] accountIDs;
+    String[] symbolNames;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        tradeService = bean(TradeService.class);
+        dataSource = bean(AgroalDataSource.class);
+
+        String prefix = "I" + TRIALS.incrementAndGet() + "_";
+
+        symbolNames = new String[symbols];
+        for (int i = 0; i < symbols; i++) {
+            symbolNames[i] = prefix + "S" + i;
+            tradeService.createQuote(symbolNames[i], "Insert Company " + i, PRICE);
+        }
+
+        userIDs = new String[users];
+        accountIDs = new Integer[users];
+        for (int u = 0; u < users; u++) {
+            userIDs[u] = prefix + "uid" + u;
+            accountIDs[u] = tradeService.register(userIDs[u], "benchmark", "Insert User " + u, "1 Benchmark St",
+                                                  "benchmark@example.com", "0000-0000-0000-0000", OPEN_BALANCE)
+                    .getAccountID();
+        }
+    }
+
+    @Benchmark
+    public List<BatchOrderResultDTO> pooled(Inserts inserts) {
+        List<OrderRequestDTO> requests = new ArrayList<>(ordersPerTransaction);
+        for (int i = 0; i < ordersPerTransaction; i++) {
+            requests.add(OrderRequestDTO.buy(randomSymbol(), 1.0));
+        }
+        List<BatchOrderResultDTO> results = inRequest(
+                () -> tradeService.submitOrders(randomUser(), requests, TradeConfig.SYNCH));
+        inserts.inserts += 2L * ordersPerTransaction;
+        return results;
+    }
+
+    @Benchmark
+    public int identity(Inserts inserts) {
+        int accountID = accountIDs[ThreadLocalRandom.current().nextInt(accountIDs.length)];
+        int inserted = QuarkusTransaction.requiringNew().call(() -> identityInserts(accountID));
+        inserts.inserts += inserted;
+        return inserted;
+    }
+
+    private int identityInserts(int accountID) throws Exception {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        BigDecimal orderFee = TradeConfig.getOrderFee("buy");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement holdingInsert = connection.prepareStatement(
+                     "INSERT INTO holdingejb (QUANTITY, PURCHASEPRICE, PURCHASEDATE, ACCOUNT_ACCOUNTID, QUOTE_SYMBOL) " +
+                     "VALUES (?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement orderInsert = connection.prepareStatement(
+                     "INSERT INTO orderejb (ORDERTYPE, ORDERSTATUS, OPENDATE, COMPLETIONDATE, QUANTITY, PRICE, ORDERFEE, " +
+                     "ACCOUNT_ACCOUNTID, QUOTE_SYMBOL, HOLDING_HOLDINGID) VALUES ('buy', 'closed', ?, ?, ?, ?, ?, ?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ordersPerTransaction; i++) {
+                String symbol = randomSymbol();
+                holdingInsert.setDouble(1, 1.0);
+                holdingInsert.setBigDecimal(2, PRICE);
+                holdingInsert.setTimestamp(3, now);
+                holdingInsert.setInt(4, accountID);
+                holdingInsert.setString(5, symbol);
+                holdingInsert.executeUpdate();
+                int holdingID;
+                try (ResultSet keys = holdingInsert.getGeneratedKeys()) {
+                    keys.next();
+                    holdingID = keys.getInt(1);
+                }
+
+                orderInsert.setTimestamp(1, now);
+                orderInsert.setTimestamp(2, now);
+                orderInsert.setDouble(3, 1.0);
+                orderInsert.setBigDecimal(4, PRICE);
+                orderInsert.setBigDecimal(5, orderFee);
+                orderInsert.setInt(6, accountID);
+                orderInsert.setString(7, symbol);
+                orderInsert.setInt(8, holdingID);
+                orderInsert.executeUpdate();
+                try (ResultSet keys = orderInsert.getGeneratedKeys()) {
+                    keys.next();
+                }
+            }
+        }
+        return 2 * ordersPerTransaction;
+    }
+
+    String randomUser() {
+        return userIDs[ThreadLocalRandom.current().nextInt(userIDs.length)];
+    }
+
+    String randomSymbol() {
+        return symbolNames[ThreadLocalRandom.current().nextInt(symbolNames.length)];
+    }
+
+    /**
+     * Rows inserted, reported by JMH as a rate alongside transactions per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Inserts {
+
+        public long inserts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            inserts = 0;
+        }
+    }
+}
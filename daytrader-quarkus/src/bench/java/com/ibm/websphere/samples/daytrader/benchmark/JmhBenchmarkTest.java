@@ -0,0 +1,80 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Runs the JMH benchmarks inside a started Quarkus application
+ * Only compiled and run with the benchmark Maven profile: ./mvnw test -Pbenchmark
+ *
+ * Benchmarks run in this JVM (forks = 0) so they can use the application's beans.
+ * Results are written as JSON to target/jmh-result.json for comparison between releases.
+ * Tunable with -Djmh.include, -Djmh.threads, -Djmh.warmupIterations, -Djmh.iterations,
+ * -Djmh.result and -Djmh.users / -Djmh.holdingsPerUser / -Djmh.symbols / -Djmh.quotes (comma-separated).
+ * -Djmh.prof adds JMH profilers, e.g. gc for allocation per operation (comma-separated).
+ */
+@QuarkusTest
+@TestProfile(BenchmarkProfile.class)
+class JmhBenchmarkTest {
+
+    private static final String[] PARAMS = {"users", "holdingsPerUser", "symbols", "quotes"};
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", TradeServiceBenchmark.class.getSimpleName()))
+                .forks(0)
+                .threads(Integer.getInteger("jmh.threads", 1))
+                .warmupIterations(Integer.getInteger("jmh.warmupIterations", 3))
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(Integer.getInteger("jmh.iterations", 5))
+                .measurementTime(TimeValue.seconds(2))
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("jmh.result", "target/jmh-result.json"));
+
+        for (String param : PARAMS) {
+            String values = System.getProperty("jmh." + param);
+            if (values != null && !values.isBlank()) {
+                options.param(param, values.split(","));
+            }
+        }
+
+        String profilers = System.getProperty("jmh.prof");
+        if (profilers != null && !profilers.isBlank()) {
+            for (String profiler : profilers.split(",")) {
+                options.addProfiler(profiler.trim());
+            }
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+        assertFalse(results.isEmpty(), "No benchmarks were run");
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.ibm.websphere.samples.daytrader.util.FinancialUtils;
+import com.ibm.websphere.samples.daytrader.util.Money;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmarks for money arithmetic: BigDecimal versus {@link Money} fixed-point longs
+ *
+ * Each *BigDecimal benchmark is the former computation of the order cost, the
+ * portfolio valuation or the TSIA; the matching *Money benchmark is the one now
+ * used. Setup fails unless both give the same amount, rounded to cents, for every
+ * generated input. Run with the GC profiler for allocation per operation:
+ * ./mvnw test -Pbenchmark -Djmh.include=MoneyBenchmark -Djmh.prof=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    @Param({"100"})
+    int holdingsPerUser;
+
+    @Param({"1000"})
+    int quotes;
+
+    double[] quantities;
+    BigDecimal[] holdingPrices;
+    long[] holdingPriceCents;
+    long[] holdingUnits;
+    BigDecimal[] quotePrices;
+    long[] quotePriceCents;
+    BigDecimal fee;
+    long feeCents;
+    int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        fee = TradeConfig.getOrderFee("buy");
+        feeCents = Money.toCents(fee);
+
+        quantities = new double[holdingsPerUser];
+        holdingPrices = new BigDecimal[holdingsPerUser];
+        holdingPriceCents = new long[holdingsPerUser];
+        holdingUnits = new long[holdingsPerUser];
+        for (int i = 0; i < holdingsPerUser; i++) {
+            quantities[i] = random.nextInt(100_000) / 100.0;
+            holdingPrices[i] = BigDecimal.valueOf(1 + random.nextInt(100_000), FinancialUtils.SCALE);
+            holdingPriceCents[i] = Money.toCents(holdingPrices[i]);
+            holdingUnits[i] = Money.toUnits(quantities[i]);
+        }
+
+        quotePrices = new BigDecimal[quotes];
+        quotePriceCents = new long[quotes];
+        for (int i = 0; i < quotes; i++) {
+            quotePrices[i] = BigDecimal.valueOf(1 + random.nextInt(100_000), FinancialUtils.SCALE);
+            quotePriceCents[i] = Money.toCents(quotePrices[i]);
+        }
+
+        verify();
+    }
+
+    // Each holding's value is rounded to cents, as positions are valued
+    private void verify() {
+        BigDecimal portfolio = BigDecimal.ZERO;
+        for (int i = 0; i < holdingsPerUser; i++) {
+            BigDecimal value = BigDecimal.valueOf(quantities[i]).multiply(holdingPrices[i])
+                    .setScale(FinancialUtils.SCALE, FinancialUtils.ROUND);
+            BigDecimal actual = Money.toBigDecimal(Money.value(quantities[i], holdingPriceCents[i]) + feeCents);
+            if (value.add(fee).compareTo(actual) != 0) {
+                throw new IllegalStateException("Order cost differs for " + quantities[i] + " x " + holdingPrices[i]
+                                                + ": " + value.add(fee) + " != " + actual);
+            }
+            portfolio = portfolio.add(value);
+        }
+        if (portfolio.compareTo(Money.toBigDecimal(portfolioValueMoney())) != 0) {
+            throw new IllegalStateException("Portfolio value differs: " + portfolio);
+        }
+        if (tsiaBigDecimal().compareTo(Money.toBigDecimal(tsiaMoney())) != 0) {
+            throw new IllegalStateException("TSIA differs: " + tsiaBigDecimal());
+        }
+    }
+
+    int nextHolding() {
+        int i = next + 1;
+        next = i == holdingsPerUser ? 0 : i;
+        return next;
+    }
+
+    @Benchmark
+    public BigDecimal orderCostBigDecimal() {
+        int i = nextHolding();
+        return new BigDecimal(quantities[i]).multiply(holdingPrices[i]).add(fee);
+    }
+
+    @Benchmark
+    public long orderCostMoney() {
+        int i = nextHolding();
+        return Money.value(quantities[i], holdingPriceCents[i]) + feeCents;
+    }
+
+    @Benchmark
+    public BigDecimal portfolioValueBigDecimal() {
+        BigDecimal value = BigDecimal.ZERO;
+        for (int i = 0; i < holdingsPerUser; i++) {
+            value = value.add(holdingPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return value;
+    }
+
+    @Benchmark
+    public long portfolioValueMoney() {
+        long value = 0;
+        for (int i = 0; i < holdingsPerUser; i++) {
+            value += Money.multiply(holdingPriceCents[i], holdingUnits[i]);
+        }
+        return value;
+    }
+
+    @Benchmark
+    public BigDecimal tsiaBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal price : quotePrices) {
+            sum = sum.add(price);
+        }
+        return sum.divide(new BigDecimal(quotes), FinancialUtils.SCALE, FinancialUtils.ROUND);
+    }
+
+    @Benchmark
+    public long tsiaMoney() {
+        long sum = 0;
+        for (long price : quotePriceCents) {
+            sum += price;
+        }
+        return Money.divide(sum, quotes);
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.benchmark;
+
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.bean;
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.inRequest;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.websphere.samples.daytrader.entity.Quote;
+import com.ibm.websphere.samples.daytrader.repository.QuoteRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmarks for quote lookup by symbol
+ *
+ * Compares the primary key lookup on the canonical symbol with the legacy
+ * case-insensitive query, which cannot use the primary key index.
+ * Lookups use lower-case input, as typed by users.
+ * Run with: ./mvnw test -Pbenchmark -Djmh.include=QuoteLookupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuoteLookupBenchmark {
+
+    private static final AtomicInteger TRIALS = new AtomicInteger();
+    private static final BigDecimal PRICE = new BigDecimal("100.00");
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"100000"})
+    int quotes;
+
+    QuoteRepository quoteRepository;
+    String[] lookupSymbols;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        quoteRepository = bean(QuoteRepository.class);
+
+        String prefix = "L" + TRIALS.incrementAndGet() + "_";
+        lookupSymbols = new String[quotes];
+        for (int start = 0; start < quotes; start += BATCH_SIZE) {
+            int from = start;
+            int to = Math.min(quotes, start + BATCH_SIZE);
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (int i = from; i < to; i++) {
+                    String symbol = prefix + "S" + i;
+                    quoteRepository.persist(new Quote(symbol, "Lookup Company " + i, 0, PRICE, PRICE, PRICE, PRICE, 0.0));
+                    lookupSymbols[i] = symbol.toLowerCase(Locale.ROOT);
+                }
+                quoteRepository.flush();
+                quoteRepository.getEntityManager().clear();
+            });
+        }
+    }
+
+    String randomSymbol() {
+        return lookupSymbols[ThreadLocalRandom.current().nextInt(lookupSymbols.length)];
+    }
+
+    @Benchmark
+    public Optional<Quote> findBySymbol() {
+        return inRequest(() -> quoteRepository.findBySymbol(randomSymbol()));
+    }
+
+    @Benchmark
+    public Optional<Quote> findBySymbolCaseInsensitiveQuery() {
+        return inRequest(() -> quoteRepository.find("UPPER(symbol) = UPPER(?1)", randomSymbol()).firstResultOptional());
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.benchmark;
+
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.bean;
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.inRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
+import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.repository.AccountRepository;
+import com.ibm.websphere.samples.daytrader.repository.HoldingRepository;
+import com.ibm.websphere.samples.daytrader.repository.OrderRepository;
+import com.ibm.websphere.samples.daytrader.repository.QuoteRepository;
+import com.ibm.websphere.samples.daytrader.service.TradeService;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmarks for the read endpoints: DTO projections versus entity hydration
+ *
+ * Each *Entities benchmark reproduces the former read path (load managed entities,
+ * with their EAGER quotes, then copy them into DTOs); the matching *Projection
+ * benchmark is the TradeService method, which selects DTOs directly. The projections
+ * were adopted without measurement; this is the comparison that would confirm them.
+ * Run with the GC profiler for allocation per operation:
+ * ./mvnw test -Pbenchmark -Djmh.include=ReadProjectionBenchmark -Djmh.prof=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadProjectionBenchmark {
+
+    private static final AtomicInteger TRIALS = new AtomicInteger();
+    private static final BigDecimal OPEN_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal PRICE = new BigDecimal("100.00");
+    private static final int USERS = 10;
+
+    @Param({"10", "100"})
+    int holdingsPerUser;
+
+    @Param({"1000"})
+    int quotes;
+
+    TradeService tradeService;
+    AccountRepository accountRepository;
+    HoldingRepository holdingRepository;
+    OrderRepository orderRepository;
+    QuoteRepository quoteRepository;
+    String[] userIDs;
+    Integer[] accountIDs;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        tradeService = bean(TradeService.class);
+        accountRepository = bean(AccountRepository.class);
+        holdingRepository = bean(HoldingRepository.class);
+        orderRepository = bean(OrderRepository.class);
+        quoteRepository = bean(QuoteRepository.class);
+
+        String prefix = "R" + TRIALS.incrementAndGet() + "_";
+
+        String[] symbols = new String[quotes];
+        for (int i = 0; i < quotes; i++) {
+            symbols[i] = prefix + "S" + i;
+            tradeService.createQuote(symbols[i], "Read Company " + i, PRICE);
+        }
+
+        userIDs = new String[USERS];
+        accountIDs = new Integer[USERS];
+        for (int u = 0; u < USERS; u++) {
+            userIDs[u] = prefix + "uid" + u;
+            accountIDs[u] = tradeService.register(userIDs[u], "benchmark", "Read User " + u, "1 Benchmark St",
+                                                  "benchmark@example.com", "0000-0000-0000-0000", OPEN_BALANCE)
+                    .getAccountID();
+            for (int h = 0; h < holdingsPerUser; h++) {
+                tradeService.buy(userIDs[u], symbols[(u * holdingsPerUser + h) % quotes], 10.0, TradeConfig.SYNCH);
+            }
+        }
+    }
+
+    int randomUser() {
+        return ThreadLocalRandom.current().nextInt(USERS);
+    }
+
+    @Benchmark
+    public List<HoldingDTO> getHoldingsEntities() {
+        String userID = userIDs[randomUser()];
+        return inRequest(() -> holdingRepository.findByAccountIdWithQuote(
+                accountRepository.findByProfileUserID(userID).orElseThrow().getAccountID()).stream()
+                .map(HoldingDTO::new)
+                .toList());
+    }
+
+    @Benchmark
+    public List<HoldingDTO> getHoldingsProjection() {
+        return inRequest(() -> tradeService.getHoldings(userIDs[randomUser()]));
+    }
+
+    @Benchmark
+    public List<OrderDTO> getOrdersEntities() {
+        String userID = userIDs[randomUser()];
+        return inRequest(() -> orderRepository.findByAccountId(
+                accountRepository.findByProfileUserID(userID).orElseThrow().getAccountID()).stream()
+                .map(OrderDTO::new)
+                .toList());
+    }
+
+    @Benchmark
+    public List<OrderDTO> getOrdersProjection() {
+        return inRequest(() -> tradeService.getOrders(userIDs[randomUser()]));
+    }
+
+    @Benchmark
+    public AccountDTO getAccountDataEntity() {
+        Integer accountID = accountIDs[randomUser()];
+        return inRequest(() -> new AccountDTO(accountRepository.findByIdWithProfile(accountID).orElseThrow()));
+    }
+
+    @Benchmark
+    public AccountDTO getAccountDataProjection() {
+        return inRequest(() -> tradeService.getAccountData(accountIDs[randomUser()]));
+    }
+
+    @Benchmark
+    public List<QuoteDTO> getAllQuotesEntities() {
+        return inRequest(() -> quoteRepository.findAllQuotes().stream()
+                .map(QuoteDTO::new)
+                .toList());
+    }
+
+    @Benchmark
+    public List<QuoteDTO> getAllQuotesProjection() {
+        return inRequest(tradeService::getAllQuotes);
+    }
+}
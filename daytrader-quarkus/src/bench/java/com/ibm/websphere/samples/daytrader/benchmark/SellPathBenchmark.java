@@ -0,0 +1,176 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.benchmark;
+
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.bean;
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.inRequest;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.entity.Account;
+import com.ibm.websphere.samples.daytrader.entity.Order;
+import com.ibm.websphere.samples.daytrader.entity.Quote;
+import com.ibm.websphere.samples.daytrader.repository.AccountRepository;
+import com.ibm.websphere.samples.daytrader.repository.OrderRepository;
+import com.ibm.websphere.samples.daytrader.service.TradeService;
+import com.ibm.websphere.samples.daytrader.util.FinancialUtils;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmarks for the synchronous sell: claimed holding versus the former path
+ *
+ * sellFormer reproduces the former TradeService.sell (projection reads, persistence
+ * context clears, the order written open and patched with native updates, then
+ * completeOrder); sell is the TradeService method, which deletes the holding, credits
+ * the account and inserts the closed order. Each invocation sells a freshly bought holding.
+ * ./mvnw test -Pbenchmark -Djmh.include=SellPathBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SellPathBenchmark {
+
+    private static final AtomicInteger TRIALS = new AtomicInteger();
+    private static final BigDecimal OPEN_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal PRICE = new BigDecimal("100.00");
+
+    @Param({"10", "100"})
+    int users;
+
+    @Param({"100"})
+    int symbols;
+
+    TradeService tradeService;
+    AccountRepository accountRepository;
+    OrderRepository orderRepository;
+    String[] userIDs;
+    String[] symbolNames;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        tradeService = bean(TradeService.class);
+        accountRepository = bean(AccountRepository.class);
+        orderRepository = bean(OrderRepository.class);
+
+        String prefix = "L" + TRIALS.incrementAndGet() + "_";
+
+        symbolNames = new String[symbols];
+        for (int i = 0; i < symbols; i++) {
+            symbolNames[i] = prefix + "S" + i;
+            tradeService.createQuote(symbolNames[i], "Sell Company " + i, PRICE);
+        }
+
+        userIDs = new String[users];
+        for (int u = 0; u < users; u++) {
+            userIDs[u] = prefix + "uid" + u;
+            tradeService.register(userIDs[u], "benchmark", "Sell User " + u, "1 Benchmark St",
+                                  "benchmark@example.com", "0000-0000-0000-0000", OPEN_BALANCE);
+        }
+    }
+
+    String randomUser() {
+        return userIDs[ThreadLocalRandom.current().nextInt(userIDs.length)];
+    }
+
+    String randomSymbol() {
+        return symbolNames[ThreadLocalRandom.current().nextInt(symbolNames.length)];
+    }
+
+    @Benchmark
+    public OrderDTO sell(OpenHolding holding) {
+        return inRequest(() -> tradeService.sell(holding.userID, holding.holdingID, TradeConfig.SYNCH));
+    }
+
+    @Benchmark
+    public OrderDTO sellFormer(OpenHolding holding) {
+        return inRequest(() -> QuarkusTransaction.requiringNew()
+                .call(() -> formerSell(holding.userID, holding.holdingID)));
+    }
+
+    private OrderDTO formerSell(String userID, Integer holdingID) {
+        EntityManager entityManager = orderRepository.getEntityManager();
+
+        Integer accountId = entityManager.createQuery(
+                "SELECT a.accountID FROM Account a WHERE a.profile.userID = :userId", Integer.class)
+                .setParameter("userId", userID)
+                .getSingleResult();
+        Object[] holdingData = entityManager.createQuery(
+                "SELECT h.holdingID, h.quantity, h.quote.price, h.quote.symbol FROM Holding h WHERE h.holdingID = :id",
+                Object[].class)
+                .setParameter("id", holdingID)
+                .getSingleResult();
+        double quantity = ((Number) holdingData[1]).doubleValue();
+        BigDecimal price = (BigDecimal) holdingData[2];
+        String symbol = (String) holdingData[3];
+
+        entityManager.clear();
+        Quote quote = entityManager.getReference(Quote.class, symbol);
+        Account account = accountRepository.find("accountID", accountId).firstResult();
+        Order order = new Order("sell", "open", new Timestamp(System.currentTimeMillis()), null, quantity,
+                                price.setScale(FinancialUtils.SCALE, FinancialUtils.ROUND),
+                                TradeConfig.getOrderFee("sell"), account, quote, null);
+        orderRepository.persist(order);
+        orderRepository.flush();
+
+        orderRepository.setHoldingReference(order.getOrderID(), holdingID);
+        entityManager.createNativeQuery("UPDATE holdingejb SET PURCHASEDATE = ?1 WHERE HOLDINGID = ?2")
+                .setParameter(1, new Timestamp(0))
+                .setParameter(2, holdingID)
+                .executeUpdate();
+        entityManager.createNativeQuery("UPDATE accountejb SET BALANCE = BALANCE + ?1 WHERE ACCOUNTID = ?2")
+                .setParameter(1, price.multiply(BigDecimal.valueOf(quantity)).subtract(order.getOrderFee()))
+                .setParameter(2, accountId)
+                .executeUpdate();
+        entityManager.flush();
+        entityManager.clear();
+
+        return tradeService.completeOrder(order.getOrderID());
+    }
+
+    /**
+     * A freshly bought holding for each sell invocation
+     */
+    @State(Scope.Thread)
+    public static class OpenHolding {
+
+        String userID;
+        Integer holdingID;
+
+        @Setup(Level.Invocation)
+        public void buy(SellPathBenchmark data) {
+            userID = data.randomUser();
+            holdingID = data.tradeService.buy(userID, data.randomSymbol(), 1.0, TradeConfig.SYNCH).getHoldingID();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.benchmark;
+
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.bean;
+import static com.ibm.websphere.samples.daytrader.benchmark.BenchmarkSupport.inRequest;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.dto.PortfolioSummaryDTO;
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.entity.Account;
+import com.ibm.websphere.samples.daytrader.entity.Order;
+import com.ibm.websphere.samples.daytrader.entity.Quote;
+import com.ibm.websphere.samples.daytrader.repository.AccountRepository;
+import com.ibm.websphere.samples.daytrader.repository.OrderRepository;
+import com.ibm.websphere.samples.daytrader.service.MarketSummaryService;
+import com.ibm.websphere.samples.daytrader.service.TradeService;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmarks for the TradeService hot paths
+ *
+ * Each trial seeds its own symbols, users and holdings (prefixed so trials
+ * never share rows) into the running application's datasource. Buy benchmarks
+ * keep adding holdings, so later iterations see slightly larger portfolios.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TradeServiceBenchmark {
+
+    private static final AtomicInteger TRIALS = new AtomicInteger();
+    private static final BigDecimal OPEN_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal PRICE = new BigDecimal("100.00");
+
+    @Param({"10", "100"})
+    int users;
+
+    @Param({"1", "10"})
+    int holdingsPerUser;
+
+    @Param({"100", "1000"})
+    int symbols;
+
+    TradeService tradeService;
+    MarketSummaryService marketSummaryService;
+    String[] userIDs;
+    String[] symbolNames;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        tradeService = bean(TradeService.class);
+        marketSummaryService = bean(MarketSummaryService.class);
+
+        String prefix = "B" + TRIALS.incrementAndGet() + "_";
+
+        symbolNames = new String[symbols];
+        for (int i = 0; i < symbols; i++) {
+            symbolNames[i] = prefix + "S" + i;
+            tradeService.createQuote(symbolNames[i], "Benchmark Company " + i, PRICE);
+        }
+
+        userIDs = new String[users];
+        for (int u = 0; u < users; u++) {
+            userIDs[u] = prefix + "uid" + u;
+            tradeService.register(userIDs[u], "benchmark", "Benchmark User " + u, "1 Benchmark St",
+                                  "benchmark@example.com", "0000-0000-0000-0000", OPEN_BALANCE);
+            for (int h = 0; h < holdingsPerUser; h++) {
+                tradeService.buy(userIDs[u], symbolNames[(u * holdingsPerUser + h) % symbols], 10.0, TradeConfig.SYNCH);
+            }
+        }
+
+        inRequest(() -> {
+            marketSummaryService.refreshMarketSummary();
+            return null;
+        });
+    }
+
+    String randomUser() {
+        return userIDs[ThreadLocalRandom.current().nextInt(userIDs.length)];
+    }
+
+    String randomSymbol() {
+        return symbolNames[ThreadLocalRandom.current().nextInt(symbolNames.length)];
+    }
+
+    @Benchmark
+    public QuoteDTO getQuote() {
+        return inRequest(() -> tradeService.getQuote(randomSymbol()));
+    }
+
+    @Benchmark
+    public List<HoldingDTO> getHoldings() {
+        return inRequest(() -> tradeService.getHoldings(randomUser()));
+    }
+
+    @Benchmark
+    public PortfolioSummaryDTO getPortfolioSummary() {
+        return inRequest(() -> tradeService.getPortfolioSummary(randomUser()));
+    }
+
+    @Benchmark
+    public OrderDTO buy() {
+        return inRequest(() -> tradeService.buy(randomUser(), randomSymbol(), 1.0, TradeConfig.SYNCH));
+    }
+
+    @Benchmark
+    public OrderDTO sell(OpenHolding holding) {
+        return inRequest(() -> tradeService.sell(holding.userID, holding.holdingID, TradeConfig.SYNCH));
+    }
+
+    @Benchmark
+    public OrderDTO completeOrder(OpenOrder order) {
+        return inRequest(() -> tradeService.completeOrder(order.orderID));
+    }
+
+    @Benchmark
+    public void refreshMarketSummary() {
+        inRequest(() -> {
+            marketSummaryService.refreshMarketSummary();
+            return null;
+        });
+    }
+
+    /**
+     * A freshly bought holding for each sell invocation
+     */
+    @State(Scope.Thread)
+    public static class OpenHolding {
+
+        String userID;
+        Integer holdingID;
+
+        @Setup(Level.Invocation)
+        public void buy(TradeServiceBenchmark data) {
+            userID = data.randomUser();
+            holdingID = data.tradeService.buy(userID, data.randomSymbol(), 1.0, TradeConfig.SYNCH).getHoldingID();
+        }
+    }
+
+    /**
+     * A committed open buy order for each completeOrder invocation
+     */
+    @State(Scope.Thread)
+    public static class OpenOrder {
+
+        Integer orderID;
+
+        @Setup(Level.Invocation)
+        public void open(TradeServiceBenchmark data) {
+            AccountRepository accountRepository = bean(AccountRepository.class);
+            OrderRepository orderRepository = bean(OrderRepository.class);
+            String userID = data.randomUser();
+            String symbol = data.randomSymbol();
+
+            orderID = QuarkusTransaction.requiringNew().call(() -> {
+                Account account = accountRepository.findByProfileUserID(userID).orElseThrow();
+                Quote quote = orderRepository.getEntityManager().getReference(Quote.class, symbol);
+                Order order = new Order("buy", "open", new Timestamp(System.currentTimeMillis()), null,
+                                        1.0, PRICE, TradeConfig.getOrderFee("buy"), account, quote, null);
+                orderRepository.persist(order);
+                return order.getOrderID();
+            });
+        }
+    }
+}
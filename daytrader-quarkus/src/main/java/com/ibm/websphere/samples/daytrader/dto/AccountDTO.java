@@ -49,6 +49,21 @@ public class AccountDTO {
         this.profileID = account.getProfile() != null ? account.getProfile().getUserID() : null;
     }
 
+    /**
+     * Projection constructor used by account queries
+     */
+    public AccountDTO(Integer accountID, int loginCount, int logoutCount, Date lastLogin, Date creationDate,
+                      BigDecimal balance, BigDecimal openBalance, String profileID) {
+        this.accountID = accountID;
+        this.loginCount = loginCount;
+        this.logoutCount = logoutCount;
+        this.lastLogin = lastLogin;
+        this.creationDate = creationDate;
+        this.balance = balance;
+        this.openBalance = openBalance;
+        this.profileID = profileID;
+    }
+
     // Getters and Setters
     public Integer getAccountID() {
         return accountID;
@@ -0,0 +1,80 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.dto;
+
+/**
+ * DTO for the outcome of one order in a batch submission
+ * Carries the created order when accepted, or the reason it was rejected.
+ */
+public class BatchOrderResultDTO {
+
+    private int index;
+    private boolean success;
+    private OrderDTO order;
+    private String error;
+
+    public BatchOrderResultDTO() {
+    }
+
+    public static BatchOrderResultDTO accepted(int index, OrderDTO order) {
+        BatchOrderResultDTO result = new BatchOrderResultDTO();
+        result.index = index;
+        result.success = true;
+        result.order = order;
+        return result;
+    }
+
+    public static BatchOrderResultDTO rejected(int index, String error) {
+        BatchOrderResultDTO result = new BatchOrderResultDTO();
+        result.index = index;
+        result.success = false;
+        result.error = error;
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public OrderDTO getOrder() {
+        return order;
+    }
+
+    public void setOrder(OrderDTO order) {
+        this.order = order;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -19,6 +19,7 @@ import java.math.BigDecimal;
 import java.util.Date;
 
 import com.ibm.websphere.samples.daytrader.entity.Holding;
+import com.ibm.websphere.samples.daytrader.util.Money;
 
 /**
  * DTO for Holding entity
@@ -50,12 +51,36 @@ public class HoldingDTO {
             this.companyName = holding.getQuote().getCompanyName();
             this.currentPrice = holding.getQuote().getPrice();
             
-            // Calculate market value and gain
-            if (this.currentPrice != null && this.purchasePrice != null) {
-                this.marketValue = this.currentPrice.multiply(new BigDecimal(quantity));
-                BigDecimal purchaseValue = this.purchasePrice.multiply(new BigDecimal(quantity));
-                this.gain = this.marketValue.subtract(purchaseValue);
-            }
+            computeValues();
+        }
+    }
+
+    /**
+     * Build from column values, e.g. a projection or a reactive query row
+     */
+    public HoldingDTO(Integer holdingID, double quantity, BigDecimal purchasePrice, Date purchaseDate,
+                      String symbol, String companyName, BigDecimal currentPrice) {
+        this.holdingID = holdingID;
+        this.quantity = quantity;
+        this.purchasePrice = purchasePrice;
+        this.purchaseDate = purchaseDate;
+        this.symbol = symbol;
+        this.companyName = companyName;
+        this.currentPrice = currentPrice;
+
+        computeValues();
+    }
+
+    /**
+     * Calculate market value and gain in cents
+     */
+    private void computeValues() {
+        if (this.currentPrice != null && this.purchasePrice != null) {
+            long units = Money.toUnits(quantity);
+            long market = Money.multiply(Money.toCents(currentPrice), units);
+            long purchase = Money.multiply(Money.toCents(purchasePrice), units);
+            this.marketValue = Money.toBigDecimal(market);
+            this.gain = Money.toBigDecimal(market - purchase);
         }
     }
 
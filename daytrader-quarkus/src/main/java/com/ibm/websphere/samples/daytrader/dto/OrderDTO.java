@@ -66,6 +66,26 @@ public class OrderDTO {
         }
     }
 
+    /**
+     * Projection constructor used by order history queries
+     */
+    public OrderDTO(Integer orderID, String orderType, String orderStatus, Date openDate, Date completionDate,
+                    double quantity, BigDecimal price, BigDecimal orderFee, String symbol, String companyName,
+                    Integer accountID, Integer holdingID) {
+        this.orderID = orderID;
+        this.orderType = orderType;
+        this.orderStatus = orderStatus;
+        this.openDate = openDate;
+        this.completionDate = completionDate;
+        this.quantity = quantity;
+        this.price = price;
+        this.orderFee = orderFee;
+        this.symbol = symbol;
+        this.companyName = companyName;
+        this.accountID = accountID;
+        this.holdingID = holdingID;
+    }
+
     // Getters and Setters
     public Integer getOrderID() {
         return orderID;
@@ -0,0 +1,67 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.dto;
+
+import java.util.List;
+
+import com.ibm.websphere.samples.daytrader.util.OrderCursor;
+
+/**
+ * One page of a user's order history
+ * nextCursor is null on the last page.
+ */
+public class OrderPageDTO {
+
+    private List<OrderDTO> orders;
+    private String nextCursor;
+
+    public OrderPageDTO() {
+    }
+
+    public OrderPageDTO(List<OrderDTO> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Page from up to limit + 1 rows in cursor order; the extra row only signals that another page exists
+     */
+    public static OrderPageDTO of(List<OrderDTO> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new OrderPageDTO(rows, null);
+        }
+        List<OrderDTO> page = rows.subList(0, limit);
+        OrderDTO last = page.get(limit - 1);
+        return new OrderPageDTO(page, OrderCursor.after(last.getOpenDate(), last.getOrderID()).encode());
+    }
+
+    // Getters and Setters
+    public List<OrderDTO> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderDTO> orders) {
+        this.orders = orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.dto;
+
+/**
+ * DTO for one order in a batch submission
+ * A buy names a symbol and quantity; a sell names the holding to sell.
+ */
+public class OrderRequestDTO {
+
+    private String orderType;
+    private String symbol;
+    private double quantity;
+    private Integer holdingID;
+
+    public OrderRequestDTO() {
+    }
+
+    public OrderRequestDTO(String orderType, String symbol, double quantity, Integer holdingID) {
+        this.orderType = orderType;
+        this.symbol = symbol;
+        this.quantity = quantity;
+        this.holdingID = holdingID;
+    }
+
+    public static OrderRequestDTO buy(String symbol, double quantity) {
+        return new OrderRequestDTO("buy", symbol, quantity, null);
+    }
+
+    public static OrderRequestDTO sell(Integer holdingID) {
+        return new OrderRequestDTO("sell", null, 0, holdingID);
+    }
+
+    // Getters and Setters
+    public String getOrderType() {
+        return orderType;
+    }
+
+    public void setOrderType(String orderType) {
+        this.orderType = orderType;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(double quantity) {
+        this.quantity = quantity;
+    }
+
+    public Integer getHoldingID() {
+        return holdingID;
+    }
+
+    public void setHoldingID(Integer holdingID) {
+        this.holdingID = holdingID;
+    }
+}
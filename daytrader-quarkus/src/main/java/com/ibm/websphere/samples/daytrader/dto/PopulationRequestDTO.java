@@ -0,0 +1,81 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.dto;
+
+/**
+ * DTO for a data population request
+ * Sizes of the generated dataset; every holding also gets the closed buy order that created it.
+ */
+public class PopulationRequestDTO {
+
+    private int users = 1000;
+    private int quotes = 1000;
+    private int holdingsPerUser = 5;
+    private String userPrefix = "uid:";
+    private String symbolPrefix = "S:";
+
+    public PopulationRequestDTO() {
+    }
+
+    public PopulationRequestDTO(int users, int quotes, int holdingsPerUser, String userPrefix, String symbolPrefix) {
+        this.users = users;
+        this.quotes = quotes;
+        this.holdingsPerUser = holdingsPerUser;
+        this.userPrefix = userPrefix;
+        this.symbolPrefix = symbolPrefix;
+    }
+
+    // Getters and Setters
+    public int getUsers() {
+        return users;
+    }
+
+    public void setUsers(int users) {
+        this.users = users;
+    }
+
+    public int getQuotes() {
+        return quotes;
+    }
+
+    public void setQuotes(int quotes) {
+        this.quotes = quotes;
+    }
+
+    public int getHoldingsPerUser() {
+        return holdingsPerUser;
+    }
+
+    public void setHoldingsPerUser(int holdingsPerUser) {
+        this.holdingsPerUser = holdingsPerUser;
+    }
+
+    public String getUserPrefix() {
+        return userPrefix;
+    }
+
+    public void setUserPrefix(String userPrefix) {
+        this.userPrefix = userPrefix;
+    }
+
+    public String getSymbolPrefix() {
+        return symbolPrefix;
+    }
+
+    public void setSymbolPrefix(String symbolPrefix) {
+        this.symbolPrefix = symbolPrefix;
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.dto;
+
+import java.util.Date;
+
+/**
+ * DTO for the progress of a data population run
+ */
+public class PopulationStatusDTO {
+
+    private String state;
+    private PopulationRequestDTO request;
+    private long quotes;
+    private long profiles;
+    private long accounts;
+    private long holdings;
+    private long orders;
+    private Date startTime;
+    private Date endTime;
+    private long elapsedMillis;
+    private String error;
+
+    public PopulationStatusDTO() {
+    }
+
+    public PopulationStatusDTO(String state, PopulationRequestDTO request, long quotes, long profiles,
+                               long accounts, long holdings, long orders, Date startTime, Date endTime,
+                               long elapsedMillis, String error) {
+        this.state = state;
+        this.request = request;
+        this.quotes = quotes;
+        this.profiles = profiles;
+        this.accounts = accounts;
+        this.holdings = holdings;
+        this.orders = orders;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    /**
+     * Total rows inserted so far
+     */
+    public long getRows() {
+        return quotes + profiles + accounts + holdings + orders;
+    }
+
+    // Getters and Setters
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public PopulationRequestDTO getRequest() {
+        return request;
+    }
+
+    public void setRequest(PopulationRequestDTO request) {
+        this.request = request;
+    }
+
+    public long getQuotes() {
+        return quotes;
+    }
+
+    public void setQuotes(long quotes) {
+        this.quotes = quotes;
+    }
+
+    public long getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(long profiles) {
+        this.profiles = profiles;
+    }
+
+    public long getAccounts() {
+        return accounts;
+    }
+
+    public void setAccounts(long accounts) {
+        this.accounts = accounts;
+    }
+
+    public long getHoldings() {
+        return holdings;
+    }
+
+    public void setHoldings(long holdings) {
+        this.holdings = holdings;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+
+    public Date getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Date startTime) {
+        this.startTime = startTime;
+    }
+
+    public Date getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Date endTime) {
+        this.endTime = endTime;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -32,6 +32,7 @@ public class PortfolioSummaryDTO {
     private BigDecimal gain;
     private BigDecimal gainPercent;
     private int numberOfHoldings;
+    private BigDecimal costBasis;
 
     public PortfolioSummaryDTO() {
     }
@@ -123,5 +124,12 @@ public class PortfolioSummaryDTO {
     public void setNumberOfHoldings(int numberOfHoldings) {
         this.numberOfHoldings = numberOfHoldings;
     }
-}
 
+    public BigDecimal getCostBasis() {
+        return costBasis;
+    }
+
+    public void setCostBasis(BigDecimal costBasis) {
+        this.costBasis = costBasis;
+    }
+}
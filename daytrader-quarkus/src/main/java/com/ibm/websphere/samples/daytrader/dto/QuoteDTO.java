@@ -48,6 +48,21 @@ public class QuoteDTO {
         this.change = quote.getChange();
     }
 
+    /**
+     * Projection constructor used by quote queries
+     */
+    public QuoteDTO(String symbol, String companyName, double volume, BigDecimal price, BigDecimal open,
+                    BigDecimal low, BigDecimal high, double change) {
+        this.symbol = symbol;
+        this.companyName = companyName;
+        this.volume = volume;
+        this.price = price;
+        this.open = open;
+        this.low = low;
+        this.high = high;
+        this.change = change;
+    }
+
     // Getters and Setters
     public String getSymbol() {
         return symbol;
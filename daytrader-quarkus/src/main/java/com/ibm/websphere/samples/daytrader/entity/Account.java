@@ -27,9 +27,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import jakarta.persistence.Temporal;
@@ -37,18 +39,25 @@ import jakarta.persistence.TemporalType;
 import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotNull;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 /**
  * Account entity - represents a brokerage account
  * Migrated from AccountDataBean per Phase 3: Backend Migration specification
+ *
+ * Updates only write changed columns, so login and logout never overwrite a
+ * BALANCE changed concurrently by a sell or the account ledger.
  */
 @Entity
-@Table(name = "accountejb")
+@DynamicUpdate
+@Table(name = "accountejb", indexes = @Index(name = "accountejb_profile_idx", columnList = "PROFILE_USERID"))
 public class Account implements Serializable {
 
     private static final long serialVersionUID = 8437841265136840545L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accountejb_seq")
+    @SequenceGenerator(name = "accountejb_seq", sequenceName = "accountejb_seq", allocationSize = IdBlocks.SIZE)
     @Column(name = "ACCOUNTID", nullable = false)
     private Integer accountID;
 
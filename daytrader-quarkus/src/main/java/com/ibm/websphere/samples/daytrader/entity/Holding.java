@@ -25,8 +25,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import jakarta.persistence.Temporal;
@@ -39,13 +41,14 @@ import jakarta.validation.constraints.NotNull;
  * Migrated from HoldingDataBean per Phase 3: Backend Migration specification
  */
 @Entity
-@Table(name = "holdingejb")
+@Table(name = "holdingejb", indexes = @Index(name = "holdingejb_account_idx", columnList = "ACCOUNT_ACCOUNTID"))
 public class Holding implements Serializable {
 
     private static final long serialVersionUID = -2338411656251935480L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "holdingejb_seq")
+    @SequenceGenerator(name = "holdingejb_seq", sequenceName = "holdingejb_seq", allocationSize = IdBlocks.SIZE)
     @Column(name = "HOLDINGID", nullable = false)
     private Integer holdingID;
 
@@ -0,0 +1,36 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.entity;
+
+/**
+ * Block size of the pooled ID sequences for accounts, holdings and orders - replaces KEYGENEJB
+ *
+ * Each sequence value reserves a block of IDs that Hibernate hands out without
+ * another round trip, so inserts are deferred to the flush and sent as JDBC batches.
+ * The sequences must be incremented by the same amount: Flyway creates them with
+ * the daytrader.id.block-size placeholder, which has to be changed together with this.
+ * Bulk population reserves blocks the same way and inserts the IDs explicitly.
+ * The ID columns default to the next sequence value (V1_5 on PostgreSQL, h2-id-defaults.sql
+ * on H2; the mapping itself stays database neutral), so SQL inserts that omit the ID
+ * (import-dev.sql) take a whole block each and never collide.
+ */
+public final class IdBlocks {
+
+    public static final int SIZE = 50;
+
+    private IdBlocks() {
+    }
+}
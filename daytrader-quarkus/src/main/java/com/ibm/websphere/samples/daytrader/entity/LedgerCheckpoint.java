@@ -0,0 +1,61 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Ledger checkpoint - highest journal sequence whose balance change has been
+ * written to accountejb by the account ledger. Updated in the same transaction
+ * as the balances, so recovery replays exactly the unflushed journal records.
+ */
+@Entity
+@Table(name = "ledgercheckpointejb")
+public class LedgerCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 4127365019583120476L;
+
+    @Id
+    @Column(name = "CHECKPOINTID", nullable = false)
+    private Integer checkpointID;
+
+    @Column(name = "FLUSHEDSEQUENCE", nullable = false)
+    private long flushedSequence;
+
+    public LedgerCheckpoint() {
+    }
+
+    public Integer getCheckpointID() {
+        return checkpointID;
+    }
+
+    public void setCheckpointID(Integer checkpointID) {
+        this.checkpointID = checkpointID;
+    }
+
+    public long getFlushedSequence() {
+        return flushedSequence;
+    }
+
+    public void setFlushedSequence(long flushedSequence) {
+        this.flushedSequence = flushedSequence;
+    }
+}
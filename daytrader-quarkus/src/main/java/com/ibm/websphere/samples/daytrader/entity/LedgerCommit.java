@@ -0,0 +1,55 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Ledger commit marker - the journal sequence of a balance change, inserted in the
+ * transaction that made the change. A journal record is replayed on recovery only if
+ * its marker exists, i.e. its transaction committed. Markers at or below the
+ * checkpoint are deleted when the checkpoint advances.
+ */
+@Entity
+@Table(name = "ledgercommitejb")
+public class LedgerCommit implements Serializable {
+
+    private static final long serialVersionUID = 6203847715290364418L;
+
+    @Id
+    @Column(name = "JOURNALSEQUENCE", nullable = false)
+    private Long journalSequence;
+
+    public LedgerCommit() {
+    }
+
+    public LedgerCommit(long journalSequence) {
+        this.journalSequence = journalSequence;
+    }
+
+    public Long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public void setJournalSequence(Long journalSequence) {
+        this.journalSequence = journalSequence;
+    }
+}
@@ -26,11 +26,13 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.NamedQueries;
 import jakarta.persistence.NamedQuery;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import jakarta.persistence.Temporal;
@@ -41,9 +43,16 @@ import jakarta.validation.constraints.NotNull;
 /**
  * Order entity - represents a trading order (buy, sell, cancel)
  * Migrated from OrderDataBean per Phase 3: Backend Migration specification
+ *
+ * Indexes are created by the Flyway migrations in production; they are declared here
+ * for generated (H2) schemas, where the status index is not partial.
  */
 @Entity
-@Table(name = "orderejb")
+@Table(name = "orderejb", indexes = {
+    @Index(name = "orderejb_account_history_idx", columnList = "ACCOUNT_ACCOUNTID, OPENDATE DESC, ORDERID DESC"),
+    @Index(name = "orderejb_pending_status_idx", columnList = "ORDERSTATUS, ACCOUNT_ACCOUNTID"),
+    @Index(name = "orderejb_holding_idx", columnList = "HOLDING_HOLDINGID")
+})
 @NamedQueries({
     @NamedQuery(name = "Order.findByOrderfee", query = "SELECT o FROM Order o WHERE o.orderFee = :orderfee"),
     @NamedQuery(name = "Order.findByCompletiondate", query = "SELECT o FROM Order o WHERE o.completionDate = :completiondate"),
@@ -64,12 +73,13 @@ public class Order implements Serializable {
     private static final long serialVersionUID = 120650490200739057L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderejb_seq")
+    @SequenceGenerator(name = "orderejb_seq", sequenceName = "orderejb_seq", allocationSize = IdBlocks.SIZE)
     @Column(name = "ORDERID", nullable = false)
     private Integer orderID;
 
     @Column(name = "ORDERTYPE")
-    private String orderType; // buy, sell, etc.
+    private String orderType; // buy, sell, limitbuy, limitsell, stopsell
 
     @Column(name = "ORDERSTATUS")
     private String orderStatus; // open, processing, completed, closed, cancelled
@@ -92,6 +102,9 @@ public class Order implements Serializable {
     @Column(name = "ORDERFEE")
     private BigDecimal orderFee;
 
+    @Column(name = "LIMITPRICE", precision = 14, scale = 2)
+    private BigDecimal limitPrice; // limit or stop price of limitbuy, limitsell and stopsell orders
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ACCOUNT_ACCOUNTID")
     private Account account;
@@ -190,6 +203,14 @@ public class Order implements Serializable {
         this.orderFee = orderFee;
     }
 
+    public BigDecimal getLimitPrice() {
+        return limitPrice;
+    }
+
+    public void setLimitPrice(BigDecimal limitPrice) {
+        this.limitPrice = limitPrice;
+    }
+
     public Account getAccount() {
         return account;
     }
@@ -246,6 +267,7 @@ public class Order implements Serializable {
                 ", quantity=" + quantity +
                 ", price=" + price +
                 ", orderFee=" + orderFee +
+                ", limitPrice=" + limitPrice +
                 ", symbol='" + symbol + '\'' +
                 '}';
     }
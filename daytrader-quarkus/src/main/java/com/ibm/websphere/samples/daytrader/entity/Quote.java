@@ -21,6 +21,7 @@ import java.math.BigDecimal;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.NamedQueries;
 import jakarta.persistence.NamedQuery;
 import jakarta.persistence.Table;
@@ -31,7 +32,7 @@ import jakarta.validation.constraints.NotNull;
  * Migrated from QuoteDataBean per Phase 3: Backend Migration specification
  */
 @Entity
-@Table(name = "quoteejb")
+@Table(name = "quoteejb", indexes = @Index(name = "quoteejb_change_idx", columnList = "CHANGE1"))
 @NamedQueries({
     @NamedQuery(name = "Quote.allQuotes", query = "SELECT q FROM Quote q"),
     @NamedQuery(name = "Quote.findBySymbol", query = "SELECT q FROM Quote q WHERE q.symbol = :symbol")
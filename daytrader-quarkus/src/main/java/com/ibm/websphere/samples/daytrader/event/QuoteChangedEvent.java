@@ -0,0 +1,56 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+
+/**
+ * CDI event fired whenever a quote is created or its price/volume changes.
+ * Observers interested in committed state should observe it with
+ * {@code during = TransactionPhase.AFTER_SUCCESS}.
+ *
+ * Observers of different transactions can run in any order, so each event carries
+ * a sequence number. Events are created while the quote row is still locked by the
+ * changing transaction, so for one quote the sequence follows the commit order.
+ */
+public class QuoteChangedEvent {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final QuoteDTO quote;
+    private final long sequence;
+
+    public QuoteChangedEvent(QuoteDTO quote) {
+        this.quote = quote;
+        this.sequence = SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * Snapshot of the quote after the change
+     */
+    public QuoteDTO getQuote() {
+        return quote;
+    }
+
+    /**
+     * Position of the change among changes of the same quote; a higher number is newer
+     */
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -43,6 +43,17 @@ public class AccountProfileRepository implements PanacheRepository<AccountProfil
         return find("userID = ?1 and password = ?2", userID, password).firstResultOptional();
     }
 
+    /**
+     * Password and account ID of a user, read in one query for credential verification
+     */
+    public Optional<Object[]> findCredentials(String userID) {
+        return getEntityManager().createQuery(
+                "SELECT a.profile.password, a.accountID FROM Account a WHERE a.profile.userID = ?1", Object[].class)
+                .setParameter(1, userID)
+                .getResultStream()
+                .findFirst();
+    }
+
     /**
      * Check if user ID exists
      */
@@ -15,8 +15,10 @@
  */
 package com.ibm.websphere.samples.daytrader.repository;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
+import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
 import com.ibm.websphere.samples.daytrader.entity.Account;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
@@ -29,6 +31,10 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class AccountRepository implements PanacheRepository<Account> {
 
+    private static final String ACCOUNT_PROJECTION =
+        "SELECT new com.ibm.websphere.samples.daytrader.dto.AccountDTO(a.accountID, a.loginCount, a.logoutCount, " +
+        "a.lastLogin, a.creationDate, a.balance, a.openBalance, p.userID) FROM Account a LEFT JOIN a.profile p ";
+
     /**
      * Find account by profile user ID
      */
@@ -36,6 +42,63 @@ public class AccountRepository implements PanacheRepository<Account> {
         return find("profile.userID", userID).firstResultOptional();
     }
 
+    /**
+     * Find the account ID for a profile user ID without loading the account
+     */
+    public Optional<Integer> findAccountIdByUserID(String userID) {
+        return getEntityManager().createQuery(
+                "SELECT a.accountID FROM Account a WHERE a.profile.userID = ?1", Integer.class)
+                .setParameter(1, userID)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Debit an account balance in one conditional update, which is also the funds check
+     * Returns false, leaving the balance unchanged, if the balance does not cover the amount
+     */
+    public boolean debitIfCovered(Integer accountID, BigDecimal amount) {
+        return update("balance = balance - ?1 WHERE accountID = ?2 AND balance >= ?1", amount, accountID) == 1;
+    }
+
+    /**
+     * Credit an account balance in one update
+     */
+    public int credit(Integer accountID, BigDecimal amount) {
+        return update("balance = balance + ?1 WHERE accountID = ?2", amount, accountID);
+    }
+
+    /**
+     * Find the balance of an account without loading it
+     */
+    public Optional<BigDecimal> findBalance(Integer accountID) {
+        return getEntityManager().createQuery(
+                "SELECT a.balance FROM Account a WHERE a.accountID = ?1", BigDecimal.class)
+                .setParameter(1, accountID)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Account data by account ID, read as a DTO without loading the account or its profile
+     */
+    public Optional<AccountDTO> findDtoById(Integer accountID) {
+        return getEntityManager().createQuery(ACCOUNT_PROJECTION + "WHERE a.accountID = ?1", AccountDTO.class)
+                .setParameter(1, accountID)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Account data by profile user ID, read as a DTO without loading the account or its profile
+     */
+    public Optional<AccountDTO> findDtoByUserID(String userID) {
+        return getEntityManager().createQuery(ACCOUNT_PROJECTION + "WHERE p.userID = ?1", AccountDTO.class)
+                .setParameter(1, userID)
+                .getResultStream()
+                .findFirst();
+    }
+
     /**
      * Find account by account ID with profile eagerly loaded
      */
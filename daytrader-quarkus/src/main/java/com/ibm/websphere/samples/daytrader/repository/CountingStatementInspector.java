@@ -0,0 +1,44 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Counts the SQL statements Hibernate prepares on behalf of a request.
+ * Statements issued outside a request (schedulers, order processor workers)
+ * are not counted. The SQL itself is passed through unchanged.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class CountingStatementInspector implements StatementInspector {
+
+    @Inject
+    StatementCounter statementCounter;
+
+    @Override
+    public String inspect(String sql) {
+        if (Arc.container().requestContext().isActive()) {
+            statementCounter.increment();
+        }
+        return sql;
+    }
+}
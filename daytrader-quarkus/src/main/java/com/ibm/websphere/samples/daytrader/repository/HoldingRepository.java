@@ -15,14 +15,22 @@
  */
 package com.ibm.websphere.samples.daytrader.repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
 import com.ibm.websphere.samples.daytrader.entity.Holding;
 
+import io.quarkus.datasource.common.runtime.DatabaseKind;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
 /**
  * Repository for Holding entity using Panache Repository pattern
  * Per Phase 3: Backend Migration specification section 3.2
@@ -30,6 +38,34 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class HoldingRepository implements PanacheRepository<Holding> {
 
+    /**
+     * Purchase date marking a holding whose asynchronous sale is in flight
+     */
+    public static final Timestamp SALE_IN_FLIGHT = new Timestamp(0);
+
+    private static final String HOLDING_PROJECTION =
+        "SELECT new com.ibm.websphere.samples.daytrader.dto.HoldingDTO(h.holdingID, h.quantity, h.purchasePrice, " +
+        "h.purchaseDate, q.symbol, q.companyName, q.price) FROM Holding h LEFT JOIN h.quote q ";
+
+    private static final String SALE_CONDITION =
+        "HOLDINGID = ?1 AND ACCOUNT_ACCOUNTID = ?2 AND PURCHASEDATE IS DISTINCT FROM ?3";
+
+    // Clears the order references to a holding and deletes it, returning what was sold, in one statement
+    private static final String REMOVE_FOR_SALE_RETURNING =
+        "WITH released AS (" +
+        "UPDATE orderejb SET HOLDING_HOLDINGID = NULL WHERE HOLDING_HOLDINGID IN " +
+        "(SELECT HOLDINGID FROM holdingejb WHERE " + SALE_CONDITION + ")) " +
+        "DELETE FROM holdingejb WHERE " + SALE_CONDITION + " RETURNING QUANTITY, QUOTE_SYMBOL";
+
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String dbKind;
+
+    /**
+     * Quantity and symbol of a holding claimed for sale
+     */
+    public record SaleClaim(double quantity, String symbol) {
+    }
+
     /**
      * Find holdings by account ID
      */
@@ -44,6 +80,37 @@ public class HoldingRepository implements PanacheRepository<Holding> {
         return find("SELECT h FROM Holding h LEFT JOIN FETCH h.quote WHERE h.account.accountID = ?1", accountId).list();
     }
 
+    /**
+     * Holdings of an account with their current quote, read as DTOs without loading entities
+     */
+    public List<HoldingDTO> findDtosByAccountId(Integer accountId) {
+        return getEntityManager().createQuery(HOLDING_PROJECTION + "WHERE h.account.accountID = ?1", HoldingDTO.class)
+                .setParameter(1, accountId)
+                .getResultList();
+    }
+
+    /**
+     * Holding by ID with its current quote, read as a DTO without loading entities
+     */
+    public Optional<HoldingDTO> findDtoById(Integer holdingId) {
+        return getEntityManager().createQuery(HOLDING_PROJECTION + "WHERE h.holdingID = ?1", HoldingDTO.class)
+                .setParameter(1, holdingId)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Holding ID, symbol, quantity and purchase price of every holding of an account,
+     * without loading entities
+     */
+    public List<Object[]> findPositionRowsByAccountId(Integer accountId) {
+        return getEntityManager().createQuery(
+                "SELECT h.holdingID, h.quote.symbol, h.quantity, h.purchasePrice FROM Holding h " +
+                "WHERE h.account.accountID = :accountId", Object[].class)
+                .setParameter("accountId", accountId)
+                .getResultList();
+    }
+
     /**
      * Find holding by ID with quote eagerly loaded
      */
@@ -52,6 +119,109 @@ public class HoldingRepository implements PanacheRepository<Holding> {
                 .firstResultOptional();
     }
 
+    /**
+     * Lock a holding of an account for sale, unless it is sold or its sale is in flight.
+     * Concurrent claims of the same holding wait for the row lock, and find nothing once it
+     * has been sold. Must run in a transaction.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<SaleClaim> lockForSale(Integer holdingId, Integer accountId) {
+        List<Object[]> rows = getEntityManager().createNativeQuery(
+                "SELECT QUANTITY, QUOTE_SYMBOL FROM holdingejb WHERE " + SALE_CONDITION + " FOR UPDATE")
+                .setParameter(1, holdingId)
+                .setParameter(2, accountId)
+                .setParameter(3, SALE_IN_FLIGHT)
+                .getResultList();
+        return rows.stream().findFirst().map(HoldingRepository::saleClaim);
+    }
+
+    /**
+     * Lock several holdings of an account for sale in one statement, skipping those that are
+     * sold, whose sale is in flight or that back an open or processing order (e.g. a resting
+     * limit or stop sell). Must run in a transaction.
+     *
+     * @return the claimed holdings by ID
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Integer, SaleClaim> lockForSale(Collection<Integer> holdingIds, Integer accountId) {
+        Map<Integer, SaleClaim> claims = new LinkedHashMap<>();
+        if (holdingIds.isEmpty()) {
+            return claims;
+        }
+        // Ascending IDs so concurrent batches lock rows in the same order
+        List<Object[]> rows = getEntityManager().createNativeQuery(
+                "SELECT HOLDINGID, QUANTITY, QUOTE_SYMBOL FROM holdingejb WHERE HOLDINGID IN (:ids) " +
+                "AND ACCOUNT_ACCOUNTID = :accountId AND PURCHASEDATE IS DISTINCT FROM :inFlight " +
+                "ORDER BY HOLDINGID FOR UPDATE")
+                .setParameter("ids", holdingIds)
+                .setParameter("accountId", accountId)
+                .setParameter("inFlight", SALE_IN_FLIGHT)
+                .getResultList();
+        for (Object[] row : rows) {
+            claims.put(((Number) row[0]).intValue(),
+                       new SaleClaim(((Number) row[1]).doubleValue(), (String) row[2]));
+        }
+        if (!claims.isEmpty()) {
+            List<Integer> busy = getEntityManager().createQuery(
+                    "SELECT DISTINCT o.holding.holdingID FROM Order o WHERE o.holding.holdingID IN :ids " +
+                    "AND o.orderStatus IN ('open', 'processing')", Integer.class)
+                    .setParameter("ids", claims.keySet())
+                    .getResultList();
+            claims.keySet().removeAll(busy);
+        }
+        return claims;
+    }
+
+    /**
+     * Delete a holding of an account being sold, clearing the order references to it, unless it
+     * is sold or its sale is in flight. A single DELETE ... RETURNING on PostgreSQL; on other
+     * databases the holding is locked first. Must run in a transaction.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<SaleClaim> removeForSale(Integer holdingId, Integer accountId) {
+        if (!DatabaseKind.isPostgreSQL(dbKind)) {
+            Optional<SaleClaim> claim = lockForSale(holdingId, accountId);
+            if (claim.isPresent()) {
+                getEntityManager().createNativeQuery(
+                        "UPDATE orderejb SET HOLDING_HOLDINGID = NULL WHERE HOLDING_HOLDINGID = ?1")
+                        .setParameter(1, holdingId)
+                        .executeUpdate();
+                getEntityManager().createNativeQuery("DELETE FROM holdingejb WHERE HOLDINGID = ?1")
+                        .setParameter(1, holdingId)
+                        .executeUpdate();
+            }
+            return claim;
+        }
+        List<Object[]> rows = getEntityManager().createNativeQuery(REMOVE_FOR_SALE_RETURNING)
+                .setParameter(1, holdingId)
+                .setParameter(2, accountId)
+                .setParameter(3, SALE_IN_FLIGHT)
+                .getResultList();
+        return rows.stream().findFirst().map(HoldingRepository::saleClaim);
+    }
+
+    /**
+     * Mark a holding as being sold by an asynchronous order
+     */
+    public int markSaleInFlight(Integer holdingId) {
+        return update("purchaseDate = ?1 WHERE holdingID = ?2", SALE_IN_FLIGHT, holdingId);
+    }
+
+    /**
+     * Undo {@link #markSaleInFlight} for a sale that was cancelled, restoring the purchase date
+     * from the buy order that created the holding
+     */
+    public int releaseSale(Integer holdingId) {
+        return getEntityManager().createNativeQuery(
+                "UPDATE holdingejb SET PURCHASEDATE = COALESCE(" +
+                "(SELECT MAX(COALESCE(o.COMPLETIONDATE, o.OPENDATE)) FROM orderejb o " +
+                "WHERE o.HOLDING_HOLDINGID = ?1 AND o.ORDERTYPE IN ('buy', 'limitbuy')), CURRENT_TIMESTAMP) " +
+                "WHERE HOLDINGID = ?1 AND PURCHASEDATE = ?2")
+                .setParameter(1, holdingId)
+                .setParameter(2, SALE_IN_FLIGHT)
+                .executeUpdate();
+    }
+
     /**
      * Find holdings by account ID and symbol
      */
@@ -65,5 +235,8 @@ public class HoldingRepository implements PanacheRepository<Holding> {
     public long deleteByAccountId(Integer accountId) {
         return delete("account.accountID", accountId);
     }
-}
 
+    private static SaleClaim saleClaim(Object[] row) {
+        return new SaleClaim(((Number) row[0]).doubleValue(), (String) row[1]);
+    }
+}
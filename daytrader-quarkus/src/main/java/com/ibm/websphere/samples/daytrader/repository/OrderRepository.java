@@ -15,17 +15,30 @@
  */
 package com.ibm.websphere.samples.daytrader.repository;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
 import com.ibm.websphere.samples.daytrader.entity.Order;
+import com.ibm.websphere.samples.daytrader.util.OrderCursor;
 
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.datasource.common.runtime.DatabaseKind;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
 /**
  * Repository for Order entity using Panache Repository pattern
  * Per Phase 3: Backend Migration specification section 3.2
@@ -33,9 +46,32 @@ import jakarta.transaction.Transactional;
 @ApplicationScoped
 public class OrderRepository implements PanacheRepository<Order> {
 
+    private static final String ORDER_PROJECTION =
+        "SELECT new com.ibm.websphere.samples.daytrader.dto.OrderDTO(o.orderID, o.orderType, o.orderStatus, " +
+        "o.openDate, o.completionDate, o.quantity, o.price, o.orderFee, q.symbol, q.companyName, a.accountID, h.holdingID) " +
+        "FROM Order o JOIN o.account a LEFT JOIN o.quote q LEFT JOIN o.holding h WHERE a.accountID = ?1";
+
+    private static final String HISTORY_ORDER = " ORDER BY o.openDate DESC, o.orderID DESC";
+
+    // Flips closed orders to completed and returns them, with the quote's company name, in one statement
+    private static final String COMPLETE_CLOSED_RETURNING =
+        "WITH completed AS (" +
+        "UPDATE orderejb SET ORDERSTATUS = 'completed' WHERE ACCOUNT_ACCOUNTID = ?1 AND ORDERSTATUS = 'closed' " +
+        "RETURNING ORDERID, ORDERTYPE, OPENDATE, COMPLETIONDATE, QUANTITY, PRICE, ORDERFEE, QUOTE_SYMBOL, " +
+        "ACCOUNT_ACCOUNTID, HOLDING_HOLDINGID) " +
+        "SELECT c.ORDERID, c.ORDERTYPE, c.OPENDATE, c.COMPLETIONDATE, c.QUANTITY, c.PRICE, c.ORDERFEE, " +
+        "c.QUOTE_SYMBOL, q.COMPANYNAME, c.ACCOUNT_ACCOUNTID, c.HOLDING_HOLDINGID " +
+        "FROM completed c LEFT JOIN quoteejb q ON q.SYMBOL = c.QUOTE_SYMBOL ORDER BY c.OPENDATE DESC, c.ORDERID DESC";
+
     @Inject
     EntityManager entityManager;
 
+    @Inject
+    AgroalDataSource dataSource;
+
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String dbKind;
+
     /**
      * Find orders by account ID
      */
@@ -43,6 +79,75 @@ public class OrderRepository implements PanacheRepository<Order> {
         return find("account.accountID = ?1 ORDER BY openDate DESC", accountId).list();
     }
 
+    /**
+     * Order history for an account as DTOs, newest first
+     */
+    public List<OrderDTO> findDtosByAccountId(Integer accountId) {
+        return entityManager.createQuery(ORDER_PROJECTION + HISTORY_ORDER, OrderDTO.class)
+                .setParameter(1, accountId)
+                .getResultList();
+    }
+
+    /**
+     * One page of order history as DTOs, newest first, starting after the cursor (or at the
+     * newest order when the cursor is null). Uses the (openDate, orderID) keyset so deep pages
+     * cost the same as the first one.
+     */
+    public List<OrderDTO> findDtoPageByAccountId(Integer accountId, OrderCursor cursor, int maxResults) {
+        if (cursor == null) {
+            return entityManager.createQuery(ORDER_PROJECTION + HISTORY_ORDER, OrderDTO.class)
+                    .setParameter(1, accountId)
+                    .setMaxResults(maxResults)
+                    .getResultList();
+        }
+        return entityManager.createQuery(ORDER_PROJECTION
+                + " AND (o.openDate < ?2 OR (o.openDate = ?2 AND o.orderID < ?3))" + HISTORY_ORDER, OrderDTO.class)
+                .setParameter(1, accountId)
+                .setParameter(2, cursor.getOpenDate())
+                .setParameter(3, cursor.getOrderID())
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    /**
+     * Pass every order of an account to the handler, newest first, reading from a JDBC cursor
+     * so memory use does not grow with the size of the history
+     */
+    public void forEachByAccountId(Integer accountId, int fetchSize, OrderHandler handler) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            // PostgreSQL only honours the fetch size (instead of buffering the whole result) outside auto-commit
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT o.ORDERID, o.ORDERTYPE, o.ORDERSTATUS, o.OPENDATE, o.COMPLETIONDATE, o.QUANTITY, o.PRICE, " +
+                    "o.ORDERFEE, o.ACCOUNT_ACCOUNTID, o.HOLDING_HOLDINGID, q.SYMBOL, q.COMPANYNAME " +
+                    "FROM orderejb o LEFT JOIN quoteejb q ON q.SYMBOL = o.QUOTE_SYMBOL " +
+                    "WHERE o.ACCOUNT_ACCOUNTID = ? ORDER BY o.OPENDATE DESC, o.ORDERID DESC")) {
+                query.setFetchSize(fetchSize);
+                query.setInt(1, accountId);
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        handler.accept(new OrderDTO(
+                            rows.getInt("ORDERID"),
+                            rows.getString("ORDERTYPE"),
+                            rows.getString("ORDERSTATUS"),
+                            rows.getTimestamp("OPENDATE"),
+                            rows.getTimestamp("COMPLETIONDATE"),
+                            rows.getDouble("QUANTITY"),
+                            rows.getBigDecimal("PRICE"),
+                            rows.getBigDecimal("ORDERFEE"),
+                            rows.getString("SYMBOL"),
+                            rows.getString("COMPANYNAME"),
+                            rows.getObject("ACCOUNT_ACCOUNTID", Integer.class),
+                            rows.getObject("HOLDING_HOLDINGID", Integer.class)));
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
     /**
      * Find orders by account ID and status
      */
@@ -80,6 +185,45 @@ public class OrderRepository implements PanacheRepository<Order> {
         return update("orderStatus = 'completed' WHERE orderStatus = 'closed' AND account.profile.userID = ?1", userId);
     }
 
+    /**
+     * Mark an account's closed orders completed and return them as they were read (status closed),
+     * newest first. A single UPDATE ... RETURNING on PostgreSQL; on other databases a projection read
+     * followed by an update of exactly the orders read. Must run in a transaction.
+     */
+    @SuppressWarnings("unchecked")
+    public List<OrderDTO> completeClosedOrders(Integer accountId) {
+        if (!DatabaseKind.isPostgreSQL(dbKind)) {
+            List<OrderDTO> closed = entityManager.createQuery(
+                    ORDER_PROJECTION + " AND o.orderStatus = 'closed'" + HISTORY_ORDER, OrderDTO.class)
+                    .setParameter(1, accountId)
+                    .getResultList();
+            if (!closed.isEmpty()) {
+                entityManager.createQuery("UPDATE Order o SET o.orderStatus = 'completed' WHERE o.orderID IN :ids")
+                        .setParameter("ids", closed.stream().map(OrderDTO::getOrderID).toList())
+                        .executeUpdate();
+            }
+            return closed;
+        }
+        List<Object[]> rows = entityManager.createNativeQuery(COMPLETE_CLOSED_RETURNING)
+                .setParameter(1, accountId)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new OrderDTO(
+                    ((Number) row[0]).intValue(),
+                    (String) row[1],
+                    "closed",
+                    (Date) row[2],
+                    (Date) row[3],
+                    ((Number) row[4]).doubleValue(),
+                    (BigDecimal) row[5],
+                    (BigDecimal) row[6],
+                    (String) row[7],
+                    (String) row[8],
+                    row[9] == null ? null : ((Number) row[9]).intValue(),
+                    row[10] == null ? null : ((Number) row[10]).intValue()))
+                .toList();
+    }
+
     /**
      * Find recent orders by account ID
      */
@@ -108,5 +252,52 @@ public class OrderRepository implements PanacheRepository<Order> {
             .setParameter(2, orderId)
             .executeUpdate();
     }
-}
 
+    /**
+     * Find the open limit and stop orders: order ID, order type, limit price and symbol
+     */
+    public List<Object[]> findRestingOrders() {
+        return entityManager.createQuery(
+                "SELECT o.orderID, o.orderType, o.limitPrice, o.quote.symbol FROM Order o " +
+                "WHERE o.orderStatus = 'open' AND o.limitPrice IS NOT NULL", Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * Find the IDs of the open market orders opened before a given time, which are completed
+     * by the order processor rather than the trigger book
+     */
+    public List<Integer> findOpenMarketOrderIds(Date openedBefore) {
+        return entityManager.createQuery(
+                "SELECT o.orderID FROM Order o WHERE o.orderStatus = 'open' AND o.limitPrice IS NULL " +
+                "AND o.openDate < :openedBefore ORDER BY o.orderID", Integer.class)
+                .setParameter("openedBefore", openedBefore)
+                .getResultList();
+    }
+
+    /**
+     * Move an open order to processing at its execution price, unless it has been executed or
+     * cancelled already. Concurrent claims of the same order wait for the row lock and find it
+     * no longer open. Must run in a transaction.
+     */
+    public boolean claimForExecution(Integer orderId, BigDecimal price) {
+        return update("orderStatus = 'processing', price = ?1 WHERE orderID = ?2 AND orderStatus = 'open'",
+                      price, orderId) == 1;
+    }
+
+    /**
+     * Cancel an order that is still open. Must run in a transaction.
+     */
+    public boolean cancelIfOpen(Integer orderId, Date completionDate) {
+        return update("orderStatus = 'cancelled', completionDate = ?1 WHERE orderID = ?2 AND orderStatus = 'open'",
+                      completionDate, orderId) == 1;
+    }
+
+    /**
+     * Receives orders streamed by {@link #forEachByAccountId}
+     */
+    @FunctionalInterface
+    public interface OrderHandler {
+        void accept(OrderDTO order) throws IOException;
+    }
+}
@@ -17,12 +17,17 @@ package com.ibm.websphere.samples.daytrader.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
 import com.ibm.websphere.samples.daytrader.entity.Quote;
+import com.ibm.websphere.samples.daytrader.util.SymbolUtils;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
 /**
  * Repository for Quote entity using Panache Repository pattern
  * Per Phase 3: Backend Migration specification section 3.2
@@ -30,11 +35,27 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class QuoteRepository implements PanacheRepository<Quote> {
 
+    private static final String QUOTE_PROJECTION =
+        "SELECT new com.ibm.websphere.samples.daytrader.dto.QuoteDTO(q.symbol, q.companyName, q.volume, " +
+        "q.price, q.open, q.low, q.high, q.change) FROM Quote q";
+
+    @ConfigProperty(name = "daytrader.symbols.legacy-lookup", defaultValue = "false")
+    boolean legacyLookup;
+
     /**
      * Find quote by symbol (case-insensitive)
+     * Symbols are stored upper case, so this is a primary key lookup on the canonical symbol.
+     * Legacy mixed-case rows are only found when the legacy lookup is enabled.
      */
     public Optional<Quote> findBySymbol(String symbol) {
-        return find("UPPER(symbol) = UPPER(?1)", symbol).firstResultOptional();
+        if (symbol == null) {
+            return Optional.empty();
+        }
+        Quote quote = getEntityManager().find(Quote.class, SymbolUtils.normalize(symbol));
+        if (quote == null && legacyLookup) {
+            return find("UPPER(symbol) = ?1", SymbolUtils.normalize(symbol)).firstResultOptional();
+        }
+        return Optional.ofNullable(quote);
     }
 
     /**
@@ -45,10 +66,33 @@ public class QuoteRepository implements PanacheRepository<Quote> {
     }
 
     /**
-     * Find quotes by symbols
+     * All quotes as DTOs, without loading entities
+     */
+    public List<QuoteDTO> findAllDtos() {
+        return getEntityManager().createQuery(QUOTE_PROJECTION, QuoteDTO.class)
+                .getResultList();
+    }
+
+    /**
+     * Up to maxResults quotes as DTOs, without loading entities
+     */
+    public List<QuoteDTO> findAllDtos(int maxResults) {
+        return getEntityManager().createQuery(QUOTE_PROJECTION, QuoteDTO.class)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    /**
+     * Find quotes by symbols (case-insensitive)
      */
     public List<Quote> findBySymbols(List<String> symbols) {
-        return list("symbol in ?1", symbols);
+        List<String> canonicalSymbols = symbols.stream()
+                .map(SymbolUtils::normalize)
+                .collect(Collectors.toList());
+        if (legacyLookup) {
+            return list("UPPER(symbol) in ?1", canonicalSymbols);
+        }
+        return list("symbol in ?1", canonicalSymbols);
     }
 
     /**
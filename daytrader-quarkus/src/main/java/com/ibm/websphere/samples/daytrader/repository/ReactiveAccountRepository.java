@@ -0,0 +1,83 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.repository;
+
+import java.util.Optional;
+
+import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+/**
+ * Non-blocking account reads over the reactive PostgreSQL client.
+ * Read-only counterpart of {@link AccountRepository}; only usable when the
+ * reactive datasource is configured.
+ */
+@ApplicationScoped
+public class ReactiveAccountRepository {
+
+    @Inject
+    Instance<Pool> pool;
+
+    /**
+     * Find account by account ID
+     */
+    public Uni<Optional<AccountDTO>> findById(Integer accountId) {
+        return pool.get().preparedQuery(
+                "SELECT accountid, logincount, logoutcount, lastlogin, creationdate, balance, openbalance, profile_userid " +
+                "FROM accountejb WHERE accountid = $1")
+                .execute(Tuple.of(accountId))
+                .map(rows -> {
+                    for (Row row : rows) {
+                        return Optional.of(toAccount(row));
+                    }
+                    return Optional.empty();
+                });
+    }
+
+    /**
+     * Find the account ID of a user
+     */
+    public Uni<Optional<Integer>> findAccountIdByUserID(String userID) {
+        return pool.get().preparedQuery("SELECT accountid FROM accountejb WHERE profile_userid = $1")
+                .execute(Tuple.of(userID))
+                .map(rows -> {
+                    for (Row row : rows) {
+                        return Optional.of(row.getInteger("accountid"));
+                    }
+                    return Optional.empty();
+                });
+    }
+
+    private static AccountDTO toAccount(Row row) {
+        AccountDTO account = new AccountDTO();
+        account.setAccountID(row.getInteger("accountid"));
+        account.setLoginCount(row.getInteger("logincount"));
+        account.setLogoutCount(row.getInteger("logoutcount"));
+        account.setLastLogin(ReactiveRows.toDate(row.getLocalDateTime("lastlogin")));
+        account.setCreationDate(ReactiveRows.toDate(row.getLocalDateTime("creationdate")));
+        account.setBalance(row.getBigDecimal("balance"));
+        account.setOpenBalance(row.getBigDecimal("openbalance"));
+        account.setProfileID(row.getString("profile_userid"));
+        return account;
+    }
+}
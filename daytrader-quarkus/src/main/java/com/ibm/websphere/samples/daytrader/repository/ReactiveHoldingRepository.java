@@ -0,0 +1,66 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+/**
+ * Non-blocking holding reads over the reactive PostgreSQL client.
+ * Read-only counterpart of {@link HoldingRepository}; only usable when the
+ * reactive datasource is configured.
+ */
+@ApplicationScoped
+public class ReactiveHoldingRepository {
+
+    @Inject
+    Instance<Pool> pool;
+
+    /**
+     * Find holdings by account ID with their quote's current price
+     */
+    public Uni<List<HoldingDTO>> findByAccountIdWithQuote(Integer accountId) {
+        return pool.get().preparedQuery(
+                "SELECT h.holdingid, h.quantity, h.purchaseprice, h.purchasedate, q.symbol, q.companyname, q.price " +
+                "FROM holdingejb h LEFT JOIN quoteejb q ON q.symbol = h.quote_symbol " +
+                "WHERE h.account_accountid = $1")
+                .execute(Tuple.of(accountId))
+                .map(rows -> {
+                    List<HoldingDTO> holdings = new ArrayList<>(rows.size());
+                    for (Row row : rows) {
+                        holdings.add(new HoldingDTO(
+                                row.getInteger("holdingid"),
+                                row.getDouble("quantity"),
+                                row.getBigDecimal("purchaseprice"),
+                                ReactiveRows.toDate(row.getLocalDateTime("purchasedate")),
+                                row.getString("symbol"),
+                                row.getString("companyname"),
+                                row.getBigDecimal("price")));
+                    }
+                    return holdings;
+                });
+    }
+}
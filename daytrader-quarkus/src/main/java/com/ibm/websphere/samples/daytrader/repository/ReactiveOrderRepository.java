@@ -0,0 +1,100 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.util.OrderCursor;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+/**
+ * Non-blocking order reads over the reactive PostgreSQL client.
+ * Read-only counterpart of {@link OrderRepository}; only usable when the
+ * reactive datasource is configured.
+ */
+@ApplicationScoped
+public class ReactiveOrderRepository {
+
+    private static final String SELECT_ORDERS =
+        "SELECT o.orderid, o.ordertype, o.orderstatus, o.opendate, o.completiondate, o.quantity, o.price, " +
+        "o.orderfee, o.account_accountid, o.holding_holdingid, q.symbol, q.companyname " +
+        "FROM orderejb o LEFT JOIN quoteejb q ON q.symbol = o.quote_symbol ";
+
+    private static final String HISTORY_ORDER = "ORDER BY o.opendate DESC, o.orderid DESC";
+
+    @Inject
+    Instance<Pool> pool;
+
+    /**
+     * Find orders by account ID, newest first
+     */
+    public Uni<List<OrderDTO>> findByAccountId(Integer accountId) {
+        return pool.get().preparedQuery(SELECT_ORDERS + "WHERE o.account_accountid = $1 " + HISTORY_ORDER)
+                .execute(Tuple.of(accountId))
+                .map(ReactiveOrderRepository::toOrders);
+    }
+
+    /**
+     * One page of orders by account ID, newest first, starting after the cursor
+     * (or at the newest order when the cursor is null)
+     */
+    public Uni<List<OrderDTO>> findPageByAccountId(Integer accountId, OrderCursor cursor, int maxResults) {
+        if (cursor == null) {
+            return pool.get().preparedQuery(SELECT_ORDERS + "WHERE o.account_accountid = $1 " + HISTORY_ORDER + " LIMIT $2")
+                    .execute(Tuple.of(accountId, maxResults))
+                    .map(ReactiveOrderRepository::toOrders);
+        }
+        return pool.get().preparedQuery(SELECT_ORDERS + "WHERE o.account_accountid = $1 "
+                + "AND (o.opendate, o.orderid) < ($2, $3) " + HISTORY_ORDER + " LIMIT $4")
+                .execute(Tuple.of(accountId, cursor.getOpenDate().toLocalDateTime(), cursor.getOrderID(), maxResults))
+                .map(ReactiveOrderRepository::toOrders);
+    }
+
+    private static List<OrderDTO> toOrders(RowSet<Row> rows) {
+        List<OrderDTO> orders = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            orders.add(toOrder(row));
+        }
+        return orders;
+    }
+
+    private static OrderDTO toOrder(Row row) {
+        OrderDTO order = new OrderDTO();
+        order.setOrderID(row.getInteger("orderid"));
+        order.setOrderType(row.getString("ordertype"));
+        order.setOrderStatus(row.getString("orderstatus"));
+        order.setOpenDate(ReactiveRows.toDate(row.getLocalDateTime("opendate")));
+        order.setCompletionDate(ReactiveRows.toDate(row.getLocalDateTime("completiondate")));
+        order.setQuantity(row.getDouble("quantity"));
+        order.setPrice(row.getBigDecimal("price"));
+        order.setOrderFee(row.getBigDecimal("orderfee"));
+        order.setAccountID(row.getInteger("account_accountid"));
+        order.setHoldingID(row.getInteger("holding_holdingid"));
+        order.setSymbol(row.getString("symbol"));
+        order.setCompanyName(row.getString("companyname"));
+        return order;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.util.SymbolUtils;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Non-blocking quote reads over the reactive PostgreSQL client.
+ * Read-only counterpart of {@link QuoteRepository}; only usable when the
+ * reactive datasource is configured.
+ */
+@ApplicationScoped
+public class ReactiveQuoteRepository {
+
+    private static final String COLUMNS = "symbol, companyname, volume, price, open1, low, high, change1";
+
+    @Inject
+    Instance<Pool> pool;
+
+    @ConfigProperty(name = "daytrader.symbols.legacy-lookup", defaultValue = "false")
+    boolean legacyLookup;
+
+    /**
+     * Find quote by symbol (case-insensitive)
+     */
+    public Uni<Optional<QuoteDTO>> findBySymbol(String symbol) {
+        String where = legacyLookup ? "UPPER(symbol) = $1" : "symbol = $1";
+        return pool.get().preparedQuery("SELECT " + COLUMNS + " FROM quoteejb WHERE " + where)
+                .execute(Tuple.of(SymbolUtils.normalize(symbol)))
+                .map(rows -> {
+                    for (Row row : rows) {
+                        return Optional.of(toQuote(row));
+                    }
+                    return Optional.empty();
+                });
+    }
+
+    /**
+     * Find all quotes
+     */
+    public Uni<List<QuoteDTO>> findAllQuotes() {
+        return pool.get().query("SELECT " + COLUMNS + " FROM quoteejb")
+                .execute()
+                .map(ReactiveQuoteRepository::toQuotes);
+    }
+
+    private static List<QuoteDTO> toQuotes(RowSet<Row> rows) {
+        List<QuoteDTO> quotes = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            quotes.add(toQuote(row));
+        }
+        return quotes;
+    }
+
+    private static QuoteDTO toQuote(Row row) {
+        QuoteDTO quote = new QuoteDTO();
+        quote.setSymbol(row.getString("symbol"));
+        quote.setCompanyName(row.getString("companyname"));
+        quote.setVolume(row.getDouble("volume"));
+        quote.setPrice(row.getBigDecimal("price"));
+        quote.setOpen(row.getBigDecimal("open1"));
+        quote.setLow(row.getBigDecimal("low"));
+        quote.setHigh(row.getBigDecimal("high"));
+        quote.setChange(row.getDouble("change1"));
+        return quote;
+    }
+}
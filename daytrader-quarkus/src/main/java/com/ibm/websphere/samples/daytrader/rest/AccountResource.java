@@ -19,8 +19,11 @@ import java.math.BigDecimal;
 
 import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
 import com.ibm.websphere.samples.daytrader.dto.AccountProfileDTO;
+import com.ibm.websphere.samples.daytrader.service.ReactiveTradeService;
 import com.ibm.websphere.samples.daytrader.service.TradeService;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.annotation.security.PermitAll;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
@@ -52,11 +55,16 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Tag(name = "Accounts", description = "Account management operations")
+@RunOnVirtualThread
+@ConnectionLimited
 public class AccountResource {
 
     @Inject
     TradeService tradeService;
 
+    @Inject
+    ReactiveTradeService reactiveTradeService;
+
     @Inject
     JsonWebToken jwt;
 
@@ -75,15 +83,10 @@ public class AccountResource {
             description = "Account not found"
         )
     })
-    public Response getAccount(@PathParam("accountId") Integer accountId) {
-        try {
-            AccountDTO account = tradeService.getAccountData(accountId);
-            return Response.ok(account).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
-                    .build();
-        }
+    public Uni<Response> getAccount(@PathParam("accountId") Integer accountId) {
+        return reactiveTradeService.getAccountData(accountId)
+                .map(account -> Response.ok(account).build())
+                .onFailure(IllegalArgumentException.class).recoverWithItem(QuoteResource::notFound);
     }
 
     @GET
@@ -0,0 +1,118 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.rest;
+
+import com.ibm.websphere.samples.daytrader.dto.PopulationRequestDTO;
+import com.ibm.websphere.samples.daytrader.dto.PopulationStatusDTO;
+import com.ibm.websphere.samples.daytrader.service.DataPopulationService;
+import com.ibm.websphere.samples.daytrader.service.JwtService;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+/**
+ * REST resource for administrative operations
+ * 
+ * Exposes endpoints under /api/v1/admin to users with the admin role
+ * (daytrader.admin.users). Data population is disabled unless
+ * daytrader.population.enabled is set.
+ */
+@Path("/admin")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Admin", description = "Administrative operations")
+@RolesAllowed(JwtService.ADMIN_ROLE)
+public class AdminResource {
+
+    @Inject
+    DataPopulationService dataPopulationService;
+
+    @ConfigProperty(name = "daytrader.population.enabled", defaultValue = "false")
+    boolean populationEnabled;
+
+    @POST
+    @Path("/populate")
+    @Operation(summary = "Populate database",
+               description = "Starts generating quotes, users, holdings and orders in the background. Poll GET /admin/populate for progress.")
+    @APIResponses({
+        @APIResponse(
+            responseCode = "202",
+            description = "Population started",
+            content = @Content(schema = @Schema(implementation = PopulationStatusDTO.class))
+        ),
+        @APIResponse(
+            responseCode = "400",
+            description = "Invalid request"
+        ),
+        @APIResponse(
+            responseCode = "403",
+            description = "Data population is disabled"
+        ),
+        @APIResponse(
+            responseCode = "409",
+            description = "A population run is already in progress"
+        )
+    })
+    public Response populate(PopulationRequestDTO request) {
+        if (!populationEnabled) {
+            return Response.status(Response.Status.FORBIDDEN)
+                    .entity(new QuoteResource.ErrorResponse("Data population is disabled"))
+                    .build();
+        }
+
+        try {
+            PopulationStatusDTO status = dataPopulationService.start(request != null ? request : new PopulationRequestDTO());
+            return Response.status(Response.Status.ACCEPTED).entity(status).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    @GET
+    @Path("/populate")
+    @Operation(summary = "Get population progress", description = "Retrieves the progress of the current or last population run")
+    @APIResponses({
+        @APIResponse(
+            responseCode = "200",
+            description = "Population progress",
+            content = @Content(schema = @Schema(implementation = PopulationStatusDTO.class))
+        )
+    })
+    public Response getPopulationStatus() {
+        return Response.ok(dataPopulationService.getStatus()).build();
+    }
+}
@@ -20,6 +20,7 @@ import com.ibm.websphere.samples.daytrader.dto.LoginResponseDTO;
 import com.ibm.websphere.samples.daytrader.service.JwtService;
 import com.ibm.websphere.samples.daytrader.service.TradeService;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
@@ -48,6 +49,8 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Tag(name = "Authentication", description = "User authentication operations")
+@RunOnVirtualThread
+@ConnectionLimited
 public class AuthResource {
 
     @Inject
@@ -0,0 +1,68 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.rest;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Limits concurrent {@link ConnectionLimited} requests to the number of pooled
+ * database connections.
+ *
+ * On worker threads the worker pool already bounds concurrency, but with
+ * virtual threads enabled every request gets its own thread; without this
+ * limit they would all queue inside the connection pool and fail once its
+ * acquisition timeout expires. Requests that cannot get a permit within the
+ * acquire timeout are answered with 503 and a Retry-After header.
+ * The permit is released when the resource method returns, or for a method
+ * returning a {@link Uni} when the Uni terminates. Endpoints that stream from
+ * the database after returning hold their own permit through
+ * {@link ConnectionLimiter#holdUntilEnd} instead.
+ */
+@ConnectionLimited
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class ConnectionLimitInterceptor {
+
+    @Inject
+    ConnectionLimiter limiter;
+
+    @AroundInvoke
+    Object limit(InvocationContext context) throws Exception {
+        if (!limiter.isEnabled()) {
+            return context.proceed();
+        }
+        if (!limiter.acquire()) {
+            throw limiter.busy();
+        }
+        Object result;
+        try {
+            result = context.proceed();
+        } catch (Exception e) {
+            limiter.release();
+            throw e;
+        }
+        if (result instanceof Uni<?> uni) {
+            return uni.onTermination().invoke(limiter::release);
+        }
+        limiter.release();
+        return result;
+    }
+}
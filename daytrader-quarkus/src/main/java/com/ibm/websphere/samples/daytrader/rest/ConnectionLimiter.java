@@ -0,0 +1,130 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.rest;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Application-wide permits for {@link ConnectionLimited} requests, sized to the
+ * database connection pool less the connections kept for background work: the
+ * order processor workers plus the ledger and login statistics flushes, the
+ * market simulator and data population.
+ */
+@ApplicationScoped
+public class ConnectionLimiter {
+
+    private static final Logger LOG = Logger.getLogger(ConnectionLimiter.class);
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "daytrader.connection-limit.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "daytrader.connection-limit.permits")
+    Optional<Integer> configuredPermits;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.max-size", defaultValue = "20")
+    int poolSize;
+
+    @ConfigProperty(name = "daytrader.order-processor.workers", defaultValue = "4")
+    int orderWorkers;
+
+    @ConfigProperty(name = "daytrader.connection-limit.background-reserve", defaultValue = "4")
+    int backgroundReserve;
+
+    @ConfigProperty(name = "daytrader.connection-limit.acquire-timeout", defaultValue = "5s")
+    Duration acquireTimeout;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        int permitCount = configuredPermits.orElse(Math.max(1, poolSize - orderWorkers - backgroundReserve));
+        // Fair, so waiting requests are served in arrival order
+        permits = new Semaphore(permitCount, true);
+        Gauge.builder("daytrader.connection.limit.waiting", permits, Semaphore::getQueueLength)
+                .description("Requests waiting for a database connection permit")
+                .register(meterRegistry);
+        LOG.infof("Connection limit: enabled=%s, permits=%s, acquireTimeout=%s", enabled, permitCount, acquireTimeout);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wait up to the acquire timeout for a permit
+     */
+    public boolean acquire() throws InterruptedException {
+        return permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Take a permit for a request that keeps using the database after its resource method
+     * returns, such as a streamed response, and hold it until the response has ended or
+     * the connection was closed
+     *
+     * @throws ServiceUnavailableException if no permit is available within the acquire timeout
+     */
+    public void holdUntilEnd(RoutingContext routingContext) {
+        if (!enabled) {
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw busy();
+        }
+        routingContext.addEndHandler(ended -> release());
+    }
+
+    /**
+     * 503 answer for a request that could not get a permit
+     */
+    ServiceUnavailableException busy() {
+        return new ServiceUnavailableException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", 1)
+                .entity(new QuoteResource.ErrorResponse("Server busy, please retry"))
+                .type(MediaType.APPLICATION_JSON)
+                .build());
+    }
+}
@@ -15,15 +15,29 @@
  */
 package com.ibm.websphere.samples.daytrader.rest;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
 import com.ibm.websphere.samples.daytrader.dto.MarketSummaryDTO;
+import com.ibm.websphere.samples.daytrader.service.MarketDataStreamer;
 import com.ibm.websphere.samples.daytrader.service.TradeService;
+import com.ibm.websphere.samples.daytrader.util.SymbolUtils;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
@@ -35,15 +49,22 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 /**
  * REST Resource for market data operations
  * Per Phase 2: Market Summary & Profiles specification
+ *
+ * Not {@link ConnectionLimited}: the summary is served from memory and the stream is fed
+ * by quote change events, so neither holds a database connection.
  */
 @Path("/market")
 @Produces(MediaType.APPLICATION_JSON)
 @Tag(name = "Market", description = "Market data operations")
+@RunOnVirtualThread
 public class MarketResource {
 
     @Inject
     TradeService tradeService;
 
+    @Inject
+    MarketDataStreamer marketDataStreamer;
+
     @GET
     @Path("/summary")
     @Operation(summary = "Get market summary", 
@@ -80,5 +101,59 @@ public class MarketResource {
                     .build();
         }
     }
-}
 
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Stream market data",
+               description = "Pushes 'quotes' events for the requested symbols and 'summary' events as the market changes. "
+                           + "Only the latest value is delivered to clients that fall behind.")
+    @APIResponses({
+        @APIResponse(
+            responseCode = "200",
+            description = "Event stream opened"
+        ),
+        @APIResponse(
+            responseCode = "400",
+            description = "Too many symbols requested"
+        ),
+        @APIResponse(
+            responseCode = "404",
+            description = "Quote not found"
+        ),
+        @APIResponse(
+            responseCode = "503",
+            description = "Streaming client limit reached"
+        )
+    })
+    public void streamMarketData(@QueryParam("symbols") String symbols,
+                                 @QueryParam("summary") @DefaultValue("true") boolean includeSummary,
+                                 @Context SseEventSink sink,
+                                 @Context Sse sse) {
+        List<String> requested = symbols == null || symbols.isBlank()
+                ? List.of()
+                : Arrays.stream(symbols.split(",")).map(SymbolUtils::normalize).filter(symbol -> !symbol.isEmpty())
+                        .distinct().collect(Collectors.toList());
+
+        // Validate symbol count before subscribing
+        if (requested.size() > marketDataStreamer.getMaxSymbolsPerClient()) {
+            throw new WebApplicationException(error(Response.Status.BAD_REQUEST,
+                    "At most " + marketDataStreamer.getMaxSymbolsPerClient() + " symbols may be streamed per client"));
+        }
+
+        try {
+            marketDataStreamer.subscribe(sink, sse, requested, includeSummary);
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(error(Response.Status.NOT_FOUND, e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            throw new WebApplicationException(error(Response.Status.SERVICE_UNAVAILABLE, e.getMessage()));
+        }
+    }
+
+    private static Response error(Response.Status status, String message) {
+        return Response.status(status)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(new QuoteResource.ErrorResponse(message))
+                .build();
+    }
+}
@@ -15,12 +15,28 @@
  */
 package com.ibm.websphere.samples.daytrader.rest;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ibm.websphere.samples.daytrader.dto.BatchOrderResultDTO;
 import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderRequestDTO;
+import com.ibm.websphere.samples.daytrader.service.ReactiveTradeService;
 import com.ibm.websphere.samples.daytrader.service.TradeService;
+import com.ibm.websphere.samples.daytrader.util.OrderCursor;
+import com.ibm.websphere.samples.daytrader.util.SymbolUtils;
 import com.ibm.websphere.samples.daytrader.util.TradeConfig;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
+import io.vertx.ext.web.RoutingContext;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
@@ -30,9 +46,12 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
@@ -52,44 +71,157 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 @Consumes(MediaType.APPLICATION_JSON)
 @Tag(name = "Orders", description = "Trading order operations")
 @RolesAllowed({"Trader", "User"})
+@RunOnVirtualThread
 public class OrderResource {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String NDJSON = "application/x-ndjson";
+
     @Inject
     TradeService tradeService;
 
+    @Inject
+    ReactiveTradeService reactiveTradeService;
+
     @Inject
     JsonWebToken jwt;
 
+    @Inject
+    ConnectionLimiter connectionLimiter;
+
+    @ConfigProperty(name = "daytrader.order-processing-mode", defaultValue = "synch")
+    String orderProcessingMode;
+
+    @ConfigProperty(name = "daytrader.orders.max-batch-size", defaultValue = "100")
+    int maxBatchSize;
+
+    @ConfigProperty(name = "daytrader.orders.page-size", defaultValue = "100")
+    int defaultPageSize;
+
+    @ConfigProperty(name = "daytrader.orders.max-page-size", defaultValue = "1000")
+    int maxPageSize;
+
+    @ConfigProperty(name = "daytrader.orders.export-fetch-size", defaultValue = "500")
+    int exportFetchSize;
+
+    @Inject
+    ObjectMapper objectMapper;
+
     @GET
-    @Operation(summary = "Get user orders", description = "Retrieves all orders for the authenticated user")
+    @Operation(summary = "Get user orders",
+               description = "Retrieves one page of orders for the authenticated user, newest first. "
+                           + "When more orders exist, the X-Next-Cursor response header holds the cursor for the next page.")
     @APIResponses({
         @APIResponse(
             responseCode = "200",
             description = "List of orders",
             content = @Content(schema = @Schema(implementation = OrderDTO.class))
         ),
+        @APIResponse(
+            responseCode = "400",
+            description = "Invalid cursor or limit"
+        ),
         @APIResponse(
             responseCode = "404",
             description = "User not found"
         )
     })
-    public Response getOrders() {
+    @ConnectionLimited
+    public Uni<Response> getOrders(@QueryParam("cursor") String cursor, @QueryParam("limit") Integer limit) {
+        // Get userID from JWT token
+        String userID = jwt.getSubject();
+        if (userID == null || userID.isBlank()) {
+            return Uni.createFrom().item(Response.status(Response.Status.UNAUTHORIZED)
+                    .entity(new QuoteResource.ErrorResponse("User not authenticated"))
+                    .build());
+        }
+
+        // Validate paging parameters
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize <= 0 || pageSize > maxPageSize) {
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse("limit must be between 1 and " + maxPageSize))
+                    .build());
+        }
+        OrderCursor after;
+        try {
+            after = OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
+                    .build());
+        }
+
+        return reactiveTradeService.getOrdersPage(userID, after, pageSize)
+                .map(page -> Response.ok(page.getOrders())
+                        .header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                        .build())
+                .onFailure(IllegalArgumentException.class).recoverWithItem(QuoteResource::notFound);
+    }
+
+    @GET
+    @Path("/export")
+    @Produces(NDJSON)
+    @Operation(summary = "Export user orders",
+               description = "Streams every order of the authenticated user, newest first, as newline-delimited JSON")
+    @APIResponses({
+        @APIResponse(
+            responseCode = "200",
+            description = "One order per line",
+            content = @Content(mediaType = NDJSON, schema = @Schema(implementation = OrderDTO.class))
+        ),
+        @APIResponse(
+            responseCode = "404",
+            description = "User not found"
+        ),
+        @APIResponse(
+            responseCode = "503",
+            description = "Server busy, retry later"
+        )
+    })
+    public Response exportOrders(@Context RoutingContext routingContext) {
+        // Rows are read while the response is written, after this method has returned,
+        // so the connection permit is held until the response ends
+        connectionLimiter.holdUntilEnd(routingContext);
+
         // Get userID from JWT token
         String userID = jwt.getSubject();
         if (userID == null || userID.isBlank()) {
             return Response.status(Response.Status.UNAUTHORIZED)
                     .entity(new QuoteResource.ErrorResponse("User not authenticated"))
+                    .type(MediaType.APPLICATION_JSON)
                     .build();
         }
 
+        Integer accountID;
         try {
-            List<OrderDTO> orders = tradeService.getOrders(userID);
-            return Response.ok(orders).build();
+            accountID = tradeService.getAccountID(userID);
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(new QuoteResource.ErrorResponse(e.getMessage()))
+                    .type(MediaType.APPLICATION_JSON)
                     .build();
         }
+
+        // Rows are serialized as they are read from the database cursor, so memory use
+        // stays constant however long the history is
+        ObjectWriter writer = objectMapper.writerFor(OrderDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingOutput body = output -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+            generator.setRootValueSeparator(null);
+            try {
+                tradeService.forEachOrder(accountID, exportFetchSize, order -> {
+                    writer.writeValue(generator, order);
+                    generator.writeRaw('\n');
+                });
+            } catch (SQLException e) {
+                throw new IOException("Order export failed", e);
+            }
+            generator.flush();
+        };
+        return Response.ok(body, NDJSON).build();
     }
 
     @POST
@@ -101,6 +233,11 @@ public class OrderResource {
             description = "Buy order created",
             content = @Content(schema = @Schema(implementation = OrderDTO.class))
         ),
+        @APIResponse(
+            responseCode = "202",
+            description = "Buy order accepted for asynchronous completion",
+            content = @Content(schema = @Schema(implementation = OrderDTO.class))
+        ),
         @APIResponse(
             responseCode = "400",
             description = "Invalid request"
@@ -108,8 +245,13 @@ public class OrderResource {
         @APIResponse(
             responseCode = "404",
             description = "User or quote not found"
+        ),
+        @APIResponse(
+            responseCode = "503",
+            description = "Order processing queue is full"
         )
     })
+    @ConnectionLimited
     public Response buy(BuyRequest request) {
         // Get userID from JWT token
         String userID = jwt.getSubject();
@@ -132,13 +274,17 @@ public class OrderResource {
         }
 
         try {
-            OrderDTO order = tradeService.buy(userID, request.symbol,
-                    request.quantity, TradeConfig.SYNCH);
-            return Response.status(Response.Status.CREATED).entity(order).build();
+            OrderDTO order = tradeService.buy(userID, SymbolUtils.normalize(request.symbol),
+                    request.quantity, TradeConfig.getOrderProcessingMode(orderProcessingMode));
+            return Response.status(statusFor(order)).entity(order).build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(new QuoteResource.ErrorResponse(e.getMessage()))
                     .build();
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new QuoteResource.ErrorResponse("Buy operation failed: " + e.getMessage()))
@@ -155,11 +301,21 @@ public class OrderResource {
             description = "Sell order created",
             content = @Content(schema = @Schema(implementation = OrderDTO.class))
         ),
+        @APIResponse(
+            responseCode = "202",
+            description = "Sell order accepted for asynchronous completion",
+            content = @Content(schema = @Schema(implementation = OrderDTO.class))
+        ),
         @APIResponse(
             responseCode = "400",
             description = "Invalid request"
+        ),
+        @APIResponse(
+            responseCode = "503",
+            description = "Order processing queue is full"
         )
     })
+    @ConnectionLimited
     public Response sell(SellRequest request) {
         // Get userID from JWT token
         String userID = jwt.getSubject();
@@ -177,12 +333,17 @@ public class OrderResource {
         }
 
         try {
-            OrderDTO order = tradeService.sell(userID, request.holdingID, TradeConfig.SYNCH);
-            return Response.status(Response.Status.CREATED).entity(order).build();
+            OrderDTO order = tradeService.sell(userID, request.holdingID,
+                    TradeConfig.getOrderProcessingMode(orderProcessingMode));
+            return Response.status(statusFor(order)).entity(order).build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(new QuoteResource.ErrorResponse(e.getMessage()))
                     .build();
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new QuoteResource.ErrorResponse("Sell operation failed: " + e.getMessage()))
@@ -190,6 +351,163 @@ public class OrderResource {
         }
     }
 
+    @POST
+    @Path("/conditional")
+    @Operation(summary = "Place limit or stop order",
+               description = "Places a limitbuy, limitsell or stopsell order for the authenticated user. "
+                           + "The order stays open until the quote price crosses its limit price, then executes asynchronously.")
+    @APIResponses({
+        @APIResponse(
+            responseCode = "202",
+            description = "Order placed and waiting for its price",
+            content = @Content(schema = @Schema(implementation = OrderDTO.class))
+        ),
+        @APIResponse(
+            responseCode = "400",
+            description = "Invalid request"
+        ),
+        @APIResponse(
+            responseCode = "404",
+            description = "User, quote or holding not found, or insufficient funds"
+        )
+    })
+    @ConnectionLimited
+    public Response placeConditional(ConditionalOrderRequest request) {
+        // Get userID from JWT token
+        String userID = jwt.getSubject();
+        if (userID == null || userID.isBlank()) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                    .entity(new QuoteResource.ErrorResponse("User not authenticated"))
+                    .build();
+        }
+
+        // Validate required fields
+        if (!TradeConfig.isTriggered(request.orderType)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse("orderType must be " + TradeConfig.LIMIT_BUY + ", "
+                            + TradeConfig.LIMIT_SELL + " or " + TradeConfig.STOP_SELL))
+                    .build();
+        }
+        if (request.limitPrice == null || request.limitPrice.signum() <= 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse("limitPrice must be greater than 0"))
+                    .build();
+        }
+        boolean buy = TradeConfig.isBuy(request.orderType);
+        if (buy && (request.symbol == null || request.symbol.isBlank())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse("symbol is required"))
+                    .build();
+        }
+        if (buy && request.quantity <= 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse("quantity must be greater than 0"))
+                    .build();
+        }
+        if (!buy && request.holdingID == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse("holdingID is required"))
+                    .build();
+        }
+
+        try {
+            OrderDTO order = tradeService.placeTriggeredOrder(userID, request.orderType,
+                    buy ? SymbolUtils.normalize(request.symbol) : null, request.quantity, request.holdingID,
+                    request.limitPrice);
+            return Response.status(statusFor(order)).entity(order).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new QuoteResource.ErrorResponse("Order placement failed: " + e.getMessage()))
+                    .build();
+        }
+    }
+
+    @POST
+    @Path("/batch")
+    @Operation(summary = "Submit orders in batch",
+               description = "Creates several buy and sell orders for the authenticated user in one transaction. "
+                           + "Each order is validated individually; the response reports the outcome of every order in request order.")
+    @APIResponses({
+        @APIResponse(
+            responseCode = "200",
+            description = "Per-order results",
+            content = @Content(schema = @Schema(implementation = BatchOrderResultDTO.class))
+        ),
+        @APIResponse(
+            responseCode = "400",
+            description = "Empty or oversized batch, or a null order"
+        ),
+        @APIResponse(
+            responseCode = "404",
+            description = "User not found"
+        ),
+        @APIResponse(
+            responseCode = "503",
+            description = "Order processing queue is full"
+        )
+    })
+    @ConnectionLimited
+    public Response submitBatch(List<OrderRequestDTO> requests) {
+        // Get userID from JWT token
+        String userID = jwt.getSubject();
+        if (userID == null || userID.isBlank()) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                    .entity(new QuoteResource.ErrorResponse("User not authenticated"))
+                    .build();
+        }
+
+        // Validate batch size
+        if (requests == null || requests.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse("at least one order is required"))
+                    .build();
+        }
+        if (requests.size() > maxBatchSize) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new QuoteResource.ErrorResponse("at most " + maxBatchSize + " orders may be submitted per batch"))
+                    .build();
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequestDTO request = requests.get(i);
+            if (request == null) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(new QuoteResource.ErrorResponse("order " + i + " is required"))
+                        .build();
+            }
+            request.setSymbol(SymbolUtils.normalize(request.getSymbol()));
+        }
+
+        try {
+            List<BatchOrderResultDTO> results = tradeService.submitOrders(userID, requests,
+                    TradeConfig.getOrderProcessingMode(orderProcessingMode));
+            return Response.ok(results).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new QuoteResource.ErrorResponse("Batch operation failed: " + e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * Orders still open were accepted for asynchronous completion
+     */
+    private static Response.Status statusFor(OrderDTO order) {
+        return "open".equals(order.getOrderStatus()) ? Response.Status.ACCEPTED : Response.Status.CREATED;
+    }
+
     /**
      * Request DTO for buy operation
      */
@@ -204,5 +522,16 @@ public class OrderResource {
     public static class SellRequest {
         public Integer holdingID;
     }
+
+    /**
+     * Request DTO for limit and stop orders
+     */
+    public static class ConditionalOrderRequest {
+        public String orderType;
+        public String symbol;
+        public double quantity;
+        public Integer holdingID;
+        public BigDecimal limitPrice;
+    }
 }
 
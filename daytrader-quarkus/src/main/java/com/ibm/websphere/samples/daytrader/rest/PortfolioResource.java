@@ -15,12 +15,13 @@
  */
 package com.ibm.websphere.samples.daytrader.rest;
 
-import java.util.List;
-
 import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
 import com.ibm.websphere.samples.daytrader.dto.PortfolioSummaryDTO;
+import com.ibm.websphere.samples.daytrader.service.ReactiveTradeService;
 import com.ibm.websphere.samples.daytrader.service.TradeService;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
@@ -48,11 +49,16 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 @Produces(MediaType.APPLICATION_JSON)
 @Tag(name = "Portfolio", description = "Portfolio and holdings operations")
 @RolesAllowed({"Trader", "User"})
+@RunOnVirtualThread
+@ConnectionLimited
 public class PortfolioResource {
 
     @Inject
     TradeService tradeService;
 
+    @Inject
+    ReactiveTradeService reactiveTradeService;
+
     @Inject
     JsonWebToken jwt;
 
@@ -69,23 +75,18 @@ public class PortfolioResource {
             description = "User not found"
         )
     })
-    public Response getPortfolio() {
+    public Uni<Response> getPortfolio() {
         // Get userID from JWT token
         String userID = jwt.getSubject();
         if (userID == null || userID.isBlank()) {
-            return Response.status(Response.Status.UNAUTHORIZED)
+            return Uni.createFrom().item(Response.status(Response.Status.UNAUTHORIZED)
                     .entity(new QuoteResource.ErrorResponse("User not authenticated"))
-                    .build();
+                    .build());
         }
 
-        try {
-            List<HoldingDTO> holdings = tradeService.getHoldings(userID);
-            return Response.ok(holdings).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(new QuoteResource.ErrorResponse(e.getMessage()))
-                    .build();
-        }
+        return reactiveTradeService.getHoldings(userID)
+                .map(holdings -> Response.ok(holdings).build())
+                .onFailure(IllegalArgumentException.class).recoverWithItem(QuoteResource::notFound);
     }
 
     @GET
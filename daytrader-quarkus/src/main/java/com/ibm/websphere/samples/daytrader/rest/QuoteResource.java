@@ -15,11 +15,12 @@
  */
 package com.ibm.websphere.samples.daytrader.rest;
 
-import java.util.List;
-
 import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
-import com.ibm.websphere.samples.daytrader.service.TradeService;
+import com.ibm.websphere.samples.daytrader.service.ReactiveTradeService;
+import com.ibm.websphere.samples.daytrader.util.SymbolUtils;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -40,14 +41,18 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
  * Per Phase 3: Backend Migration specification section 4
  * 
  * Exposes endpoints under /api/v1/quotes
+ * Single quotes are served from the quote cache, so only the full listing is
+ * {@link ConnectionLimited}. Reads return a {@link Uni}, so with the reactive
+ * client no request thread waits for the query.
  */
 @Path("/quotes")
 @Produces(MediaType.APPLICATION_JSON)
 @Tag(name = "Quotes", description = "Stock quote operations")
+@RunOnVirtualThread
 public class QuoteResource {
 
     @Inject
-    TradeService tradeService;
+    ReactiveTradeService reactiveTradeService;
 
     @GET
     @Path("/{symbol}")
@@ -63,15 +68,10 @@ public class QuoteResource {
             description = "Quote not found"
         )
     })
-    public Response getQuote(@PathParam("symbol") String symbol) {
-        try {
-            QuoteDTO quote = tradeService.getQuote(symbol);
-            return Response.ok(quote).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(new ErrorResponse(e.getMessage()))
-                    .build();
-        }
+    public Uni<Response> getQuote(@PathParam("symbol") String symbol) {
+        return reactiveTradeService.getQuote(SymbolUtils.normalize(symbol))
+                .map(quote -> Response.ok(quote).build())
+                .onFailure(IllegalArgumentException.class).recoverWithItem(QuoteResource::notFound);
     }
 
     @GET
@@ -83,9 +83,18 @@ public class QuoteResource {
             content = @Content(schema = @Schema(implementation = QuoteDTO.class))
         )
     })
-    public Response getAllQuotes() {
-        List<QuoteDTO> quotes = tradeService.getAllQuotes();
-        return Response.ok(quotes).build();
+    @ConnectionLimited
+    public Uni<Response> getAllQuotes() {
+        return reactiveTradeService.getAllQuotes().map(quotes -> Response.ok(quotes).build());
+    }
+
+    /**
+     * 404 answer for a read whose user, account or quote does not exist
+     */
+    static Response notFound(Throwable e) {
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
     }
 
     /**
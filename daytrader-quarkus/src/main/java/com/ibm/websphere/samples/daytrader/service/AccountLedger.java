@@ -0,0 +1,472 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
+import com.ibm.websphere.samples.daytrader.entity.LedgerCommit;
+import com.ibm.websphere.samples.daytrader.util.Money;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * In-memory account balances with write-behind to accountejb
+ *
+ * When enabled, buys and sells no longer read-modify-write the account row, which
+ * serializes every order of an account on its row lock. Each account's balance is a
+ * long number of cents updated with compare-and-set: a buy reserves its cost (and is
+ * refused if the balance would go negative) without a database round trip, and a sell
+ * is credited once its transaction commits.
+ *
+ * Every balance change is appended to a {@link LedgerJournal} and forced to disk before
+ * the order's transaction commits, and a {@link LedgerCommit} marker with its sequence is
+ * inserted in that transaction. Committed changes are coalesced per account and written
+ * to accountejb every flush-interval, together with the journal checkpoint. On startup,
+ * journal records past the checkpoint that have a marker are applied before the ledger
+ * is used; records of transactions that rolled back or never committed have none.
+ * Balances of accounts without reservations or unflushed changes are evicted once
+ * unused for expire-after-access.
+ *
+ * Balances are held by this JVM only, so the ledger must only be enabled when a single
+ * instance writes to the database.
+ */
+@ApplicationScoped
+public class AccountLedger {
+
+    private static final Logger LOG = Logger.getLogger(AccountLedger.class);
+    private static final int CHECKPOINT_ID = 1;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "daytrader.ledger.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "daytrader.ledger.journal-directory", defaultValue = "ledger")
+    String journalDirectory;
+
+    @ConfigProperty(name = "daytrader.ledger.journal-sync", defaultValue = "true")
+    boolean journalSync;
+
+    @ConfigProperty(name = "daytrader.ledger.segment-records", defaultValue = "1000000")
+    int segmentRecords;
+
+    @ConfigProperty(name = "daytrader.ledger.expire-after-access", defaultValue = "10m")
+    Duration expireAfterAccess;
+
+    // Balance per loaded account
+    private final Map<Integer, Balance> balances = new ConcurrentHashMap<>();
+    // Journal records not yet written to accountejb, by sequence
+    private final ConcurrentSkipListMap<Long, Change> unflushed = new ConcurrentSkipListMap<>();
+
+    private LedgerJournal journal;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("daytrader.ledger.unflushed", unflushed, Map::size)
+                .description("Ledger balance changes not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("daytrader.ledger.accounts", balances, Map::size)
+                .description("Accounts with an in-memory ledger balance")
+                .register(meterRegistry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            start();
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (!ready) {
+            return;
+        }
+        flush();
+        stop();
+    }
+
+    /**
+     * Apply the committed journal records left unflushed by the previous run, then start journaling
+     */
+    synchronized void start() {
+        balances.clear();
+        unflushed.clear();
+        try {
+            journal = new LedgerJournal(Path.of(journalDirectory), segmentRecords, journalSync);
+            long flushed = readCheckpoint();
+            Set<Long> committed = readCommitted(flushed);
+            long last = flushed;
+            Map<Integer, Long> changes = new TreeMap<>();
+            int replayed = 0;
+            for (LedgerJournal.Record record : journal.recover()) {
+                last = Math.max(last, record.sequence());
+                // Journaled before commit; the marker exists only if the transaction committed
+                if (record.sequence() > flushed && committed.contains(record.sequence())) {
+                    changes.merge(record.accountID(), record.cents(), Long::sum);
+                    replayed++;
+                }
+            }
+            if (last > flushed) {
+                write(changes, last);
+            }
+            journal.reset(last);
+            ready = true;
+            LOG.infof("Account ledger started, %s unflushed balance changes recovered", replayed);
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Account ledger recovery failed", e);
+        }
+    }
+
+    /**
+     * Stop using the ledger without flushing it, as a crash would; changes not yet
+     * written are recovered from the journal by the next {@link #start()}
+     */
+    synchronized void stop() {
+        ready = false;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close ledger journal", e);
+        }
+    }
+
+    /**
+     * Whether balances are kept by the ledger rather than updated in accountejb directly
+     */
+    public boolean isEnabled() {
+        return ready;
+    }
+
+    /**
+     * Current balance of an account, loading it on first use
+     */
+    public BigDecimal balance(Integer accountID) {
+        Balance balance = acquire(accountID);
+        try {
+            return Money.toBigDecimal(balance.cents.get());
+        } finally {
+            balance.release();
+        }
+    }
+
+    /**
+     * Current balance of an account if the ledger holds it; the accountejb value
+     * may lag behind it by up to one flush interval
+     */
+    public Optional<BigDecimal> currentBalance(Integer accountID) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        Balance balance = balances.get(accountID);
+        return balance == null ? Optional.empty() : Optional.of(Money.toBigDecimal(balance.cents.get()));
+    }
+
+    /**
+     * Account data with the ledger balance when the ledger holds the account
+     */
+    public AccountDTO withCurrentBalance(AccountDTO account) {
+        currentBalance(account.getAccountID()).ifPresent(account::setBalance);
+        return account;
+    }
+
+    /**
+     * Take amount from the balance for the current transaction, unless that would make it negative.
+     * The amount is returned if the transaction rolls back; {@link #record} must journal it otherwise.
+     *
+     * @return false if the balance is insufficient
+     */
+    public boolean reserve(Integer accountID, BigDecimal amount) {
+        long cents = Money.toCents(amount);
+        Balance balance = acquire(accountID);
+        long current;
+        do {
+            current = balance.cents.get();
+            if (current < cents) {
+                balance.release();
+                return false;
+            }
+        } while (!balance.cents.compareAndSet(current, current - cents));
+        transactionCallbacks.afterCompletion(committed -> {
+            if (!committed) {
+                balance.cents.addAndGet(cents);
+            }
+            balance.release();
+        });
+        return true;
+    }
+
+    /**
+     * Journal a balance change made by an order in the current transaction: negative for an
+     * amount already reserved, positive for a credit, which is applied once the transaction commits
+     */
+    public void record(Integer orderID, Integer accountID, BigDecimal amount) {
+        long cents = Money.toCents(amount);
+        // Held until the change is flushed, so the balance is not evicted while accountejb lags behind it
+        Balance balance = acquire(accountID);
+        Change change = new Change(balance, accountID, cents);
+        long sequence;
+        try {
+            sequence = journal.append(orderID, accountID, cents, appended -> unflushed.put(appended, change));
+        } catch (RuntimeException e) {
+            balance.release();
+            throw e;
+        }
+        transactionCallbacks.afterCompletion(committed -> {
+            if (committed && cents > 0) {
+                balance.cents.addAndGet(cents);
+            }
+            change.state = committed ? Change.COMMITTED : Change.ROLLED_BACK;
+        });
+        entityManager.persist(new LedgerCommit(sequence));
+    }
+
+    /**
+     * Write committed balance changes to accountejb, coalesced per account
+     * Only the run of changes whose transactions have all finished is written, so the
+     * checkpoint never passes a change that may still commit.
+     */
+    @Scheduled(every = "${daytrader.ledger.flush-interval:100ms}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    synchronized void flush() {
+        if (!ready) {
+            return;
+        }
+        Map<Integer, Long> changes = new TreeMap<>();
+        long last = -1;
+        for (Map.Entry<Long, Change> entry : unflushed.entrySet()) {
+            Change change = entry.getValue();
+            if (change.state == Change.PENDING) {
+                break;
+            }
+            if (change.state == Change.COMMITTED) {
+                changes.merge(change.accountID, change.cents, Long::sum);
+            }
+            last = entry.getKey();
+        }
+        if (last < 0) {
+            return;
+        }
+        try {
+            write(changes, last);
+            Map<Long, Change> written = unflushed.headMap(last, true);
+            for (Change change : written.values()) {
+                change.balance.release();
+            }
+            written.clear();
+            journal.release(last);
+        } catch (SQLException | IOException e) {
+            // Changes stay queued and are retried on the next flush
+            LOG.error("Failed to flush ledger balances", e);
+        }
+    }
+
+    /**
+     * Drop balances unused for expire-after-access that have no reservation or unflushed
+     * change; accountejb holds their current value
+     */
+    @Scheduled(every = "${daytrader.ledger.eviction-interval:1m}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evictIdle() {
+        if (!ready) {
+            return;
+        }
+        long idleSince = System.nanoTime() - expireAfterAccess.toNanos();
+        for (Integer accountID : balances.keySet()) {
+            balances.computeIfPresent(accountID, (id, balance) ->
+                    balance.users.get() == 0 && balance.lastUsed - idleSince < 0 ? null : balance);
+        }
+    }
+
+    /**
+     * The balance of an account, loaded on first use and held until {@link Balance#release()}
+     */
+    private Balance acquire(Integer accountID) {
+        while (true) {
+            // Loaded outside the map so the database read does not block other accounts; the
+            // database value is current because only balances without unflushed changes are evicted
+            Balance loaded = balances.containsKey(accountID) ? null : load(accountID);
+            Balance acquired = balances.compute(accountID, (id, balance) -> {
+                Balance current = balance != null ? balance : loaded;
+                if (current != null) {
+                    current.users.incrementAndGet();
+                    current.lastUsed = System.nanoTime();
+                }
+                return current;
+            });
+            if (acquired != null) {
+                return acquired;
+            }
+        }
+    }
+
+    private Balance load(Integer accountID) {
+        List<BigDecimal> stored = entityManager.createQuery(
+                "SELECT a.balance FROM Account a WHERE a.accountID = :accountID", BigDecimal.class)
+                .setParameter("accountID", accountID)
+                .getResultList();
+        if (stored.isEmpty()) {
+            throw new IllegalArgumentException("Account not found: " + accountID);
+        }
+        return new Balance(Money.toCents(stored.get(0)));
+    }
+
+    private void write(Map<Integer, Long> changes, long sequence) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                // Accounts in ascending order so concurrent writers lock rows in the same order
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE accountejb SET BALANCE = BALANCE + ? WHERE ACCOUNTID = ?")) {
+                    for (Map.Entry<Integer, Long> change : changes.entrySet()) {
+                        if (change.getValue() != 0) {
+                            update.setBigDecimal(1, Money.toBigDecimal(change.getValue()));
+                            update.setInt(2, change.getKey());
+                            update.addBatch();
+                        }
+                    }
+                    update.executeBatch();
+                }
+                try (PreparedStatement markers = connection.prepareStatement(
+                        "DELETE FROM ledgercommitejb WHERE JOURNALSEQUENCE <= ?")) {
+                    markers.setLong(1, sequence);
+                    markers.executeUpdate();
+                }
+                try (PreparedStatement checkpoint = connection.prepareStatement(
+                        "UPDATE ledgercheckpointejb SET FLUSHEDSEQUENCE = ? WHERE CHECKPOINTID = ?")) {
+                    checkpoint.setLong(1, sequence);
+                    checkpoint.setInt(2, CHECKPOINT_ID);
+                    if (checkpoint.executeUpdate() == 0) {
+                        try (PreparedStatement insert = connection.prepareStatement(
+                                "INSERT INTO ledgercheckpointejb (CHECKPOINTID, FLUSHEDSEQUENCE) VALUES (?, ?)")) {
+                            insert.setInt(1, CHECKPOINT_ID);
+                            insert.setLong(2, sequence);
+                            insert.executeUpdate();
+                        }
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private long readCheckpoint() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement query = connection.prepareStatement(
+                     "SELECT FLUSHEDSEQUENCE FROM ledgercheckpointejb WHERE CHECKPOINTID = ?")) {
+            query.setInt(1, CHECKPOINT_ID);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next() ? rows.getLong(1) : 0;
+            }
+        }
+    }
+
+    private Set<Long> readCommitted(long flushedSequence) throws SQLException {
+        Set<Long> committed = new HashSet<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement query = connection.prepareStatement(
+                     "SELECT JOURNALSEQUENCE FROM ledgercommitejb WHERE JOURNALSEQUENCE > ?")) {
+            query.setLong(1, flushedSequence);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    committed.add(rows.getLong(1));
+                }
+            }
+        }
+        return committed;
+    }
+
+    /**
+     * Balance of an account in cents, and the reservations, unflushed changes and
+     * reads using it; only a balance nothing uses can be evicted
+     */
+    private static final class Balance {
+
+        final AtomicLong cents;
+        final AtomicInteger users = new AtomicInteger();
+        volatile long lastUsed;
+
+        Balance(long cents) {
+            this.cents = new AtomicLong(cents);
+        }
+
+        void release() {
+            users.decrementAndGet();
+        }
+    }
+
+    /**
+     * A journaled balance change and the outcome of its transaction
+     */
+    private static final class Change {
+
+        static final int PENDING = 0;
+        static final int COMMITTED = 1;
+        static final int ROLLED_BACK = 2;
+
+        final Balance balance;
+        final int accountID;
+        final long cents;
+        volatile int state = PENDING;
+
+        Change(Balance balance, int accountID, long cents) {
+            this.balance = balance;
+            this.accountID = accountID;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.jwt.auth.principal.DefaultJWTParser;
+import io.smallrye.jwt.auth.principal.ParseException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+/**
+ * JWT parser that verifies each distinct bearer token once
+ *
+ * Replaces the default parser used to authenticate requests. A token whose
+ * signature and claims were verified is cached under the SHA-256 of the token
+ * until it expires (or for at most max-ttl), so the signature of a client's
+ * token is checked on its first request only. Tokens that fail verification
+ * are never cached.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(1)
+public class CachingJWTParser extends DefaultJWTParser {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "daytrader.jwt.verify-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "daytrader.jwt.verify-cache.maximum-size", defaultValue = "100000")
+    long maximumSize;
+
+    @ConfigProperty(name = "daytrader.jwt.verify-cache.max-ttl", defaultValue = "5m")
+    Duration maxTtl;
+
+    private Cache<String, JsonWebToken> verified;
+    private Timer verifyTimer;
+    private Counter cacheHits;
+
+    @PostConstruct
+    void init() {
+        verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilExpiry(maxTtl))
+                .build();
+        verifyTimer = Timer.builder("daytrader.jwt.verify")
+                .description("Time to verify a JWT signature and claims")
+                .register(meterRegistry);
+        cacheHits = Counter.builder("daytrader.jwt.verify.cache.hits")
+                .description("Requests authenticated with an already verified JWT")
+                .register(meterRegistry);
+        Gauge.builder("daytrader.jwt.verify.cache.size", verified, Cache::estimatedSize)
+                .description("Verified JWTs held in the cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public JsonWebToken parse(String bearerToken) throws ParseException {
+        if (!enabled) {
+            return verify(bearerToken);
+        }
+        String key = hash(bearerToken);
+        JsonWebToken cached = verified.getIfPresent(key);
+        if (cached != null && cached.getExpirationTime() > System.currentTimeMillis() / 1000) {
+            cacheHits.increment();
+            return cached;
+        }
+        JsonWebToken token = verify(bearerToken);
+        verified.put(key, token);
+        return token;
+    }
+
+    private JsonWebToken verify(String bearerToken) throws ParseException {
+        long start = System.nanoTime();
+        try {
+            return super.parse(bearerToken);
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String hash(String bearerToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bearerToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Keeps a token until its exp claim, and no longer than the configured maximum
+     */
+    private static final class UntilExpiry implements Expiry<String, JsonWebToken> {
+
+        private final long maxTtlNanos;
+
+        UntilExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, JsonWebToken token, long currentTime) {
+            long remaining = TimeUnit.SECONDS.toNanos(token.getExpirationTime())
+                    - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+            return Math.max(0, Math.min(remaining, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JsonWebToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JsonWebToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
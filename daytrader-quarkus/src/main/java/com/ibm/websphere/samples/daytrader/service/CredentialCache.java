@@ -0,0 +1,152 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibm.websphere.samples.daytrader.repository.AccountProfileRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Verifies login credentials against a bounded cache of salted password hashes
+ *
+ * A user's password and account ID are read once, in a single query, and kept
+ * only as a random salt and the SHA-256 hash of salt and password, so repeated
+ * logins are verified without a database round trip and the cache never holds
+ * plaintext passwords. Entries expire after expire-after-write, so passwords
+ * changed outside the application are picked up; changes made through
+ * {@link TradeService#updateAccountProfile} invalidate the entry once committed.
+ */
+@ApplicationScoped
+public class CredentialCache {
+
+    private static final int SALT_LENGTH = 16;
+
+    @Inject
+    AccountProfileRepository accountProfileRepository;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "daytrader.credential-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "daytrader.credential-cache.maximum-size", defaultValue = "100000")
+    long maximumSize;
+
+    @ConfigProperty(name = "daytrader.credential-cache.expire-after-write", defaultValue = "10m")
+    Duration expireAfterWrite;
+
+    private final SecureRandom random = new SecureRandom();
+    private Cache<String, Credential> credentials;
+
+    @PostConstruct
+    void init() {
+        credentials = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        Gauge.builder("daytrader.credential.cache.size", credentials, Cache::estimatedSize)
+                .description("Users with cached login credentials")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Account ID of the user if the password is correct
+     */
+    public Optional<Integer> verify(String userID, String password) {
+        Credential credential = credential(userID);
+        if (credential == null || password == null || !credential.matches(password)) {
+            return Optional.empty();
+        }
+        return Optional.of(credential.accountID());
+    }
+
+    /**
+     * Account ID of a user whose credentials are cached
+     */
+    public Optional<Integer> cachedAccountID(String userID) {
+        Credential credential = enabled ? credentials.getIfPresent(userID) : null;
+        return credential == null ? Optional.empty() : Optional.of(credential.accountID());
+    }
+
+    /**
+     * Drop a user's credentials once the current transaction commits
+     */
+    public void invalidate(String userID) {
+        transactionCallbacks.afterCommit(() -> credentials.invalidate(userID));
+    }
+
+    private Credential credential(String userID) {
+        if (!enabled) {
+            return load(userID);
+        }
+        Credential cached = credentials.getIfPresent(userID);
+        if (cached != null) {
+            return cached;
+        }
+        // Unknown users are not cached, so failed logins cannot fill the cache
+        Credential loaded = load(userID);
+        if (loaded != null) {
+            credentials.put(userID, loaded);
+        }
+        return loaded;
+    }
+
+    private Credential load(String userID) {
+        Optional<Object[]> row = accountProfileRepository.findCredentials(userID);
+        if (row.isEmpty() || row.get()[0] == null) {
+            return null;
+        }
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        return new Credential(salt, hash(salt, (String) row.get()[0]), (Integer) row.get()[1]);
+    }
+
+    private static byte[] hash(byte[] salt, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Credential(byte[] salt, byte[] hash, Integer accountID) {
+
+        boolean matches(String password) {
+            return MessageDigest.isEqual(hash, CredentialCache.hash(salt, password));
+        }
+    }
+}
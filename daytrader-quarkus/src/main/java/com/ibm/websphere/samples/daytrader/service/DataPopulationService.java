@@ -0,0 +1,421 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.ibm.websphere.samples.daytrader.dto.PopulationRequestDTO;
+import com.ibm.websphere.samples.daytrader.dto.PopulationStatusDTO;
+import com.ibm.websphere.samples.daytrader.entity.IdBlocks;
+import com.ibm.websphere.samples.daytrader.util.FinancialUtils;
+import com.ibm.websphere.samples.daytrader.util.SymbolUtils;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.datasource.common.runtime.DatabaseKind;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Bulk data population - replaces TradeBuildDB
+ *
+ * Generates quotes, then users (profile, account, holdings and the closed buy
+ * order behind each holding) with JDBC batch inserts. Work is split into
+ * chunks that run in parallel, each chunk on its own connection and committed
+ * on its own, so a failed run leaves the completed chunks in place. Account,
+ * holding and order IDs are reserved from the pooled sequences a block at a time,
+ * as Hibernate does, and inserted explicitly.
+ * Only one run at a time; progress is available from {@link #getStatus()}.
+ */
+@ApplicationScoped
+public class DataPopulationService {
+
+    private static final Logger LOG = Logger.getLogger(DataPopulationService.class);
+
+    private static final BigDecimal OPEN_BALANCE = new BigDecimal("1000000.00");
+    private static final String PASSWORD = "xxx";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    MarketSummaryService marketSummaryService;
+
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String dbKind;
+
+    @ConfigProperty(name = "daytrader.population.threads", defaultValue = "4")
+    int threads;
+
+    @ConfigProperty(name = "daytrader.population.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "daytrader.population.batch-size", defaultValue = "500")
+    int batchSize;
+
+    private final AtomicReference<String> state = new AtomicReference<>("idle");
+    private final AtomicLong quotes = new AtomicLong();
+    private final AtomicLong profiles = new AtomicLong();
+    private final AtomicLong accounts = new AtomicLong();
+    private final AtomicLong holdings = new AtomicLong();
+    private final AtomicLong orders = new AtomicLong();
+    private volatile PopulationRequestDTO request;
+    private volatile Date startTime;
+    private volatile Date endTime;
+    private volatile String error;
+    private volatile ExecutorService workers;
+
+    @PreDestroy
+    void shutdown() {
+        ExecutorService current = workers;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * Start a population run in the background
+     *
+     * @throws IllegalArgumentException if the requested sizes are invalid
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public PopulationStatusDTO start(PopulationRequestDTO populationRequest) {
+        validate(populationRequest);
+        String previous = state.get();
+        if ("running".equals(previous) || !state.compareAndSet(previous, "running")) {
+            throw new IllegalStateException("A data population run is already in progress");
+        }
+
+        request = populationRequest;
+        quotes.set(0);
+        profiles.set(0);
+        accounts.set(0);
+        holdings.set(0);
+        orders.set(0);
+        startTime = new Date();
+        endTime = null;
+        error = null;
+
+        workers = Executors.newFixedThreadPool(threads + 1, new PopulationThreadFactory());
+        workers.submit(() -> run(populationRequest));
+        LOG.infof("Data population started: users=%s, quotes=%s, holdingsPerUser=%s",
+                  populationRequest.getUsers(), populationRequest.getQuotes(), populationRequest.getHoldingsPerUser());
+        return getStatus();
+    }
+
+    /**
+     * Progress of the current or last run
+     */
+    public PopulationStatusDTO getStatus() {
+        Date start = startTime;
+        Date end = endTime;
+        long elapsed = start == null ? 0 : (end != null ? end.getTime() : System.currentTimeMillis()) - start.getTime();
+        return new PopulationStatusDTO(state.get(), request, quotes.get(), profiles.get(), accounts.get(),
+                                       holdings.get(), orders.get(), start, end, elapsed, error);
+    }
+
+    private static void validate(PopulationRequestDTO populationRequest) {
+        if (populationRequest.getUsers() < 0 || populationRequest.getQuotes() < 0
+                || populationRequest.getHoldingsPerUser() < 0) {
+            throw new IllegalArgumentException("users, quotes and holdingsPerUser must not be negative");
+        }
+        if (populationRequest.getHoldingsPerUser() > 0 && populationRequest.getQuotes() == 0) {
+            throw new IllegalArgumentException("holdings require at least one quote");
+        }
+        if (populationRequest.getUserPrefix() == null || populationRequest.getUserPrefix().isBlank()
+                || populationRequest.getSymbolPrefix() == null || populationRequest.getSymbolPrefix().isBlank()) {
+            throw new IllegalArgumentException("userPrefix and symbolPrefix are required");
+        }
+    }
+
+    private void run(PopulationRequestDTO populationRequest) {
+        try {
+            BigDecimal[] prices = new BigDecimal[populationRequest.getQuotes()];
+            runChunks(populationRequest.getQuotes(), (from, to) -> insertQuotes(populationRequest, prices, from, to));
+            runChunks(populationRequest.getUsers(), (from, to) -> insertUsers(populationRequest, prices, from, to));
+            refreshMarketSummary();
+            state.set("completed");
+            LOG.infof("Data population completed: %s rows in %s ms", getStatus().getRows(), getStatus().getElapsedMillis());
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            error = cause.getMessage();
+            state.set("failed");
+            LOG.errorf(cause, "Data population failed after %s rows", getStatus().getRows());
+        } finally {
+            endTime = new Date();
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Split [0, count) into chunks and run them on the worker threads, failing on the first failed chunk
+     */
+    private void runChunks(int count, Chunk chunk) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < count; from += chunkSize) {
+            int start = from;
+            int end = Math.min(count, from + chunkSize);
+            futures.add(workers.submit(() -> {
+                chunk.insert(start, end);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void insertQuotes(PopulationRequestDTO populationRequest, BigDecimal[] prices, int from, int to)
+            throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO quoteejb (SYMBOL, COMPANYNAME, VOLUME, PRICE, OPEN1, LOW, HIGH, CHANGE1) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                int batched = 0;
+                for (int i = from; i < to; i++) {
+                    BigDecimal price = BigDecimal.valueOf(random.nextInt(100, 20000), FinancialUtils.SCALE);
+                    prices[i] = price;
+                    String symbol = SymbolUtils.normalize(populationRequest.getSymbolPrefix() + i);
+                    insert.setString(1, symbol);
+                    insert.setString(2, symbol + " Incorporated");
+                    insert.setDouble(3, random.nextInt(1000, 1000000));
+                    insert.setBigDecimal(4, price);
+                    insert.setBigDecimal(5, price);
+                    insert.setBigDecimal(6, price);
+                    insert.setBigDecimal(7, price);
+                    insert.setDouble(8, 0.0);
+                    insert.addBatch();
+                    if (++batched == batchSize) {
+                        insert.executeBatch();
+                        batched = 0;
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+                quotes.addAndGet(to - from);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void insertUsers(PopulationRequestDTO populationRequest, BigDecimal[] prices, int from, int to)
+            throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        BigDecimal orderFee = TradeConfig.getOrderFee("buy");
+        int users = to - from;
+        int holdingsPerUser = populationRequest.getHoldingsPerUser();
+
+        // Generate the holdings first so each account's balance reflects what it bought
+        int[] symbolIndexes = new int[users * holdingsPerUser];
+        double[] quantities = new double[users * holdingsPerUser];
+        BigDecimal[] balances = new BigDecimal[users];
+        for (int u = 0; u < users; u++) {
+            BigDecimal balance = OPEN_BALANCE;
+            for (int h = 0; h < holdingsPerUser; h++) {
+                int k = u * holdingsPerUser + h;
+                symbolIndexes[k] = random.nextInt(prices.length);
+                quantities[k] = random.nextInt(1, 101);
+                balance = balance.subtract(prices[symbolIndexes[k]].multiply(BigDecimal.valueOf(quantities[k])))
+                        .subtract(orderFee);
+            }
+            balances[u] = balance.setScale(FinancialUtils.SCALE, RoundingMode.HALF_UP);
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO accountprofileejb (USERID, PASSWD, FULLNAME, ADDRESS, EMAIL, CREDITCARD) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)")) {
+                    for (int u = 0; u < users; u++) {
+                        int i = from + u;
+                        insert.setString(1, populationRequest.getUserPrefix() + i);
+                        insert.setString(2, PASSWORD);
+                        insert.setString(3, "first:" + i + " last:" + i);
+                        insert.setString(4, i + " Oak St.");
+                        insert.setString(5, "uid" + i + "@example.com");
+                        insert.setString(6, "123-fake-ccnum-456");
+                        addToBatch(insert, u);
+                    }
+                    insert.executeBatch();
+                }
+
+                int[] accountIds = reserveIds(connection, "accountejb_seq", users);
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO accountejb (ACCOUNTID, LOGINCOUNT, LOGOUTCOUNT, LASTLOGIN, CREATIONDATE, BALANCE, OPENBALANCE, PROFILE_USERID) " +
+                        "VALUES (?, 0, 0, ?, ?, ?, ?, ?)")) {
+                    for (int u = 0; u < users; u++) {
+                        insert.setInt(1, accountIds[u]);
+                        insert.setTimestamp(2, now);
+                        insert.setTimestamp(3, now);
+                        insert.setBigDecimal(4, balances[u]);
+                        insert.setBigDecimal(5, OPEN_BALANCE);
+                        insert.setString(6, populationRequest.getUserPrefix() + (from + u));
+                        addToBatch(insert, u);
+                    }
+                    insert.executeBatch();
+                }
+
+                int[] holdingIds = reserveIds(connection, "holdingejb_seq", users * holdingsPerUser);
+                if (holdingIds.length > 0) {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO holdingejb (HOLDINGID, QUANTITY, PURCHASEPRICE, PURCHASEDATE, ACCOUNT_ACCOUNTID, QUOTE_SYMBOL) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)")) {
+                        for (int k = 0; k < holdingIds.length; k++) {
+                            insert.setInt(1, holdingIds[k]);
+                            insert.setDouble(2, quantities[k]);
+                            insert.setBigDecimal(3, prices[symbolIndexes[k]]);
+                            insert.setTimestamp(4, now);
+                            insert.setInt(5, accountIds[k / holdingsPerUser]);
+                            insert.setString(6, SymbolUtils.normalize(populationRequest.getSymbolPrefix() + symbolIndexes[k]));
+                            addToBatch(insert, k);
+                        }
+                        insert.executeBatch();
+                    }
+
+                    int[] orderIds = reserveIds(connection, "orderejb_seq", holdingIds.length);
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO orderejb (ORDERID, ORDERTYPE, ORDERSTATUS, OPENDATE, COMPLETIONDATE, QUANTITY, PRICE, ORDERFEE, " +
+                            "ACCOUNT_ACCOUNTID, QUOTE_SYMBOL, HOLDING_HOLDINGID) VALUES (?, 'buy', 'closed', ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                        for (int k = 0; k < holdingIds.length; k++) {
+                            insert.setInt(1, orderIds[k]);
+                            insert.setTimestamp(2, now);
+                            insert.setTimestamp(3, now);
+                            insert.setDouble(4, quantities[k]);
+                            insert.setBigDecimal(5, prices[symbolIndexes[k]]);
+                            insert.setBigDecimal(6, orderFee);
+                            insert.setInt(7, accountIds[k / holdingsPerUser]);
+                            insert.setString(8, SymbolUtils.normalize(populationRequest.getSymbolPrefix() + symbolIndexes[k]));
+                            insert.setInt(9, holdingIds[k]);
+                            addToBatch(insert, k);
+                        }
+                        insert.executeBatch();
+                    }
+                }
+
+                connection.commit();
+                profiles.addAndGet(users);
+                accounts.addAndGet(users);
+                holdings.addAndGet(holdingIds.length);
+                orders.addAndGet(holdingIds.length);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Add to the batch, sending it once it reaches the batch size
+     */
+    private void addToBatch(PreparedStatement insert, int index) throws SQLException {
+        insert.addBatch();
+        if ((index + 1) % batchSize == 0) {
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Reserve IDs from a pooled sequence, taking the block of {@link IdBlocks#SIZE} IDs that
+     * ends at each sequence value as Hibernate does, so population shares the sequence with
+     * the application instead of using a whole block per row through the column default
+     */
+    private int[] reserveIds(Connection connection, String sequence, int count) throws SQLException {
+        int[] ids = new int[count];
+        String sql = DatabaseKind.isPostgreSQL(dbKind) ? "SELECT nextval('" + sequence + "')"
+                : "SELECT NEXT VALUE FOR " + sequence;
+        try (PreparedStatement next = connection.prepareStatement(sql)) {
+            int i = 0;
+            while (i < count) {
+                long top;
+                try (ResultSet value = next.executeQuery()) {
+                    value.next();
+                    top = value.getLong(1);
+                }
+                // The first value of a new sequence has no block below it
+                for (long id = Math.max(1, top - IdBlocks.SIZE + 1); id <= top && i < count; id++) {
+                    ids[i++] = (int) id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void refreshMarketSummary() {
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            marketSummaryService.refreshMarketSummary();
+        } finally {
+            requestContext.terminate();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Chunk {
+        void insert(int from, int to) throws Exception;
+    }
+
+    /**
+     * Names population threads so they are recognisable in thread dumps
+     */
+    private static class PopulationThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "data-population-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -15,30 +15,63 @@
  */
 package com.ibm.websphere.samples.daytrader.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.smallrye.jwt.build.Jwt;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
  * Service for generating and managing JWT tokens
  * Per Phase 3: Backend Migration specification section 6.1
+ *
+ * Tokens are signed with smallrye.jwt.new-token.signature-algorithm (RS256 or ES256)
  */
 @ApplicationScoped
 public class JwtService {
 
     private static final Logger LOG = Logger.getLogger(JwtService.class);
 
+    /**
+     * Role required by the administrative endpoints, granted to daytrader.admin.users
+     */
+    public static final String ADMIN_ROLE = "Admin";
+
     @ConfigProperty(name = "smallrye.jwt.new-token.issuer", defaultValue = "https://daytrader.example.com")
     String issuer;
 
     @ConfigProperty(name = "smallrye.jwt.new-token.lifespan", defaultValue = "3600")
     long tokenLifespan;
 
+    @ConfigProperty(name = "smallrye.jwt.new-token.signature-algorithm", defaultValue = "RS256")
+    String signatureAlgorithm;
+
+    @ConfigProperty(name = "daytrader.admin.users")
+    Optional<List<String>> adminUsers;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Timer signTimer;
+
+    @PostConstruct
+    void init() {
+        signTimer = Timer.builder("daytrader.jwt.sign")
+                .description("Time to build and sign a JWT")
+                .tag("algorithm", signatureAlgorithm)
+                .register(meterRegistry);
+    }
+
     /**
      * Generate a JWT token for the authenticated user
      * 
@@ -52,27 +85,32 @@ public class JwtService {
         Instant now = Instant.now();
         Instant expiry = now.plus(Duration.ofSeconds(tokenLifespan));
         
-        String token = Jwt.issuer(issuer)
+        String token = signTimer.record(() -> Jwt.issuer(issuer)
                 .subject(userID)
                 .upn(userID)
                 .groups(roles)
                 .issuedAt(now)
                 .expiresAt(expiry)
                 .claim("daytrader_user", true)
-                .sign();
+                .sign());
         
         LOG.infof("JWT token generated for user: %s, expires at: %s", userID, expiry);
         return token;
     }
 
     /**
-     * Generate a JWT token with the default "Trader" role
+     * Generate a JWT token with the default "Trader" role, plus the admin role for
+     * users listed in daytrader.admin.users
      * 
      * @param userID the user's ID
      * @return signed JWT token string
      */
     public String generateTraderToken(String userID) {
-        return generateToken(userID, Set.of("Trader", "User"));
+        Set<String> roles = new HashSet<>(Set.of("Trader", "User"));
+        if (adminUsers.map(users -> users.contains(userID)).orElse(false)) {
+            roles.add(ADMIN_ROLE);
+        }
+        return generateToken(userID, roles);
     }
 
     /**
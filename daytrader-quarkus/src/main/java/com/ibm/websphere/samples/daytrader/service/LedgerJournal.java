@@ -0,0 +1,212 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of account balance deltas for {@link AccountLedger}
+ *
+ * Each record (sequence, order ID, account ID, delta in cents) is written and forced
+ * to disk before the transaction that produced it commits. Records are spread over
+ * segment files named after their first sequence number; a segment is deleted once
+ * every record in it has been written to accountejb. A record torn by a crash fails
+ * its checksum and ends the segment when it is read back.
+ */
+final class LedgerJournal {
+
+    static final int RECORD_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final boolean sync;
+
+    // Closed segments, oldest first, with the last sequence written to each
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+
+    private FileChannel channel;
+    private Path currentPath;
+    private int currentRecords;
+    private long nextSequence;
+    private long lastSequence;
+
+    LedgerJournal(Path directory, int segmentRecords, boolean sync) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.sync = sync;
+    }
+
+    /**
+     * Read every intact record left by a previous run, in sequence order
+     */
+    List<Record> recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Record> records = new ArrayList<>();
+        for (Path segment : segments()) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                while (true) {
+                    record.clear();
+                    while (record.hasRemaining() && in.read(record) > 0) {
+                        // keep reading until the record is complete or the file ends
+                    }
+                    if (record.hasRemaining()) {
+                        break;
+                    }
+                    record.flip();
+                    long sequence = record.getLong();
+                    int orderID = record.getInt();
+                    int accountID = record.getInt();
+                    long cents = record.getLong();
+                    int checksum = record.getInt();
+                    if (checksum != checksum(sequence, orderID, accountID, cents)) {
+                        break;
+                    }
+                    records.add(new Record(sequence, orderID, accountID, cents));
+                }
+            }
+        }
+        records.sort((a, b) -> Long.compare(a.sequence(), b.sequence()));
+        return records;
+    }
+
+    /**
+     * Discard all segments and continue numbering after the given sequence
+     */
+    synchronized void reset(long afterSequence) throws IOException {
+        closeCurrent();
+        for (Path segment : segments()) {
+            Files.delete(segment);
+        }
+        closedSegments.clear();
+        nextSequence = afterSequence + 1;
+        lastSequence = afterSequence;
+    }
+
+    /**
+     * Append a record and force it to disk. The sequence number is assigned and passed to
+     * onSequence while the journal is locked, so sequence numbers become visible in order.
+     */
+    long append(int orderID, int accountID, long cents, LongConsumer onSequence) {
+        long sequence;
+        FileChannel written;
+        synchronized (this) {
+            try {
+                if (channel == null || currentRecords >= segmentRecords) {
+                    roll();
+                }
+                sequence = nextSequence++;
+                buffer.clear();
+                buffer.putLong(sequence).putInt(orderID).putInt(accountID).putLong(cents)
+                      .putInt(checksum(sequence, orderID, accountID, cents));
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                currentRecords++;
+                lastSequence = sequence;
+                written = channel;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ledger journal write failed", e);
+            }
+            onSequence.accept(sequence);
+        }
+        if (sync) {
+            // Forced outside the lock so concurrent appenders share the cost of each force
+            try {
+                written.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ledger journal sync failed", e);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Delete closed segments whose records are all at or below the flushed sequence
+     */
+    synchronized void release(long flushedSequence) throws IOException {
+        while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSequence() <= flushedSequence) {
+            Files.deleteIfExists(closedSegments.removeFirst().path());
+        }
+    }
+
+    synchronized void close() throws IOException {
+        closeCurrent();
+    }
+
+    private void roll() throws IOException {
+        if (channel != null) {
+            // A segment is only closed once it is full, so it has a last sequence
+            closedSegments.addLast(new Segment(currentPath, lastSequence));
+            closeCurrent();
+        }
+        currentPath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(currentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.APPEND);
+        currentRecords = 0;
+    }
+
+    private void closeCurrent() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private static int checksum(long sequence, int orderID, int accountID, long cents) {
+        ByteBuffer fields = ByteBuffer.allocate(RECORD_SIZE - Integer.BYTES);
+        fields.putLong(sequence).putInt(orderID).putInt(accountID).putLong(cents);
+        CRC32 crc = new CRC32();
+        crc.update(fields.array());
+        return (int) crc.getValue();
+    }
+
+    record Record(long sequence, int orderID, int accountID, long cents) {
+    }
+
+    private record Segment(Path path, long lastSequence) {
+    }
+}
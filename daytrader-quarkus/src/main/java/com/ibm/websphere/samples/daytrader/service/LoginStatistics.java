@@ -0,0 +1,171 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Login and logout statistics with write-behind to accountejb
+ *
+ * Logins and logouts are counted in memory per account and written every
+ * flush-interval as one batch of relative updates, so a login never waits on
+ * (or locks) its account row and a burst of logins of one account costs a
+ * single update. Account data read in the meantime is overlaid with the counts
+ * not yet written; counts still queued when the application stops abruptly are lost.
+ */
+@ApplicationScoped
+public class LoginStatistics {
+
+    private static final Logger LOG = Logger.getLogger(LoginStatistics.class);
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Integer, Counts> pending = new ConcurrentHashMap<>();
+    // Counts taken by the running flush, still overlaid until they are written
+    private final ConcurrentHashMap<Integer, Counts> writing = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("daytrader.login.statistics.pending", pending, Map::size)
+                .description("Accounts with login statistics not yet written")
+                .register(meterRegistry);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    /**
+     * Count a login at the current time
+     */
+    public void recordLogin(Integer accountID) {
+        pending.merge(accountID, new Counts(1, 0, new Timestamp(System.currentTimeMillis())), Counts::plus);
+    }
+
+    /**
+     * Count a logout
+     */
+    public void recordLogout(Integer accountID) {
+        pending.merge(accountID, new Counts(0, 1, null), Counts::plus);
+    }
+
+    /**
+     * Account data with the login statistics not yet written to accountejb
+     */
+    public AccountDTO withPendingStatistics(AccountDTO account) {
+        Counts counts = Counts.plus(writing.get(account.getAccountID()), pending.get(account.getAccountID()));
+        if (counts != null) {
+            account.setLoginCount(account.getLoginCount() + counts.logins());
+            account.setLogoutCount(account.getLogoutCount() + counts.logouts());
+            if (counts.lastLogin() != null) {
+                account.setLastLogin(counts.lastLogin());
+            }
+        }
+        return account;
+    }
+
+    /**
+     * Write the queued statistics to accountejb, coalesced per account
+     */
+    @Scheduled(every = "${daytrader.login-statistics.flush-interval:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Accounts in ascending order so concurrent writers lock rows in the same order
+        Map<Integer, Counts> batch = new TreeMap<>();
+        for (Integer accountID : pending.keySet()) {
+            pending.computeIfPresent(accountID, (id, counts) -> {
+                writing.put(id, counts);
+                batch.put(id, counts);
+                return null;
+            });
+        }
+        try {
+            write(batch);
+        } catch (SQLException e) {
+            // Counts are queued again and retried on the next flush
+            LOG.error("Failed to write login statistics", e);
+            batch.forEach((accountID, counts) -> pending.merge(accountID, counts, Counts::plus));
+        } finally {
+            writing.clear();
+        }
+    }
+
+    private void write(Map<Integer, Counts> batch) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE accountejb SET LOGINCOUNT = LOGINCOUNT + ?, LOGOUTCOUNT = LOGOUTCOUNT + ?, "
+                    + "LASTLOGIN = COALESCE(?, LASTLOGIN) WHERE ACCOUNTID = ?")) {
+                for (Map.Entry<Integer, Counts> entry : batch.entrySet()) {
+                    Counts counts = entry.getValue();
+                    update.setInt(1, counts.logins());
+                    update.setInt(2, counts.logouts());
+                    if (counts.lastLogin() != null) {
+                        update.setTimestamp(3, counts.lastLogin());
+                    } else {
+                        update.setNull(3, Types.TIMESTAMP);
+                    }
+                    update.setInt(4, entry.getKey());
+                    update.addBatch();
+                }
+                update.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private record Counts(int logins, int logouts, Timestamp lastLogin) {
+
+        static Counts plus(Counts a, Counts b) {
+            if (a == null || b == null) {
+                return a == null ? b : a;
+            }
+            Timestamp lastLogin = a.lastLogin == null || (b.lastLogin != null && b.lastLogin.after(a.lastLogin))
+                    ? b.lastLogin : a.lastLogin;
+            return new Counts(a.logins + b.logins, a.logouts + b.logouts, lastLogin);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.ibm.websphere.samples.daytrader.dto.MarketSummaryDTO;
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.event.QuoteChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Market data streaming - replaces DTStreamer3MDB
+ * Per Phase 3: Backend Migration specification section 2.2
+ *
+ * Pushes committed quote changes and market summary updates to connected
+ * clients over server-sent events. Each client subscribes to a set of symbols.
+ * Updates are coalesced per client: only the latest value of each symbol and
+ * of the summary is kept, and at most one batch is in flight per connection,
+ * so a slow consumer skips intermediate values instead of buffering them.
+ */
+@ApplicationScoped
+public class MarketDataStreamer {
+
+    private static final Logger LOG = Logger.getLogger(MarketDataStreamer.class);
+
+    @Inject
+    MarketSummaryService marketSummaryService;
+
+    @Inject
+    QuoteCache quoteCache;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "daytrader.streaming.max-clients", defaultValue = "1000")
+    int maxClients;
+
+    @ConfigProperty(name = "daytrader.streaming.max-symbols-per-client", defaultValue = "50")
+    int maxSymbolsPerClient;
+
+    @ConfigProperty(name = "daytrader.streaming.flush-interval", defaultValue = "250ms")
+    Duration flushInterval;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Subscription>> subscriptionsBySymbol = new ConcurrentHashMap<>();
+    // Client slots, taken before a subscription is registered and returned when it is removed
+    private final AtomicInteger clients = new AtomicInteger();
+    private ScheduledExecutorService flusher;
+    private volatile MarketSummaryDTO lastSummary;
+
+    @PostConstruct
+    void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "market-data-streamer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(),
+                                       TimeUnit.MILLISECONDS);
+        meterRegistry.gaugeCollectionSize("daytrader.streaming.clients", List.of(), subscriptions);
+        LOG.infof("MarketDataStreamer initialized: maxClients=%s, maxSymbolsPerClient=%s, flushInterval=%s",
+                  maxClients, maxSymbolsPerClient, flushInterval);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.sink.close();
+        }
+        subscriptions.clear();
+        subscriptionsBySymbol.clear();
+        clients.set(0);
+    }
+
+    /**
+     * Start streaming to a client. The current value of every subscribed
+     * symbol and of the summary is sent first, then changes as they commit.
+     *
+     * @throws IllegalArgumentException if a symbol is unknown or too many are requested
+     * @throws RejectedExecutionException if the maximum number of clients is connected
+     */
+    public void subscribe(SseEventSink sink, Sse sse, Collection<String> symbols, boolean includeSummary) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isBlank()) {
+                keys.add(key(symbol.trim()));
+            }
+        }
+        if (keys.size() > maxSymbolsPerClient) {
+            throw new IllegalArgumentException("At most " + maxSymbolsPerClient + " symbols may be streamed per client");
+        }
+
+        if (clients.incrementAndGet() > maxClients) {
+            clients.decrementAndGet();
+            throw new RejectedExecutionException("Streaming client limit reached");
+        }
+
+        // Receive changes before reading the current values, so none committed in between is lost;
+        // a current value never replaces a change already received
+        Subscription subscription = new Subscription(sink, sse, keys, includeSummary);
+        for (String symbol : keys) {
+            subscriptionsBySymbol.computeIfAbsent(symbol, s -> new CopyOnWriteArraySet<>()).add(subscription);
+        }
+        try {
+            for (String symbol : keys) {
+                QuoteDTO quote = quoteCache.get(symbol)
+                        .orElseThrow(() -> new IllegalArgumentException("Quote not found for symbol: " + symbol));
+                subscription.pendingQuotes.putIfAbsent(symbol, quote);
+            }
+            if (includeSummary) {
+                MarketSummaryDTO summary = marketSummaryService.getCurrentSummary();
+                if (summary != null) {
+                    subscription.pendingSummary.set(summary);
+                }
+            }
+        } catch (RuntimeException e) {
+            removeFromSymbols(subscription);
+            clients.decrementAndGet();
+            throw e;
+        }
+
+        subscriptions.add(subscription);
+        LOG.debugf("Streaming client subscribed to %s symbols (summary=%s)", keys.size(), includeSummary);
+    }
+
+    /**
+     * Maximum number of symbols a single client may subscribe to
+     */
+    public int getMaxSymbolsPerClient() {
+        return maxSymbolsPerClient;
+    }
+
+    /**
+     * Number of connected streaming clients
+     */
+    public int getClientCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Route a committed quote change to the clients subscribed to its symbol
+     */
+    void onQuoteChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) QuoteChangedEvent event) {
+        QuoteDTO quote = event.getQuote();
+        Set<Subscription> subscribers = subscriptionsBySymbol.get(key(quote.getSymbol()));
+        if (subscribers != null) {
+            for (Subscription subscription : subscribers) {
+                // Replaces any value the client has not been sent yet
+                subscription.pendingQuotes.put(key(quote.getSymbol()), quote);
+            }
+        }
+    }
+
+    private void flush() {
+        try {
+            MarketSummaryDTO summary = marketSummaryService.getCurrentSummary();
+            boolean summaryChanged = summary != null && summary != lastSummary;
+            lastSummary = summary;
+
+            for (Subscription subscription : subscriptions) {
+                if (subscription.sink.isClosed()) {
+                    unsubscribe(subscription);
+                    continue;
+                }
+                if (summaryChanged && subscription.includeSummary) {
+                    subscription.pendingSummary.set(summary);
+                }
+                subscription.send().whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        LOG.debugf("Streaming client disconnected: %s", failure.getMessage());
+                        unsubscribe(subscription);
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Market data flush failed", e);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            removeFromSymbols(subscription);
+            clients.decrementAndGet();
+            subscription.sink.close();
+        }
+    }
+
+    private void removeFromSymbols(Subscription subscription) {
+        for (String symbol : subscription.symbols) {
+            subscriptionsBySymbol.computeIfPresent(symbol, (s, subscribers) -> {
+                subscribers.remove(subscription);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    private static String key(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * One connected client. Pending state is bounded by the number of
+     * subscribed symbols plus one summary.
+     */
+    private static class Subscription {
+
+        final SseEventSink sink;
+        final Sse sse;
+        final Set<String> symbols;
+        final boolean includeSummary;
+        final Map<String, QuoteDTO> pendingQuotes = new ConcurrentHashMap<>();
+        final AtomicReference<MarketSummaryDTO> pendingSummary = new AtomicReference<>();
+        final AtomicBoolean inFlight = new AtomicBoolean();
+
+        Subscription(SseEventSink sink, Sse sse, Set<String> symbols, boolean includeSummary) {
+            this.sink = sink;
+            this.sse = sse;
+            this.symbols = symbols;
+            this.includeSummary = includeSummary;
+        }
+
+        /**
+         * Send everything pending as one batch, unless the previous batch is still being written
+         */
+        CompletionStage<?> send() {
+            if (!inFlight.compareAndSet(false, true)) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            List<QuoteDTO> quotes = new ArrayList<>(pendingQuotes.size());
+            for (String symbol : pendingQuotes.keySet()) {
+                QuoteDTO quote = pendingQuotes.remove(symbol);
+                if (quote != null) {
+                    quotes.add(quote);
+                }
+            }
+            MarketSummaryDTO summary = pendingSummary.getAndSet(null);
+
+            CompletionStage<?> sent = CompletableFuture.completedFuture(null);
+            if (!quotes.isEmpty()) {
+                OutboundSseEvent event = sse.newEventBuilder()
+                        .name("quotes")
+                        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                        .data(QuoteDTO[].class, quotes.toArray(new QuoteDTO[0]))
+                        .build();
+                sent = sent.thenCompose(ignored -> sink.send(event));
+            }
+            if (summary != null) {
+                OutboundSseEvent event = sse.newEventBuilder()
+                        .name("summary")
+                        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                        .data(MarketSummaryDTO.class, summary)
+                        .build();
+                sent = sent.thenCompose(ignored -> sink.send(event));
+            }
+            return sent.whenComplete((ignored, failure) -> inFlight.set(false));
+        }
+    }
+}
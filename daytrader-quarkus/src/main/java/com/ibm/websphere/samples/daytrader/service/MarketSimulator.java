@@ -0,0 +1,511 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.event.QuoteChangedEvent;
+import com.ibm.websphere.samples.daytrader.util.Money;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.datasource.common.runtime.DatabaseKind;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Market simulator - replaces the price moves of the legacy updateQuotePriceVolume
+ *
+ * A generator thread applies ticks-per-second random ticks (the legacy change factor of
+ * 0.90 to 1.10 and a random volume) to quotes picked at random, in memory and in cents,
+ * with the TradeConfig penny stock and maximum price rules. Ticks are coalesced per
+ * symbol and written every flush-interval: the latest price, low and high, the change
+ * since the last write and the volume traded are sent as multi-row updates on PostgreSQL
+ * (JDBC batches elsewhere), without locking quotes one at a time. A {@link QuoteChangedEvent}
+ * is fired for each written quote, so caches, the market summary and resting orders follow.
+ * While running the simulator owns quote prices: a price set by other means is
+ * overwritten by the next write of that symbol.
+ */
+@ApplicationScoped
+public class MarketSimulator {
+
+    private static final Logger LOG = Logger.getLogger(MarketSimulator.class);
+
+    // Legacy change factor in percent, rounded to two decimals like TradeConfig did
+    private static final int MIN_CHANGE_PERCENT = 90;
+    private static final int MAX_CHANGE_PERCENT = 110;
+    private static final long PENNY_STOCK_CENTS = Money.toCents(TradeConfig.PENNY_STOCK_PRICE);
+    private static final long MAXIMUM_STOCK_CENTS = Money.toCents(TradeConfig.MAXIMUM_STOCK_PRICE);
+    private static final int PENNY_STOCK_RECOVERY_PERCENT =
+            TradeConfig.PENNY_STOCK_RECOVERY_MIRACLE_MULTIPLIER.movePointRight(2).intValueExact();
+    private static final int MAXIMUM_STOCK_SPLIT_PERCENT =
+            TradeConfig.MAXIMUM_STOCK_SPLIT_MULTIPLIER.movePointRight(2).intValueExact();
+    // Ticks applied per hold of the monitor, so a flush never waits long for it
+    private static final int MAX_TICKS_PER_STEP = 1000;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+    private static final String SELECT_QUOTES =
+        "SELECT SYMBOL, COMPANYNAME, VOLUME, PRICE, OPEN1, LOW, HIGH FROM quoteejb";
+    private static final String UPDATE_QUOTE =
+        "UPDATE quoteejb SET PRICE = ?, LOW = ?, HIGH = ?, CHANGE1 = ?, VOLUME = VOLUME + ? WHERE SYMBOL = ?";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    Event<QuoteChangedEvent> quoteChangedEvent;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String dbKind;
+
+    @ConfigProperty(name = "daytrader.market-simulator.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "daytrader.market-simulator.ticks-per-second", defaultValue = "50000")
+    int ticksPerSecond;
+
+    @ConfigProperty(name = "daytrader.market-simulator.batch-size", defaultValue = "500")
+    int batchSize;
+
+    // Engine state, guarded by this
+    private final List<Ticker> tickers = new ArrayList<>();
+    private final Map<String, Ticker> bySymbol = new HashMap<>();
+    private final List<Ticker> dirty = new ArrayList<>();
+    // Symbols simulated, or null for all quotes
+    private Set<String> selected;
+
+    private volatile Thread generator;
+    private Counter ticks;
+    private Counter quotesWritten;
+
+    @PostConstruct
+    void init() {
+        ticks = Counter.builder("daytrader.market.simulator.ticks")
+                .description("Simulated price ticks applied")
+                .register(meterRegistry);
+        quotesWritten = Counter.builder("daytrader.market.simulator.quotes.written")
+                .description("Quote rows written by the market simulator")
+                .register(meterRegistry);
+        Gauge.builder("daytrader.market.simulator.pending", this, MarketSimulator::getPending)
+                .description("Symbols with ticks not yet written")
+                .register(meterRegistry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            start();
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        stop();
+        flush();
+    }
+
+    /**
+     * Load the quotes and start generating ticks, unless already running
+     *
+     * @throws IllegalStateException if the quotes cannot be read
+     */
+    public void start() {
+        start(null);
+    }
+
+    /**
+     * Load the given quotes, or all quotes if null, and start generating ticks, unless
+     * already running. Quotes created while running are only simulated along with all quotes.
+     *
+     * @throws IllegalStateException if the quotes cannot be read
+     */
+    public synchronized void start(Collection<String> symbols) {
+        if (generator != null) {
+            return;
+        }
+        // Ticks left from a previous run are written before the quotes are read again
+        flush();
+        if (symbols == null) {
+            selected = null;
+        } else {
+            selected = new HashSet<>();
+            for (String symbol : symbols) {
+                selected.add(key(symbol));
+            }
+        }
+        try {
+            load();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load quotes for the market simulator", e);
+        }
+        Thread thread = new Thread(this::generate, "market-simulator");
+        thread.setDaemon(true);
+        generator = thread;
+        thread.start();
+        LOG.infof("Market simulator started: symbols=%s, ticksPerSecond=%s", tickers.size(), ticksPerSecond);
+    }
+
+    /**
+     * Stop generating ticks; those not yet written go out with the next flush
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            thread = generator;
+            generator = null;
+        }
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("Market simulator stopped");
+    }
+
+    public boolean isRunning() {
+        return generator != null;
+    }
+
+    /**
+     * Number of symbols with ticks not yet written
+     */
+    public synchronized int getPending() {
+        return dirty.size();
+    }
+
+    /**
+     * Simulate quotes created while running
+     */
+    void onQuoteChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) QuoteChangedEvent event) {
+        if (generator == null) {
+            return;
+        }
+        QuoteDTO quote = event.getQuote();
+        synchronized (this) {
+            if (selected == null && !bySymbol.containsKey(key(quote.getSymbol())) && quote.getPrice() != null) {
+                add(new Ticker(quote.getSymbol(), quote.getCompanyName(), quote.getVolume(), quote.getPrice(),
+                               quote.getOpen(), quote.getLow(), quote.getHigh()));
+            }
+        }
+    }
+
+    /**
+     * Write the coalesced ticks, one row per symbol, then publish the new quotes
+     */
+    @Scheduled(every = "${daytrader.market-simulator.flush-interval:100ms}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flush() {
+        List<Update> batch;
+        synchronized (this) {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            // Symbols in ascending order so concurrent writers lock rows in the same order
+            dirty.sort(Comparator.comparing(Ticker::symbol));
+            batch = new ArrayList<>(dirty.size());
+            for (Ticker ticker : dirty) {
+                batch.add(ticker.take());
+            }
+            dirty.clear();
+        }
+        List<QuoteChangedEvent> events;
+        try {
+            events = write(batch);
+        } catch (SQLException e) {
+            // Ticks are queued again and retried on the next flush
+            LOG.error("Failed to write simulated quotes", e);
+            synchronized (this) {
+                for (Update update : batch) {
+                    Ticker ticker = update.ticker();
+                    ticker.requeue(update);
+                    markDirty(ticker);
+                }
+            }
+            return;
+        }
+        quotesWritten.increment(batch.size());
+        for (QuoteChangedEvent event : events) {
+            quoteChangedEvent.fire(event);
+        }
+    }
+
+    /**
+     * Next price of a tick in cents: a penny stock recovers, a stock above the maximum
+     * price splits, any other moves by the change factor
+     */
+    static long nextPriceCents(long cents, int changePercent) {
+        if (cents == PENNY_STOCK_CENTS) {
+            changePercent = PENNY_STOCK_RECOVERY_PERCENT;
+        } else if (cents > MAXIMUM_STOCK_CENTS) {
+            changePercent = MAXIMUM_STOCK_SPLIT_PERCENT;
+        }
+        return Math.max(PENNY_STOCK_CENTS, (cents * changePercent + 50) / 100);
+    }
+
+    private void generate() {
+        long started = System.nanoTime();
+        long generated = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long due = (long) ((System.nanoTime() - started) / 1e9 * ticksPerSecond) - generated;
+            if (due <= 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            if (due > ticksPerSecond) {
+                // More than a second behind: skip the backlog rather than burst
+                generated += due - ticksPerSecond;
+                due = ticksPerSecond;
+            }
+            int step = (int) Math.min(due, MAX_TICKS_PER_STEP);
+            tick(step);
+            generated += step;
+        }
+    }
+
+    private synchronized void tick(int count) {
+        if (tickers.isEmpty()) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            Ticker ticker = tickers.get(random.nextInt(tickers.size()));
+            ticker.apply(nextPriceCents(ticker.price, random.nextInt(MIN_CHANGE_PERCENT, MAX_CHANGE_PERCENT + 1)),
+                         random.nextInt(1, 101));
+            markDirty(ticker);
+        }
+        ticks.increment(count);
+    }
+
+    // Must hold the monitor
+    private void markDirty(Ticker ticker) {
+        if (!ticker.dirty) {
+            ticker.dirty = true;
+            dirty.add(ticker);
+        }
+    }
+
+    // Must hold the monitor
+    private void add(Ticker ticker) {
+        tickers.add(ticker);
+        bySymbol.put(key(ticker.symbol), ticker);
+    }
+
+    // Must hold the monitor
+    private void load() throws SQLException {
+        tickers.clear();
+        bySymbol.clear();
+        dirty.clear();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT_QUOTES);
+             ResultSet rows = select.executeQuery()) {
+            while (rows.next()) {
+                BigDecimal price = rows.getBigDecimal(4);
+                if (price != null && (selected == null || selected.contains(key(rows.getString(1))))) {
+                    add(new Ticker(rows.getString(1), rows.getString(2), rows.getDouble(3), price,
+                                   rows.getBigDecimal(5), rows.getBigDecimal(6), rows.getBigDecimal(7)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a batch in one transaction, returning its change events; they are created
+     * before the commit, while the rows are locked, so their sequence follows the commit order
+     */
+    private List<QuoteChangedEvent> write(List<Update> batch) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (DatabaseKind.isPostgreSQL(dbKind)) {
+                    writeMultiRow(connection, batch);
+                } else {
+                    writeBatched(connection, batch);
+                }
+                List<QuoteChangedEvent> events = new ArrayList<>(batch.size());
+                for (Update update : batch) {
+                    events.add(new QuoteChangedEvent(update.quote()));
+                }
+                connection.commit();
+                return events;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void writeMultiRow(Connection connection, List<Update> batch) throws SQLException {
+        String fullSql = multiRowUpdate(batchSize);
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            List<Update> rows = batch.subList(from, Math.min(batch.size(), from + batchSize));
+            try (PreparedStatement update = connection.prepareStatement(
+                    rows.size() == batchSize ? fullSql : multiRowUpdate(rows.size()))) {
+                int parameter = 1;
+                for (Update row : rows) {
+                    update.setString(parameter++, row.quote().getSymbol());
+                    update.setBigDecimal(parameter++, row.quote().getPrice());
+                    update.setBigDecimal(parameter++, row.quote().getLow());
+                    update.setBigDecimal(parameter++, row.quote().getHigh());
+                    update.setDouble(parameter++, row.quote().getChange());
+                    update.setDouble(parameter++, row.volume());
+                }
+                update.executeUpdate();
+            }
+        }
+    }
+
+    private void writeBatched(Connection connection, List<Update> batch) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_QUOTE)) {
+            int pending = 0;
+            for (Update row : batch) {
+                update.setBigDecimal(1, row.quote().getPrice());
+                update.setBigDecimal(2, row.quote().getLow());
+                update.setBigDecimal(3, row.quote().getHigh());
+                update.setDouble(4, row.quote().getChange());
+                update.setDouble(5, row.volume());
+                update.setString(6, row.quote().getSymbol());
+                update.addBatch();
+                if (++pending == batchSize) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * UPDATE ... FROM (VALUES ...) setting rows quotes in one statement (PostgreSQL)
+     */
+    private static String multiRowUpdate(int rows) {
+        StringBuilder sql = new StringBuilder(
+            "UPDATE quoteejb AS q SET PRICE = v.price, LOW = v.low, HIGH = v.high, CHANGE1 = v.change, " +
+            "VOLUME = q.VOLUME + v.volume FROM (VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ")
+               .append("(CAST(? AS VARCHAR), CAST(? AS NUMERIC), CAST(? AS NUMERIC), CAST(? AS NUMERIC), ")
+               .append("CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION))");
+        }
+        return sql.append(") AS v(symbol, price, low, high, change, volume) WHERE q.SYMBOL = v.symbol").toString();
+    }
+
+    private static String key(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Simulated state of one quote, prices in cents, guarded by the simulator
+     */
+    private static final class Ticker {
+
+        private final String symbol;
+        private final String companyName;
+        private final BigDecimal open;
+        private double volume;
+        private long price;
+        private long low;
+        private long high;
+        // Price last written, the base of the change written next
+        private long written;
+        private double pendingVolume;
+        private boolean dirty;
+
+        Ticker(String symbol, String companyName, double volume, BigDecimal price, BigDecimal open,
+               BigDecimal low, BigDecimal high) {
+            this.symbol = symbol;
+            this.companyName = companyName;
+            this.open = open;
+            this.volume = volume;
+            this.price = Money.toCents(price);
+            this.low = low != null ? Money.toCents(low) : this.price;
+            this.high = high != null ? Money.toCents(high) : this.price;
+            this.written = this.price;
+        }
+
+        String symbol() {
+            return symbol;
+        }
+
+        void apply(long newPrice, double sharesTraded) {
+            price = newPrice;
+            low = Math.min(low, newPrice);
+            high = Math.max(high, newPrice);
+            pendingVolume += sharesTraded;
+        }
+
+        /**
+         * The coalesced ticks since the last write, resetting them
+         */
+        Update take() {
+            volume += pendingVolume;
+            QuoteDTO quote = new QuoteDTO(symbol, companyName, volume, Money.toBigDecimal(price), open,
+                                          Money.toBigDecimal(low), Money.toBigDecimal(high),
+                                          Money.toBigDecimal(price - written).doubleValue());
+            Update update = new Update(this, quote, pendingVolume, written);
+            written = price;
+            pendingVolume = 0;
+            dirty = false;
+            return update;
+        }
+
+        /**
+         * Undo a take whose write failed
+         */
+        void requeue(Update update) {
+            volume -= update.volume();
+            pendingVolume += update.volume();
+            written = update.previouslyWritten();
+        }
+    }
+
+    private record Update(Ticker ticker, QuoteDTO quote, double volume, long previouslyWritten) {
+    }
+}
@@ -16,18 +16,30 @@
 package com.ibm.websphere.samples.daytrader.service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 
 import com.ibm.websphere.samples.daytrader.dto.MarketSummaryDTO;
 import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
 import com.ibm.websphere.samples.daytrader.entity.Quote;
+import com.ibm.websphere.samples.daytrader.event.QuoteChangedEvent;
 import com.ibm.websphere.samples.daytrader.repository.QuoteRepository;
-import com.ibm.websphere.samples.daytrader.util.FinancialUtils;
+import com.ibm.websphere.samples.daytrader.util.Money;
 
+import io.micrometer.core.annotation.Timed;
 import io.quarkus.scheduler.Scheduled;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
 
 import org.jboss.logging.Logger;
@@ -36,8 +48,12 @@ import org.jboss.logging.Logger;
  * Market Summary Service - replaces MarketSummarySingleton
  * Per Phase 2: Market Summary & Profiles specification
  * 
- * This is an @ApplicationScoped CDI bean that caches market summary data
- * and refreshes it every 20 seconds using Quarkus Scheduler.
+ * This is an @ApplicationScoped CDI bean that maintains market summary data
+ * incrementally: running sums of price, open and volume plus an index of
+ * quotes ordered by change are updated from every committed
+ * {@link QuoteChangedEvent}, so reading the summary never touches the database.
+ * A full rebuild from the quote table still runs on a schedule as a
+ * consistency check.
  */
 @ApplicationScoped
 public class MarketSummaryService {
@@ -45,9 +61,25 @@ public class MarketSummaryService {
     private static final Logger LOG = Logger.getLogger(MarketSummaryService.class);
     private static final int TOP_N = 5;
 
+    /**
+     * Ascending by change; symbol breaks ties so distinct quotes never collide
+     */
+    private static final Comparator<QuoteDTO> BY_CHANGE = Comparator
+            .comparingDouble(QuoteDTO::getChange)
+            .thenComparing(QuoteDTO::getSymbol);
+
     @Inject
     QuoteRepository quoteRepository;
 
+    // Engine state, guarded by this
+    private final Map<String, QuoteDTO> quotes = new HashMap<>();
+    private final NavigableSet<QuoteDTO> byChange = new TreeSet<>(BY_CHANGE);
+    // Price sums in cents, so applying a change allocates nothing
+    private long priceSum;
+    private long openSum;
+    private BigDecimal volumeSum = BigDecimal.ZERO;
+    private Map<String, QuoteDTO> changedDuringRebuild;
+
     private volatile MarketSummaryDTO cachedSummary;
 
     @PostConstruct
@@ -57,67 +89,76 @@ public class MarketSummaryService {
     }
 
     /**
-     * Refresh market summary cache every 20 seconds
-     * Matches legacy MarketSummarySingleton behavior
+     * Rebuild market summary from the quote table
+     * Runs periodically to correct any drift from changes made outside the application
      */
-    @Scheduled(every = "20s")
+    @Scheduled(every = "${daytrader.market-summary.rebuild-interval:5m}")
+    @Timed(value = "daytrader.trade.operation", extraTags = {"operation", "refreshMarketSummary"}, histogram = true)
     public void refreshMarketSummary() {
-        LOG.debug("Refreshing market summary");
+        LOG.debug("Rebuilding market summary");
 
+        synchronized (this) {
+            changedDuringRebuild = new HashMap<>();
+        }
         try {
-            // Get all quotes ordered by change (descending)
-            List<Quote> quotes = quoteRepository.findAllQuotesOrderedByChange();
+            List<Quote> all = quoteRepository.listAll();
 
-            if (quotes.isEmpty()) {
+            if (all.isEmpty()) {
                 LOG.warn("No quotes found in database - market summary not updated");
                 return;
             }
 
-            // Calculate market statistics
-            BigDecimal TSIA = FinancialUtils.ZERO;
-            BigDecimal openTSIA = FinancialUtils.ZERO;
-            double totalVolume = 0.0;
-
-            // Calculate totals
-            for (Quote quote : quotes) {
-                TSIA = TSIA.add(quote.getPrice());
-                openTSIA = openTSIA.add(quote.getOpen());
-                totalVolume += quote.getVolume();
+            synchronized (this) {
+                int previousCount = quotes.size();
+                long previousPriceSum = priceSum;
+
+                clear();
+                for (Quote quote : all) {
+                    apply(new QuoteDTO(quote));
+                }
+                // Changes committed while the table was being read win over what was read
+                for (QuoteDTO quote : changedDuringRebuild.values()) {
+                    apply(quote);
+                }
+
+                if (previousCount != quotes.size() || previousPriceSum != priceSum) {
+                    LOG.debugf("Market summary rebuild corrected drift: quotes %s -> %s, price sum %s -> %s",
+                              previousCount, quotes.size(), Money.toBigDecimal(previousPriceSum), Money.toBigDecimal(priceSum));
+                }
+                cachedSummary = buildSummary();
             }
 
-            // Calculate averages
-            int quoteCount = quotes.size();
-            TSIA = TSIA.divide(new BigDecimal(quoteCount), FinancialUtils.SCALE, FinancialUtils.ROUND);
-            openTSIA = openTSIA.divide(new BigDecimal(quoteCount), FinancialUtils.SCALE, FinancialUtils.ROUND);
-
-            // Get top gainers (first N quotes with highest change)
-            List<QuoteDTO> topGainers = quotes.stream()
-                    .limit(Math.min(TOP_N, quoteCount))
-                    .map(QuoteDTO::new)
-                    .collect(Collectors.toList());
-
-            // Get top losers (last N quotes with lowest change)
-            List<QuoteDTO> topLosers = quotes.stream()
-                    .skip(Math.max(0, quoteCount - TOP_N))
-                    .map(QuoteDTO::new)
-                    .collect(Collectors.toList());
-
-            // Create new market summary
-            cachedSummary = new MarketSummaryDTO(TSIA, openTSIA, totalVolume, topGainers, topLosers);
-
-            LOG.debugf("Market summary refreshed: TSIA=%s, openTSIA=%s, volume=%s", TSIA, openTSIA, totalVolume);
+            LOG.debugf("Market summary rebuilt from %s quotes", all.size());
 
         } catch (Exception e) {
             LOG.error("Failed to refresh market summary", e);
+        } finally {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
         }
     }
 
     /**
-     * Get cached market summary
-     * Thread-safe read of volatile field
+     * Apply a committed quote change to the running totals
+     */
+    void onQuoteChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) QuoteChangedEvent event) {
+        QuoteDTO quote = event.getQuote();
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(key(quote.getSymbol()), quote);
+            }
+            apply(quote);
+            cachedSummary = null;
+        }
+    }
+
+    /**
+     * Get current market summary
+     * Rebuilt from the in-memory totals only when quotes changed since the last read
      */
     public MarketSummaryDTO getMarketSummary() {
-        MarketSummaryDTO summary = cachedSummary;
+        MarketSummaryDTO summary = getCurrentSummary();
         if (summary == null) {
             LOG.warn("Market summary not yet initialized - refreshing now");
             refreshMarketSummary();
@@ -125,5 +166,72 @@ public class MarketSummaryService {
         }
         return summary;
     }
-}
 
+    /**
+     * Get current market summary without ever reading the database
+     * Returns null until the first rebuild has loaded quotes
+     */
+    public MarketSummaryDTO getCurrentSummary() {
+        MarketSummaryDTO summary = cachedSummary;
+        if (summary != null) {
+            return summary;
+        }
+        synchronized (this) {
+            if (cachedSummary == null && !quotes.isEmpty()) {
+                cachedSummary = buildSummary();
+            }
+            return cachedSummary;
+        }
+    }
+
+    // Must hold the monitor
+    private void apply(QuoteDTO quote) {
+        QuoteDTO previous = quotes.put(key(quote.getSymbol()), quote);
+        if (previous != null) {
+            byChange.remove(previous);
+            priceSum -= Money.toCents(previous.getPrice());
+            openSum -= Money.toCents(previous.getOpen());
+            volumeSum = volumeSum.subtract(BigDecimal.valueOf(previous.getVolume()));
+        }
+        byChange.add(quote);
+        priceSum += Money.toCents(quote.getPrice());
+        openSum += Money.toCents(quote.getOpen());
+        volumeSum = volumeSum.add(BigDecimal.valueOf(quote.getVolume()));
+    }
+
+    // Must hold the monitor
+    private void clear() {
+        quotes.clear();
+        byChange.clear();
+        priceSum = 0;
+        openSum = 0;
+        volumeSum = BigDecimal.ZERO;
+    }
+
+    // Must hold the monitor
+    private MarketSummaryDTO buildSummary() {
+        BigDecimal TSIA = Money.toBigDecimal(Money.divide(priceSum, quotes.size()));
+        BigDecimal openTSIA = Money.toBigDecimal(Money.divide(openSum, quotes.size()));
+
+        // Top gainers: highest change first
+        List<QuoteDTO> topGainers = first(byChange.descendingIterator(), TOP_N);
+
+        // Top losers: lowest change last, matching the legacy descending order
+        List<QuoteDTO> topLosers = first(byChange.iterator(), TOP_N);
+        Collections.reverse(topLosers);
+
+        return new MarketSummaryDTO(TSIA, openTSIA, volumeSum.doubleValue(), topGainers, topLosers);
+    }
+
+    private static List<QuoteDTO> first(Iterator<QuoteDTO> iterator, int n) {
+        List<QuoteDTO> result = new ArrayList<>(n);
+        while (iterator.hasNext() && result.size() < n) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    private static String key(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+}
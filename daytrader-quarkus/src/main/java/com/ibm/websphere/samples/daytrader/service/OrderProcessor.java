@@ -0,0 +1,274 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.websphere.samples.daytrader.repository.OrderRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.NoResultException;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Asynchronous order completion - replaces DTBroker3MDB
+ * Per Phase 3: Backend Migration specification section 2.2
+ *
+ * Orders submitted in an asynchronous processing mode are queued once the
+ * transaction that opened them commits, and completed by a fixed pool of
+ * worker threads, each completion running in its own transaction.
+ * The number of queued and in-flight orders is bounded; submissions beyond
+ * that bound are rejected so callers can shed load instead of piling up.
+ * Limit and stop orders triggered by a price change are executed the same way.
+ * Open orders left over from a previous run are queued again at startup, and an
+ * order whose last attempt fails is cancelled, returning what it reserved.
+ */
+@ApplicationScoped
+public class OrderProcessor {
+
+    private static final Logger LOG = Logger.getLogger(OrderProcessor.class);
+
+    @Inject
+    TradeService tradeService;
+
+    @Inject
+    OrderRepository orderRepository;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "daytrader.order-processor.workers", defaultValue = "4")
+    int workers;
+
+    @ConfigProperty(name = "daytrader.order-processor.queue-capacity", defaultValue = "1000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "daytrader.order-processor.submit-timeout", defaultValue = "1s")
+    Duration submitTimeout;
+
+    @ConfigProperty(name = "daytrader.order-processor.max-attempts", defaultValue = "3")
+    int maxAttempts;
+
+    @ConfigProperty(name = "daytrader.order-processor.retry-backoff", defaultValue = "200ms")
+    Duration retryBackoff;
+
+    @ConfigProperty(name = "daytrader.order-processor.shutdown-timeout", defaultValue = "10s")
+    Duration shutdownTimeout;
+
+    private ScheduledThreadPoolExecutor executor;
+    private Semaphore capacity;
+
+    @PostConstruct
+    void init() {
+        capacity = new Semaphore(queueCapacity);
+        executor = new ScheduledThreadPoolExecutor(workers, new WorkerThreadFactory());
+        executor.setRemoveOnCancelPolicy(true);
+        Gauge.builder("daytrader.order.processor.backlog", this, OrderProcessor::getBacklog)
+                .description("Open orders queued or being completed")
+                .register(meterRegistry);
+        LOG.infof("OrderProcessor initialized: workers=%s, queueCapacity=%s, maxAttempts=%s",
+                  workers, queueCapacity, maxAttempts);
+    }
+
+    /**
+     * Queue the open market orders that were not completed before the last shutdown
+     */
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        int queued = 0;
+        for (Integer orderID : orderRepository.findOpenMarketOrderIds(new Date())) {
+            if (!capacity.tryAcquire()) {
+                LOG.warnf("Order processing queue is full, order %s and later left open until the next start", orderID);
+                break;
+            }
+            enqueue(orderID, null, 1, 0L);
+            queued++;
+        }
+        if (queued > 0) {
+            LOG.infof("Queued %s open orders left from the previous run", queued);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOG.warnf("OrderProcessor did not drain within %s, %s orders left open",
+                          shutdownTimeout, executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queue an order for completion once the current transaction commits.
+     * Must be called after the order has been persisted.
+     *
+     * @throws RejectedExecutionException if the queue stays full for longer than the submit timeout
+     */
+    public void submitOnCommit(Integer orderID) {
+        if (!reserveSlot()) {
+            throw new RejectedExecutionException("Order processing queue is full, order " + orderID + " not accepted");
+        }
+        transactionCallbacks.afterCompletion(committed -> {
+            if (committed) {
+                enqueue(orderID, null, 1, 0L);
+            } else {
+                capacity.release();
+            }
+        });
+    }
+
+    /**
+     * Queue a triggered limit or stop order for execution at the triggering price.
+     * Never blocks, as it is called while quote changes are published.
+     *
+     * @return false if the queue is full and the order was not accepted
+     */
+    public boolean submitTriggered(Integer orderID, BigDecimal price) {
+        if (!capacity.tryAcquire()) {
+            return false;
+        }
+        enqueue(orderID, price, 1, 0L);
+        return true;
+    }
+
+    /**
+     * Number of orders queued or being completed
+     */
+    public int getBacklog() {
+        return queueCapacity - capacity.availablePermits();
+    }
+
+    private boolean reserveSlot() {
+        try {
+            return capacity.tryAcquire(submitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void enqueue(Integer orderID, BigDecimal triggerPrice, int attempt, long delayMillis) {
+        try {
+            executor.schedule(() -> process(orderID, triggerPrice, attempt), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            capacity.release();
+            LOG.errorf("Order %s left open until the next start: order processor is shutting down", orderID);
+        }
+    }
+
+    private void process(Integer orderID, BigDecimal triggerPrice, int attempt) {
+        try {
+            if (triggerPrice == null) {
+                tradeService.completeOrder(orderID);
+            } else {
+                tradeService.executeTriggeredOrder(orderID, triggerPrice);
+            }
+            capacity.release();
+            LOG.debugf("Order %s completed asynchronously (attempt %s)", orderID, attempt);
+        } catch (IllegalStateException | IllegalArgumentException | NoResultException e) {
+            // Already completed, cancelled or no longer present - retrying cannot help
+            capacity.release();
+            LOG.warnf("Order %s not completed: %s", orderID, e.getMessage());
+            if (triggerPrice != null) {
+                abandonTriggered(orderID);
+            }
+        } catch (RuntimeException e) {
+            if (attempt < maxAttempts) {
+                LOG.warnf("Order %s completion failed (attempt %s of %s), retrying: %s",
+                          orderID, attempt, maxAttempts, e.getMessage());
+                enqueue(orderID, triggerPrice, attempt + 1, retryBackoff.toMillis() * attempt);
+            } else if (triggerPrice != null) {
+                capacity.release();
+                LOG.errorf(e, "Triggered order %s execution failed after %s attempts", orderID, attempt);
+                abandonTriggered(orderID);
+            } else {
+                capacity.release();
+                LOG.errorf(e, "Order %s completion failed after %s attempts", orderID, attempt);
+                abandon(orderID);
+            }
+        }
+    }
+
+    /**
+     * A triggered order whose execution was rolled back is open again but no longer in the
+     * trigger book, so it would keep its funds or holding reserved forever: cancel it instead
+     */
+    private void abandonTriggered(Integer orderID) {
+        try {
+            if (tradeService.cancelFailedTriggeredOrder(orderID)) {
+                LOG.warnf("Triggered order %s cancelled after its execution failed", orderID);
+            }
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Triggered order %s could not be executed or cancelled, order left open", orderID);
+        }
+    }
+
+    /**
+     * An order whose completion keeps failing would keep the cost of a buy or the holding of
+     * a sell taken forever: cancel it instead
+     */
+    private void abandon(Integer orderID) {
+        try {
+            if (tradeService.cancelFailedOrder(orderID)) {
+                LOG.warnf("Order %s cancelled after its completion failed", orderID);
+            }
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Order %s could not be completed or cancelled, order left open", orderID);
+        }
+    }
+
+    /**
+     * Names worker threads so they are recognisable in thread dumps
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "order-processor-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.event.QuoteChangedEvent;
+import com.ibm.websphere.samples.daytrader.repository.OrderRepository;
+import com.ibm.websphere.samples.daytrader.util.Money;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.jboss.logging.Logger;
+
+/**
+ * In-memory book of resting limit and stop orders, per symbol, keyed by limit price
+ *
+ * Limit buys and stop sells execute once the price falls to their limit, limit sells
+ * once it rises to it. Each committed {@link QuoteChangedEvent} takes the crossed
+ * orders off the head of the symbol's book, so a tick costs O(log n + k) for the k
+ * orders it triggers however many orders rest. Triggered orders are executed by the
+ * {@link OrderProcessor} at the triggering price. The book is rebuilt from the open
+ * orders with a limit price at startup.
+ */
+@ApplicationScoped
+public class OrderTriggerBook {
+
+    private static final Logger LOG = Logger.getLogger(OrderTriggerBook.class);
+
+    @Inject
+    OrderRepository orderRepository;
+
+    @Inject
+    OrderProcessor orderProcessor;
+
+    @Inject
+    QuoteCache quoteCache;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Map<String, SymbolBook> books = new ConcurrentHashMap<>();
+    private final Map<Integer, RestingOrder> resting = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("daytrader.orders.resting", resting, Map::size)
+                .description("Limit and stop orders waiting for their price")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuild the book from the open limit and stop orders, executing any already crossed
+     */
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        for (Object[] row : orderRepository.findRestingOrders()) {
+            add(new RestingOrder((Integer) row[0], (String) row[1], Money.toCents((BigDecimal) row[2]), (String) row[3]));
+        }
+        LOG.infof("Order trigger book loaded with %s resting orders", resting.size());
+
+        for (String symbol : List.copyOf(books.keySet())) {
+            quoteCache.get(symbol).ifPresent(quote -> transactionCallbacks.afterCommit(
+                    () -> trigger(quote.getSymbol(), quote.getPrice())));
+        }
+    }
+
+    /**
+     * Add an order to the book once the transaction placing it commits, executing it
+     * straight away if the current price has already crossed its limit
+     */
+    public void addOnCommit(Integer orderID, String orderType, BigDecimal limitPrice, QuoteDTO quote) {
+        RestingOrder order = new RestingOrder(orderID, orderType, Money.toCents(limitPrice), quote.getSymbol());
+        transactionCallbacks.afterCommit(() -> {
+            add(order);
+            trigger(quote.getSymbol(), quoteCache.getIfPresent(quote.getSymbol()).orElse(quote).getPrice());
+        });
+    }
+
+    /**
+     * Take an order off the book, e.g. because it was cancelled
+     *
+     * @return false if the order was not resting
+     */
+    public boolean remove(Integer orderID) {
+        RestingOrder order = resting.remove(orderID);
+        if (order == null) {
+            return false;
+        }
+        SymbolBook book = books.get(key(order.symbol()));
+        return book != null && book.remove(order);
+    }
+
+    /**
+     * Number of resting orders
+     */
+    public int size() {
+        return resting.size();
+    }
+
+    /**
+     * Execute the orders crossed by a committed price change
+     */
+    void onQuoteChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) QuoteChangedEvent event) {
+        QuoteDTO quote = event.getQuote();
+        trigger(quote.getSymbol(), quote.getPrice());
+    }
+
+    void trigger(String symbol, BigDecimal price) {
+        SymbolBook book = books.get(key(symbol));
+        if (book == null || price == null) {
+            return;
+        }
+        for (RestingOrder order : book.crossed(Money.toCents(price))) {
+            if (resting.remove(order.orderID()) == null) {
+                continue;
+            }
+            if (!orderProcessor.submitTriggered(order.orderID(), price)) {
+                // Left resting; the next price change tries again
+                LOG.warnf("Order processing queue is full, triggered order %s left resting", order.orderID());
+                add(order);
+            }
+        }
+    }
+
+    private void add(RestingOrder order) {
+        if (resting.putIfAbsent(order.orderID(), order) == null) {
+            books.computeIfAbsent(key(order.symbol()), symbol -> new SymbolBook()).add(order);
+        }
+    }
+
+    private static String key(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * A limit or stop order waiting for its price, limit in cents
+     */
+    record RestingOrder(Integer orderID, String orderType, long limitCents, String symbol) {
+
+        boolean onFall() {
+            return TradeConfig.LIMIT_BUY.equalsIgnoreCase(orderType) || TradeConfig.STOP_SELL.equalsIgnoreCase(orderType);
+        }
+    }
+
+    /**
+     * Resting orders of one symbol by limit price, guarded by this
+     */
+    private static class SymbolBook {
+
+        // Executed when the price falls to or below the limit (limit buys, stop sells)
+        private final NavigableMap<Long, List<RestingOrder>> onFall = new TreeMap<>();
+        // Executed when the price rises to or above the limit (limit sells)
+        private final NavigableMap<Long, List<RestingOrder>> onRise = new TreeMap<>();
+
+        synchronized void add(RestingOrder order) {
+            side(order).computeIfAbsent(order.limitCents(), limit -> new ArrayList<>(1)).add(order);
+        }
+
+        synchronized boolean remove(RestingOrder order) {
+            NavigableMap<Long, List<RestingOrder>> side = side(order);
+            List<RestingOrder> atLimit = side.get(order.limitCents());
+            if (atLimit == null || !atLimit.remove(order)) {
+                return false;
+            }
+            if (atLimit.isEmpty()) {
+                side.remove(order.limitCents());
+            }
+            return true;
+        }
+
+        /**
+         * Remove and return the orders whose limit the price has reached
+         */
+        synchronized List<RestingOrder> crossed(long priceCents) {
+            List<RestingOrder> crossed = new ArrayList<>();
+            drain(onFall.tailMap(priceCents, true), crossed);
+            drain(onRise.headMap(priceCents, true), crossed);
+            return crossed;
+        }
+
+        private NavigableMap<Long, List<RestingOrder>> side(RestingOrder order) {
+            return order.onFall() ? onFall : onRise;
+        }
+
+        private static void drain(NavigableMap<Long, List<RestingOrder>> levels, List<RestingOrder> crossed) {
+            if (!levels.isEmpty()) {
+                for (List<RestingOrder> atLimit : levels.values()) {
+                    crossed.addAll(atLimit);
+                }
+                levels.clear();
+            }
+        }
+    }
+}
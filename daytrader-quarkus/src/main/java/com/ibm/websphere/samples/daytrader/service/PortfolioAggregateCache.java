@@ -0,0 +1,274 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ibm.websphere.samples.daytrader.repository.HoldingRepository;
+import com.ibm.websphere.samples.daytrader.util.Money;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Per-account portfolio aggregates: quantity, cost basis and holding count per symbol.
+ *
+ * An account's aggregate is loaded from a single projection query the first time
+ * it is needed and then maintained from holding additions and removals once the
+ * transactions making them commit. Changes are keyed by holding ID, so applying
+ * one twice (for example when it races with the initial load) has no effect.
+ */
+@ApplicationScoped
+public class PortfolioAggregateCache {
+
+    @Inject
+    HoldingRepository holdingRepository;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "daytrader.portfolio-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "daytrader.portfolio-cache.maximum-size", defaultValue = "10000")
+    long maximumSize;
+
+    @ConfigProperty(name = "daytrader.portfolio-cache.expire-after-access", defaultValue = "30m")
+    Duration expireAfterAccess;
+
+    private Cache<Integer, Aggregate> aggregates;
+
+    @PostConstruct
+    void init() {
+        aggregates = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+        Gauge.builder("daytrader.portfolio.cache.size", aggregates, Cache::estimatedSize)
+                .description("Accounts with a cached portfolio aggregate")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current positions of an account, one per symbol held.
+     * Inside a transaction the positions are read directly, so uncommitted
+     * holdings never reach the cache.
+     */
+    public List<Position> getPositions(Integer accountId) {
+        if (!enabled || transactionCallbacks.isTransactionActive()) {
+            Aggregate uncached = new Aggregate();
+            uncached.load(() -> loadHoldings(accountId));
+            return uncached.positions();
+        }
+        Aggregate aggregate = aggregates.get(accountId, id -> new Aggregate());
+        aggregate.load(() -> loadHoldings(accountId));
+        return aggregate.positions();
+    }
+
+    /**
+     * Record a new holding once the current transaction commits
+     */
+    public void holdingAdded(Integer accountId, Integer holdingId, String symbol,
+                             double quantity, BigDecimal purchasePrice) {
+        HoldingEntry entry = new HoldingEntry(holdingId, symbol, quantity, purchasePrice);
+        transactionCallbacks.afterCommit(() -> {
+            Aggregate aggregate = aggregates.getIfPresent(accountId);
+            if (aggregate != null) {
+                aggregate.add(entry);
+            }
+        });
+    }
+
+    /**
+     * Record a removed holding once the current transaction commits
+     */
+    public void holdingRemoved(Integer accountId, Integer holdingId) {
+        transactionCallbacks.afterCommit(() -> {
+            Aggregate aggregate = aggregates.getIfPresent(accountId);
+            if (aggregate != null) {
+                aggregate.remove(holdingId);
+            }
+        });
+    }
+
+    /**
+     * Drop an account's aggregate, forcing a reload on next use
+     */
+    public void invalidate(Integer accountId) {
+        aggregates.invalidate(accountId);
+    }
+
+    private List<HoldingEntry> loadHoldings(Integer accountId) {
+        List<HoldingEntry> entries = new ArrayList<>();
+        for (Object[] row : holdingRepository.findPositionRowsByAccountId(accountId)) {
+            entries.add(new HoldingEntry((Integer) row[0], (String) row[1],
+                                         ((Number) row[2]).doubleValue(), (BigDecimal) row[3]));
+        }
+        return entries;
+    }
+
+    /**
+     * Aggregated holdings of one symbol, with the quantity in units of
+     * {@link Money#QUANTITY_SCALE} and the cost basis in cents
+     */
+    public static final class Position {
+
+        private final String symbol;
+        private final long quantityUnits;
+        private final long costBasisCents;
+        private final int holdingCount;
+
+        Position(String symbol, long quantityUnits, long costBasisCents, int holdingCount) {
+            this.symbol = symbol;
+            this.quantityUnits = quantityUnits;
+            this.costBasisCents = costBasisCents;
+            this.holdingCount = holdingCount;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public long getQuantityUnits() {
+            return quantityUnits;
+        }
+
+        public BigDecimal getQuantity() {
+            return BigDecimal.valueOf(quantityUnits, Money.QUANTITY_SCALE);
+        }
+
+        public long getCostBasisCents() {
+            return costBasisCents;
+        }
+
+        public BigDecimal getCostBasis() {
+            return Money.toBigDecimal(costBasisCents);
+        }
+
+        public int getHoldingCount() {
+            return holdingCount;
+        }
+    }
+
+    private record HoldingEntry(Integer holdingId, String symbol, long units, long cost) {
+
+        HoldingEntry(Integer holdingId, String symbol, double quantity, BigDecimal purchasePrice) {
+            this(holdingId, symbol, Money.toUnits(quantity),
+                 purchasePrice == null ? 0 : Money.value(quantity, Money.toCents(purchasePrice)));
+        }
+    }
+
+    /**
+     * Mutable aggregate for one account. Changes arriving while the initial load
+     * is running are queued and replayed over the loaded holdings.
+     */
+    private static final class Aggregate {
+
+        private final Object loadLock = new Object();
+        private final Map<Integer, HoldingEntry> holdings = new HashMap<>();
+        private final Map<String, Position> positions = new HashMap<>();
+        private List<Runnable> pending = new ArrayList<>();
+        private volatile boolean loaded;
+
+        void load(Supplier<List<HoldingEntry>> loader) {
+            if (loaded) {
+                return;
+            }
+            synchronized (loadLock) {
+                if (loaded) {
+                    return;
+                }
+                List<HoldingEntry> entries = loader.get();
+                synchronized (this) {
+                    for (HoldingEntry entry : entries) {
+                        apply(entry);
+                    }
+                    for (Runnable change : pending) {
+                        change.run();
+                    }
+                    pending = null;
+                    loaded = true;
+                }
+            }
+        }
+
+        synchronized void add(HoldingEntry entry) {
+            if (pending != null) {
+                pending.add(() -> apply(entry));
+            } else {
+                apply(entry);
+            }
+        }
+
+        synchronized void remove(Integer holdingId) {
+            if (pending != null) {
+                pending.add(() -> unapply(holdingId));
+            } else {
+                unapply(holdingId);
+            }
+        }
+
+        synchronized List<Position> positions() {
+            return new ArrayList<>(positions.values());
+        }
+
+        // Must hold the monitor
+        private void apply(HoldingEntry entry) {
+            if (holdings.putIfAbsent(entry.holdingId(), entry) != null) {
+                return;
+            }
+            String key = entry.symbol().toUpperCase(Locale.ROOT);
+            Position current = positions.get(key);
+            positions.put(key, current == null
+                    ? new Position(entry.symbol(), entry.units(), entry.cost(), 1)
+                    : new Position(current.symbol, current.quantityUnits + entry.units(),
+                                   current.costBasisCents + entry.cost(), current.holdingCount + 1));
+        }
+
+        // Must hold the monitor
+        private void unapply(Integer holdingId) {
+            HoldingEntry entry = holdings.remove(holdingId);
+            if (entry == null) {
+                return;
+            }
+            String key = entry.symbol().toUpperCase(Locale.ROOT);
+            Position current = positions.get(key);
+            if (current.holdingCount == 1) {
+                positions.remove(key);
+            } else {
+                positions.put(key, new Position(current.symbol, current.quantityUnits - entry.units(),
+                                                current.costBasisCents - entry.cost(), current.holdingCount - 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.event.QuoteChangedEvent;
+import com.ibm.websphere.samples.daytrader.repository.QuoteRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * In-memory quote cache keyed by upper-case symbol
+ *
+ * Populated at startup and lazily on misses, and updated in place from
+ * committed {@link QuoteChangedEvent}s, unless the cached quote came from a
+ * newer change than the event. Entries loaded inside a transaction
+ * are only cached once that transaction commits, so uncommitted or
+ * rolled-back quotes never become visible to other requests.
+ * Size and staleness are bounded by configuration.
+ */
+@ApplicationScoped
+public class QuoteCache {
+
+    private static final Logger LOG = Logger.getLogger(QuoteCache.class);
+
+    @Inject
+    QuoteRepository quoteRepository;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "daytrader.quote-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "daytrader.quote-cache.maximum-size", defaultValue = "100000")
+    long maximumSize;
+
+    @ConfigProperty(name = "daytrader.quote-cache.expire-after-write", defaultValue = "60s")
+    Duration expireAfterWrite;
+
+    @ConfigProperty(name = "daytrader.quote-cache.preload", defaultValue = "true")
+    boolean preload;
+
+    private Cache<String, Entry> cache;
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("daytrader.quote.cache.requests")
+                .description("Quote cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("daytrader.quote.cache.requests")
+                .description("Quote cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        evictions = Counter.builder("daytrader.quote.cache.evictions")
+                .description("Quotes evicted by size or staleness bound")
+                .register(meterRegistry);
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .evictionListener((String symbol, Entry entry, RemovalCause cause) -> evictions.increment())
+                .build();
+
+        Gauge.builder("daytrader.quote.cache.size", cache, Cache::estimatedSize)
+                .description("Quotes currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Warm the cache with up to maximum-size quotes
+     */
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled || !preload) {
+            return;
+        }
+        List<QuoteDTO> quotes = quoteRepository.findAllDtos((int) Math.min(Integer.MAX_VALUE, maximumSize));
+        for (QuoteDTO quote : quotes) {
+            cache.put(key(quote.getSymbol()), new Entry(quote, 0));
+        }
+        LOG.infof("Quote cache preloaded with %s quotes", quotes.size());
+    }
+
+    /**
+     * Look up a quote by symbol (case-insensitive), loading it on a miss
+     */
+    public Optional<QuoteDTO> get(String symbol) {
+        if (symbol == null) {
+            return Optional.empty();
+        }
+        if (!enabled) {
+            return quoteRepository.findBySymbol(symbol).map(QuoteDTO::new);
+        }
+
+        Entry cached = cache.getIfPresent(key(symbol));
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached.quote());
+        }
+
+        misses.increment();
+        Optional<QuoteDTO> loaded = quoteRepository.findBySymbol(symbol).map(QuoteDTO::new);
+        loaded.ifPresent(quote -> transactionCallbacks.afterCommit(
+                // Never overwrite a newer value written through in the meantime
+                () -> cache.asMap().putIfAbsent(key(quote.getSymbol()), new Entry(quote, 0))));
+        return loaded;
+    }
+
+    /**
+     * Look up a cached quote without loading it on a miss
+     */
+    public Optional<QuoteDTO> getIfPresent(String symbol) {
+        if (!enabled || symbol == null) {
+            return Optional.empty();
+        }
+        Entry cached = cache.getIfPresent(key(symbol));
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return Optional.ofNullable(cached).map(Entry::quote);
+    }
+
+    /**
+     * Cache a quote read outside a transaction, unless a newer value is already cached
+     */
+    public void putIfAbsent(QuoteDTO quote) {
+        if (enabled) {
+            cache.asMap().putIfAbsent(key(quote.getSymbol()), new Entry(quote, 0));
+        }
+    }
+
+    /**
+     * Write-through of committed quote changes. Observers of concurrent transactions may run
+     * in the opposite order to their commits, so an older change never replaces a newer one.
+     */
+    void onQuoteChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) QuoteChangedEvent event) {
+        if (enabled) {
+            Entry changed = new Entry(event.getQuote(), event.getSequence());
+            cache.asMap().compute(key(event.getQuote().getSymbol()),
+                    (symbol, cached) -> cached == null || cached.sequence() < changed.sequence() ? changed : cached);
+        }
+    }
+
+    /**
+     * Drop a symbol, forcing the next lookup to read the database
+     */
+    public void invalidate(String symbol) {
+        if (symbol != null) {
+            cache.invalidate(key(symbol));
+        }
+    }
+
+    /**
+     * Number of cached quotes (approximate)
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static String key(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * A cached quote and the sequence of the change it came from; 0 if it was read from the database
+     */
+    private record Entry(QuoteDTO quote, long sequence) {
+    }
+}
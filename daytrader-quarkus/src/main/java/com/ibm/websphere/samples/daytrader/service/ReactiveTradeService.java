@@ -0,0 +1,186 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
+import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderPageDTO;
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.repository.ReactiveAccountRepository;
+import com.ibm.websphere.samples.daytrader.repository.ReactiveHoldingRepository;
+import com.ibm.websphere.samples.daytrader.repository.ReactiveOrderRepository;
+import com.ibm.websphere.samples.daytrader.repository.ReactiveQuoteRepository;
+import com.ibm.websphere.samples.daytrader.util.OrderCursor;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Read side of {@link TradeService} returning {@link Uni}
+ *
+ * When reactive reads are enabled and a reactive datasource is configured,
+ * quotes, holdings, orders and accounts are read with the reactive PostgreSQL
+ * client, so no JDBC connection is held while the query runs. Otherwise
+ * (including H2 in dev and test, which has no reactive client) every method
+ * delegates to the blocking {@link TradeService} on the subscribing thread.
+ * Both paths return the same DTOs and fail with the same exceptions.
+ */
+@ApplicationScoped
+public class ReactiveTradeService {
+
+    private static final Logger LOG = Logger.getLogger(ReactiveTradeService.class);
+
+    @Inject
+    TradeService tradeService;
+
+    @Inject
+    QuoteCache quoteCache;
+
+    @Inject
+    AccountLedger ledger;
+
+    @Inject
+    LoginStatistics loginStatistics;
+
+    @Inject
+    ReactiveQuoteRepository quoteRepository;
+
+    @Inject
+    ReactiveAccountRepository accountRepository;
+
+    @Inject
+    ReactiveHoldingRepository holdingRepository;
+
+    @Inject
+    ReactiveOrderRepository orderRepository;
+
+    @Inject
+    Instance<Pool> pool;
+
+    @ConfigProperty(name = "daytrader.reactive-reads.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "daytrader.reactive-reads.timeout", defaultValue = "5s")
+    Duration timeout;
+
+    private boolean reactive;
+
+    @PostConstruct
+    void init() {
+        reactive = enabled && pool.isResolvable();
+        if (enabled && !reactive) {
+            LOG.warn("Reactive reads enabled but no reactive datasource is configured, using blocking reads");
+        }
+        LOG.infof("Read path: %s", reactive ? "reactive" : "blocking");
+    }
+
+    /**
+     * Whether reads use the reactive client
+     */
+    public boolean isReactive() {
+        return reactive;
+    }
+
+    /**
+     * Get quote by symbol, from the quote cache when present
+     */
+    public Uni<QuoteDTO> getQuote(String symbol) {
+        if (!reactive) {
+            return Uni.createFrom().item(() -> tradeService.getQuote(symbol));
+        }
+        return quoteCache.getIfPresent(symbol)
+                .map(quote -> Uni.createFrom().item(quote))
+                .orElseGet(() -> bounded(quoteRepository.findBySymbol(symbol))
+                        .map(quote -> quote.orElseThrow(
+                                () -> new IllegalArgumentException("Quote not found for symbol: " + symbol)))
+                        .invoke(quoteCache::putIfAbsent));
+    }
+
+    /**
+     * Get all quotes
+     */
+    public Uni<List<QuoteDTO>> getAllQuotes() {
+        if (!reactive) {
+            return Uni.createFrom().item(tradeService::getAllQuotes);
+        }
+        return bounded(quoteRepository.findAllQuotes());
+    }
+
+    /**
+     * Get account information by accountID
+     */
+    public Uni<AccountDTO> getAccountData(Integer accountID) {
+        if (!reactive) {
+            return Uni.createFrom().item(() -> tradeService.getAccountData(accountID));
+        }
+        return bounded(accountRepository.findById(accountID))
+                .map(account -> ledger.withCurrentBalance(loginStatistics.withPendingStatistics(account.orElseThrow(
+                        () -> new IllegalArgumentException("Account not found: " + accountID)))));
+    }
+
+    /**
+     * Get user's portfolio holdings
+     */
+    public Uni<List<HoldingDTO>> getHoldings(String userID) {
+        if (!reactive) {
+            return Uni.createFrom().item(() -> tradeService.getHoldings(userID));
+        }
+        return accountId(userID).flatMap(accountId -> bounded(holdingRepository.findByAccountIdWithQuote(accountId)));
+    }
+
+    /**
+     * Get user's orders, newest first
+     */
+    public Uni<List<OrderDTO>> getOrders(String userID) {
+        if (!reactive) {
+            return Uni.createFrom().item(() -> tradeService.getOrders(userID));
+        }
+        return accountId(userID).flatMap(accountId -> bounded(orderRepository.findByAccountId(accountId)));
+    }
+
+    /**
+     * Get one page of user's orders, newest first
+     */
+    public Uni<OrderPageDTO> getOrdersPage(String userID, OrderCursor cursor, int limit) {
+        if (!reactive) {
+            return Uni.createFrom().item(() -> tradeService.getOrdersPage(userID, cursor, limit));
+        }
+        return accountId(userID)
+                .flatMap(accountId -> bounded(orderRepository.findPageByAccountId(accountId, cursor, limit + 1)))
+                .map(rows -> OrderPageDTO.of(rows, limit));
+    }
+
+    private Uni<Integer> accountId(String userID) {
+        return bounded(accountRepository.findAccountIdByUserID(userID))
+                .map(accountId -> accountId.orElseThrow(
+                        () -> new IllegalArgumentException("Account not found for user: " + userID)));
+    }
+
+    private <T> Uni<T> bounded(Uni<T> query) {
+        return query.ifNoItem().after(timeout).fail();
+    }
+}
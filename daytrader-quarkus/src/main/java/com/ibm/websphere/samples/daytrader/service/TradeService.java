@@ -15,17 +15,29 @@
  */
 package com.ibm.websphere.samples.daytrader.service;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
 import com.ibm.websphere.samples.daytrader.dto.AccountProfileDTO;
+import com.ibm.websphere.samples.daytrader.dto.BatchOrderResultDTO;
 import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
 import com.ibm.websphere.samples.daytrader.dto.MarketSummaryDTO;
 import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderPageDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderRequestDTO;
 import com.ibm.websphere.samples.daytrader.dto.PortfolioSummaryDTO;
 import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
 import com.ibm.websphere.samples.daytrader.entity.Account;
@@ -33,15 +45,24 @@ import com.ibm.websphere.samples.daytrader.entity.AccountProfile;
 import com.ibm.websphere.samples.daytrader.entity.Holding;
 import com.ibm.websphere.samples.daytrader.entity.Order;
 import com.ibm.websphere.samples.daytrader.entity.Quote;
+import com.ibm.websphere.samples.daytrader.event.QuoteChangedEvent;
 import com.ibm.websphere.samples.daytrader.repository.AccountProfileRepository;
 import com.ibm.websphere.samples.daytrader.repository.AccountRepository;
 import com.ibm.websphere.samples.daytrader.repository.HoldingRepository;
 import com.ibm.websphere.samples.daytrader.repository.OrderRepository;
 import com.ibm.websphere.samples.daytrader.repository.QuoteRepository;
 import com.ibm.websphere.samples.daytrader.util.FinancialUtils;
+import com.ibm.websphere.samples.daytrader.util.Money;
+import com.ibm.websphere.samples.daytrader.util.OrderCursor;
+import com.ibm.websphere.samples.daytrader.util.SymbolUtils;
 import com.ibm.websphere.samples.daytrader.util.TradeConfig;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
@@ -78,41 +99,90 @@ public class TradeService {
     @Inject
     MarketSummaryService marketSummaryService;
 
+    @Inject
+    OrderProcessor orderProcessor;
+
+    @Inject
+    OrderTriggerBook triggerBook;
+
+    @Inject
+    QuoteCache quoteCache;
+
+    @Inject
+    PortfolioAggregateCache portfolioAggregates;
+
+    @Inject
+    AccountLedger ledger;
+
+    @Inject
+    CredentialCache credentialCache;
+
+    @Inject
+    LoginStatistics loginStatistics;
+
+    @Inject
+    Event<QuoteChangedEvent> quoteChangedEvent;
+
     @Inject
     EntityManager entityManager;
 
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Counter ordersClosed;
+    private Counter ordersCancelled;
+    private Counter ordersInsufficientFunds;
+    private Counter ordersHoldingAlreadySold;
+
+    @PostConstruct
+    void init() {
+        ordersClosed = orderOutcomeCounter("closed");
+        ordersCancelled = orderOutcomeCounter("cancelled");
+        ordersInsufficientFunds = orderOutcomeCounter("insufficient_funds");
+        ordersHoldingAlreadySold = orderOutcomeCounter("holding_already_sold");
+    }
+
+    private Counter orderOutcomeCounter(String outcome) {
+        return Counter.builder("daytrader.orders.outcome")
+                .description("Orders by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     /**
      * Login user and update login statistics
+     * Credentials are verified against the credential cache and the statistics are
+     * written in the background, so login only reads the account data
      */
-    @Transactional
+    @Timed(value = "daytrader.trade.operation", extraTags = {"operation", "login"}, histogram = true)
     public AccountDTO login(String userID, String password) {
         LOG.debugf("Login attempt for user: %s", userID);
         
-        AccountProfile profile = accountProfileRepository.authenticate(userID, password)
+        Integer accountID = credentialCache.verify(userID, password)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid credentials"));
         
-        Account account = accountRepository.findByProfileUserID(userID)
+        loginStatistics.recordLogin(accountID);
+        AccountDTO account = accountRepository.findDtoById(accountID)
                 .orElseThrow(() -> new IllegalStateException("Account not found for user: " + userID));
         
-        account.login(password);
-        accountRepository.persist(account);
-        
         LOG.infof("User %s logged in successfully", userID);
-        return new AccountDTO(account);
+        return ledger.withCurrentBalance(loginStatistics.withPendingStatistics(account));
     }
 
     /**
      * Logout user and update logout statistics
      */
-    @Transactional
     public void logout(String userID) {
         LOG.debugf("Logout for user: %s", userID);
         
-        Account account = accountRepository.findByProfileUserID(userID)
+        Integer accountID = credentialCache.cachedAccountID(userID)
+                .or(() -> accountRepository.findAccountIdByUserID(userID))
                 .orElseThrow(() -> new IllegalArgumentException("Account not found for user: " + userID));
         
-        account.logout();
-        accountRepository.persist(account);
+        loginStatistics.recordLogout(accountID);
         
         LOG.infof("User %s logged out successfully", userID);
     }
@@ -121,9 +191,10 @@ public class TradeService {
      * Get account information by accountID
      */
     public AccountDTO getAccountData(Integer accountID) {
-        Account account = accountRepository.findByIdWithProfile(accountID)
+        return accountRepository.findDtoById(accountID)
+                .map(loginStatistics::withPendingStatistics)
+                .map(ledger::withCurrentBalance)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountID));
-        return new AccountDTO(account);
     }
 
     /**
@@ -131,27 +202,25 @@ public class TradeService {
      */
     public AccountDTO getAccountDataByUserID(String userID) {
         LOG.debugf("Get account data for user: %s", userID);
-        Account account = accountRepository.findByProfileUserID(userID)
+        return accountRepository.findDtoByUserID(userID)
+                .map(loginStatistics::withPendingStatistics)
+                .map(ledger::withCurrentBalance)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found for user: " + userID));
-        return new AccountDTO(account);
     }
 
     /**
      * Get quote by symbol
      */
     public QuoteDTO getQuote(String symbol) {
-        Quote quote = quoteRepository.findBySymbol(symbol)
+        return quoteCache.get(symbol)
                 .orElseThrow(() -> new IllegalArgumentException("Quote not found for symbol: " + symbol));
-        return new QuoteDTO(quote);
     }
 
     /**
      * Get all quotes
      */
     public List<QuoteDTO> getAllQuotes() {
-        return quoteRepository.findAllQuotes().stream()
-                .map(QuoteDTO::new)
-                .collect(Collectors.toList());
+        return quoteRepository.findAllDtos();
     }
 
     /**
@@ -159,10 +228,12 @@ public class TradeService {
      */
     @Transactional
     public QuoteDTO createQuote(String symbol, String companyName, BigDecimal price) {
+        // Stored in canonical form so lookups can use the primary key
+        symbol = SymbolUtils.normalize(symbol);
         Quote quote = new Quote(symbol, companyName, 0, price, price, price, price, 0.0);
         quoteRepository.persist(quote);
         LOG.infof("Created quote for symbol: %s", symbol);
-        return new QuoteDTO(quote);
+        return quoteChanged(quote);
     }
 
     /**
@@ -179,7 +250,7 @@ public class TradeService {
         
         quoteRepository.persist(quote);
         LOG.debugf("Updated quote %s: old price=%s, new price=%s", symbol, oldPrice, newPrice);
-        return new QuoteDTO(quote);
+        return quoteChanged(quote);
     }
 
     /**
@@ -219,55 +290,86 @@ public class TradeService {
     /**
      * Buy stock shares - creates an order and updates account balance
      * Per Phase 2: Feature Implementation - Core Trading Operations
+     *
+     * The account ID and price come from the credential and quote caches, and the balance is
+     * debited by a conditional update that is also the funds check. A synchronous buy then
+     * inserts its holding and closed order and returns them without reading anything back.
      */
+    @Timed(value = "daytrader.trade.operation", extraTags = {"operation", "buy"}, histogram = true)
     @Transactional
     public OrderDTO buy(String userID, String symbol, double quantity, int orderProcessingMode) {
         LOG.debugf("Buy: user=%s, symbol=%s, quantity=%s, mode=%s", userID, symbol, quantity, orderProcessingMode);
 
         try {
-            // Get user account and quote
-            AccountProfile profile = accountProfileRepository.findByUserID(userID)
+            Integer accountID = credentialCache.cachedAccountID(userID)
+                    .or(() -> accountRepository.findAccountIdByUserID(userID))
                     .orElseThrow(() -> new IllegalArgumentException("User not found: " + userID));
-            Account account = profile.getAccount();
-            Quote quote = quoteRepository.findBySymbol(symbol)
+            QuoteDTO quoteData = quoteCache.get(symbol)
                     .orElseThrow(() -> new IllegalArgumentException("Quote not found: " + symbol));
 
-            // Calculate total cost
-            BigDecimal price = quote.getPrice();
+            // Calculate total cost in cents
+            BigDecimal price = quoteData.getPrice();
             BigDecimal orderFee = TradeConfig.getOrderFee("buy");
-            BigDecimal total = new BigDecimal(quantity).multiply(price).add(orderFee);
-
-            // Check for insufficient funds
-            if (account.getBalance().compareTo(total) < 0) {
-                throw new IllegalArgumentException("Insufficient funds: balance=" + account.getBalance() + ", required=" + total);
+            BigDecimal total = Money.toBigDecimal(Money.value(quantity, Money.toCents(price)) + Money.toCents(orderFee));
+
+            // Debit the balance only if it covers the cost; the ledger reserves the cost in memory instead
+            boolean funded = ledger.isEnabled()
+                    ? ledger.reserve(accountID, total)
+                    : accountRepository.debitIfCovered(accountID, total);
+            if (!funded) {
+                ordersInsufficientFunds.increment();
+                BigDecimal balance = ledger.isEnabled()
+                        ? ledger.balance(accountID)
+                        : accountRepository.findBalance(accountID).orElse(BigDecimal.ZERO);
+                throw new IllegalArgumentException("Insufficient funds: balance=" + balance + ", required=" + total);
             }
 
-            // Create buy order
-            Order order = createOrder(account, quote, null, "buy", quantity);
-
-            // Deduct cost from account balance
-            account.setBalance(account.getBalance().subtract(total));
-            accountRepository.persist(account);
+            // The order and holding only need references to the account and quote rows
+            Account account = entityManager.getReference(Account.class, accountID);
+            Quote quote = entityManager.getReference(Quote.class, quoteData.getSymbol());
+            BigDecimal orderPrice = price.setScale(FinancialUtils.SCALE, FinancialUtils.ROUND);
+            boolean synch = orderProcessingMode == TradeConfig.SYNCH;
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+
+            // A synchronous buy is written closed, together with its holding
+            Holding holding = null;
+            if (synch) {
+                holding = new Holding(quantity, orderPrice, now, account, quote);
+                holdingRepository.persist(holding);
+            }
+            Order order = new Order("buy", synch ? "closed" : "open", now, synch ? now : null,
+                                    quantity, orderPrice, orderFee, account, quote, holding);
+            orderRepository.persist(order);
 
-            // Flush to ensure balance update is persisted before completeOrder clears the entity manager
-            entityManager.flush();
+            if (ledger.isEnabled()) {
+                ledger.record(order.getOrderID(), accountID, total.negate());
+            }
 
-            // Complete order synchronously (async processing not implemented yet)
-            OrderDTO completedOrder = null;
-            if (orderProcessingMode == TradeConfig.SYNCH) {
-                completedOrder = completeOrder(order.getOrderID());
+            // Complete the order now, or hand it to the order processor once committed
+            Integer holdingID = null;
+            if (synch) {
+                holdingID = holding.getHoldingID();
+                portfolioAggregates.holdingAdded(accountID, holdingID, quoteData.getSymbol(), quantity, orderPrice);
+                transactionCallbacks.afterCommit(ordersClosed::increment);
+            } else {
+                orderProcessor.submitOnCommit(order.getOrderID());
             }
 
             LOG.infof("Buy order created: orderID=%s, user=%s, symbol=%s, quantity=%s",
                      order.getOrderID(), userID, symbol, quantity);
 
-            // Return the completed order if synchronous, otherwise return the open order
-            return completedOrder != null ? completedOrder : new OrderDTO(order);
+            return new OrderDTO(order.getOrderID(), "buy", order.getOrderStatus(), now, order.getCompletionDate(),
+                                quantity, orderPrice, orderFee, quoteData.getSymbol(), quoteData.getCompanyName(),
+                                accountID, holdingID);
 
         } catch (IllegalArgumentException e) {
             // Re-throw IllegalArgumentException directly for proper REST error handling
             LOG.warnf("Buy operation validation failed: %s", e.getMessage());
             throw e;
+        } catch (RejectedExecutionException e) {
+            // Order processor is saturated - surface back-pressure to the caller
+            LOG.warnf("Buy operation rejected: %s", e.getMessage());
+            throw e;
         } catch (Exception e) {
             LOG.error("Buy operation failed", e);
             throw new RuntimeException("Buy operation failed: " + e.getMessage(), e);
@@ -277,113 +379,422 @@ public class TradeService {
     /**
      * Sell holding - creates a sell order and updates account balance
      * Per Phase 2: Feature Implementation - Core Trading Operations
+     *
+     * The holding is claimed in the database: a synchronous sell deletes it (one DELETE ... RETURNING
+     * on PostgreSQL), an asynchronous one locks it and marks its sale in flight. A holding that is
+     * sold or being sold cannot be claimed, so concurrent sells of it after the first are cancelled.
+     * The account is then credited and the order inserted, without reloading anything.
      */
+    @Timed(value = "daytrader.trade.operation", extraTags = {"operation", "sell"}, histogram = true)
     @Transactional
     public OrderDTO sell(String userID, Integer holdingID, int orderProcessingMode) {
         LOG.debugf("Sell: user=%s, holdingID=%s, mode=%s", userID, holdingID, orderProcessingMode);
 
         try {
-            // Get account ID using a projection query to avoid loading the entity graph
-            Integer accountId;
-            try {
-                accountId = (Integer) entityManager.createQuery(
-                    "SELECT a.accountID FROM Account a WHERE a.profile.userID = :userId")
-                    .setParameter("userId", userID)
-                    .getSingleResult();
-            } catch (jakarta.persistence.NoResultException e) {
-                throw new IllegalArgumentException("User not found: " + userID);
-            }
-
-            if (accountId == null) {
-                throw new IllegalArgumentException("User not found: " + userID);
-            }
+            Integer accountID = credentialCache.cachedAccountID(userID)
+                    .or(() -> accountRepository.findAccountIdByUserID(userID))
+                    .orElseThrow(() -> new IllegalArgumentException("User not found: " + userID));
 
-            // Use a projection query to get holding data without loading the entity graph
-            // This avoids transient entity issues caused by entity relationships
-            Object[] holdingData;
-            try {
-                holdingData = (Object[]) entityManager.createQuery(
-                    "SELECT h.holdingID, h.quantity, h.quote.price, h.quote.symbol FROM Holding h WHERE h.holdingID = :id")
-                    .setParameter("id", holdingID)
-                    .getSingleResult();
-            } catch (jakarta.persistence.NoResultException e) {
+            // Claim the holding; only one sell of it can succeed
+            boolean synch = orderProcessingMode == TradeConfig.SYNCH;
+            Optional<HoldingRepository.SaleClaim> claim = synch
+                    ? holdingRepository.removeForSale(holdingID, accountID)
+                    : holdingRepository.lockForSale(holdingID, accountID);
+            if (claim.isEmpty()) {
                 LOG.warnf("User %s attempted to sell holding %s which has already been sold", userID, holdingID);
+                ordersHoldingAlreadySold.increment();
                 Order cancelledOrder = new Order();
                 cancelledOrder.setOrderStatus("cancelled");
                 orderRepository.persist(cancelledOrder);
                 return new OrderDTO(cancelledOrder);
             }
 
-            double quantity = ((Number) holdingData[1]).doubleValue();
-            BigDecimal price = (BigDecimal) holdingData[2];
-            String symbol = (String) holdingData[3];
-
-            // Clear persistence context to ensure clean state for order creation
-            entityManager.clear();
-
-            // Get the quote and account fresh after clearing
-            Quote quote = quoteRepository.findBySymbol(symbol)
+            double quantity = claim.get().quantity();
+            String symbol = claim.get().symbol();
+            QuoteDTO quoteData = quoteCache.get(symbol)
                     .orElseThrow(() -> new IllegalArgumentException("Quote not found: " + symbol));
-            Account account = accountRepository.find("accountID", accountId).firstResult();
-
-            // Create sell order WITHOUT holding reference to avoid transient entity issues
-            Order order = createOrder(account, quote, null, "sell", quantity);
-            Integer orderID = order.getOrderID();
-
-            // Flush to persist the order
-            orderRepository.flush();
 
-            // Set holding reference via native SQL to avoid entity state issues
-            orderRepository.setHoldingReference(orderID, holdingID);
-
-            // Mark holding as "in-flight" by updating purchaseDate via native SQL
-            entityManager.createNativeQuery(
-                "UPDATE holdingejb SET PURCHASEDATE = ?1 WHERE HOLDINGID = ?2")
-                .setParameter(1, new Timestamp(0))
-                .setParameter(2, holdingID)
-                .executeUpdate();
-
-            // Credit account balance using native SQL to avoid entity graph issues
-            BigDecimal orderFee = order.getOrderFee();
-            BigDecimal total = new BigDecimal(quantity).multiply(price).subtract(orderFee);
-            entityManager.createNativeQuery(
-                "UPDATE accountejb SET BALANCE = BALANCE + ?1 WHERE ACCOUNTID = ?2")
-                .setParameter(1, total)
-                .setParameter(2, accountId)
-                .executeUpdate();
+            // Calculate proceeds in cents
+            BigDecimal price = quoteData.getPrice();
+            BigDecimal orderFee = TradeConfig.getOrderFee("sell");
+            BigDecimal total = Money.toBigDecimal(Money.value(quantity, Money.toCents(price)) - Money.toCents(orderFee));
+
+            // The order only needs references to the account, quote and (while in flight) holding rows
+            Account account = entityManager.getReference(Account.class, accountID);
+            Quote quote = entityManager.getReference(Quote.class, symbol);
+            Holding holding = synch ? null : entityManager.getReference(Holding.class, holdingID);
+            BigDecimal orderPrice = price.setScale(FinancialUtils.SCALE, FinancialUtils.ROUND);
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            Order order = new Order("sell", synch ? "closed" : "open", now, synch ? now : null,
+                                    quantity, orderPrice, orderFee, account, quote, holding);
+            orderRepository.persist(order);
 
-            // Flush all pending changes and clear persistence context
-            // This ensures completeOrder() fetches fresh data including the holding reference
-            entityManager.flush();
-            entityManager.clear();
+            // Credit account balance
+            if (ledger.isEnabled()) {
+                ledger.record(order.getOrderID(), accountID, total);
+            } else {
+                accountRepository.credit(accountID, total);
+            }
 
-            // Complete order synchronously (async processing not implemented yet)
-            Integer orderIdToComplete = order.getOrderID();
-            OrderDTO completedOrder = null;
-            if (orderProcessingMode == TradeConfig.SYNCH) {
-                completedOrder = completeOrder(orderIdToComplete);
+            // The order is complete, or is handed to the order processor once committed
+            if (synch) {
+                portfolioAggregates.holdingRemoved(accountID, holdingID);
+                transactionCallbacks.afterCommit(ordersClosed::increment);
+            } else {
+                holdingRepository.markSaleInFlight(holdingID);
+                orderProcessor.submitOnCommit(order.getOrderID());
             }
 
             LOG.infof("Sell order created: orderID=%s, user=%s, holdingID=%s, quantity=%s",
                      order.getOrderID(), userID, holdingID, quantity);
 
-            // Return the completed order if synchronous, otherwise return the open order
-            return completedOrder != null ? completedOrder : new OrderDTO(order);
+            return new OrderDTO(order.getOrderID(), "sell", order.getOrderStatus(), now, order.getCompletionDate(),
+                                quantity, orderPrice, orderFee, symbol, quoteData.getCompanyName(),
+                                accountID, synch ? null : holdingID);
 
         } catch (IllegalArgumentException e) {
             // Re-throw IllegalArgumentException directly for proper REST error handling
             LOG.warnf("Sell operation validation failed: %s", e.getMessage());
             throw e;
+        } catch (RejectedExecutionException e) {
+            // Order processor is saturated - surface back-pressure to the caller
+            LOG.warnf("Sell operation rejected: %s", e.getMessage());
+            throw e;
         } catch (Exception e) {
             LOG.error("Sell operation failed", e);
             throw new RuntimeException("Sell operation failed: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Place a limit or stop order, which rests in the trigger book until the price crosses its limit
+     *
+     * A limit buy debits its cost at the limit price now and is filled at that price. A limit or
+     * stop sell claims the holding now, like an asynchronous sell; the account is credited when
+     * it executes, at the limit price for a limit sell and at the triggering price for a stop.
+     */
+    @Timed(value = "daytrader.trade.operation", extraTags = {"operation", "placeTriggeredOrder"}, histogram = true)
+    @Transactional
+    public OrderDTO placeTriggeredOrder(String userID, String orderType, String symbol, double quantity,
+                                       Integer holdingID, BigDecimal limitPrice) {
+        LOG.debugf("Place %s: user=%s, symbol=%s, holdingID=%s, quantity=%s, limit=%s",
+                  orderType, userID, symbol, holdingID, quantity, limitPrice);
+
+        if (!TradeConfig.isTriggered(orderType)) {
+            throw new IllegalArgumentException("orderType must be " + TradeConfig.LIMIT_BUY + ", "
+                    + TradeConfig.LIMIT_SELL + " or " + TradeConfig.STOP_SELL);
+        }
+        if (limitPrice == null || limitPrice.signum() <= 0) {
+            throw new IllegalArgumentException("limitPrice must be greater than 0");
+        }
+        String type = orderType.toLowerCase(Locale.ROOT);
+        boolean buy = TradeConfig.isBuy(type);
+        BigDecimal limit = limitPrice.setScale(FinancialUtils.SCALE, FinancialUtils.ROUND);
+        BigDecimal orderFee = TradeConfig.getOrderFee(type);
+
+        Integer accountID = credentialCache.cachedAccountID(userID)
+                .or(() -> accountRepository.findAccountIdByUserID(userID))
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userID));
+
+        QuoteDTO quoteData;
+        BigDecimal total = null;
+        Holding holding = null;
+        if (buy) {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("quantity must be greater than 0");
+            }
+            quoteData = quoteCache.get(symbol)
+                    .orElseThrow(() -> new IllegalArgumentException("Quote not found: " + symbol));
+
+            // The cost at the limit price is debited now, so the order cannot fail for funds later
+            total = Money.toBigDecimal(Money.value(quantity, Money.toCents(limit)) + Money.toCents(orderFee));
+            boolean funded = ledger.isEnabled()
+                    ? ledger.reserve(accountID, total)
+                    : accountRepository.debitIfCovered(accountID, total);
+            if (!funded) {
+                ordersInsufficientFunds.increment();
+                BigDecimal balance = ledger.isEnabled()
+                        ? ledger.balance(accountID)
+                        : accountRepository.findBalance(accountID).orElse(BigDecimal.ZERO);
+                throw new IllegalArgumentException("Insufficient funds: balance=" + balance + ", required=" + total);
+            }
+        } else {
+            // The holding is claimed now, so it cannot be sold twice
+            HoldingRepository.SaleClaim claim = holdingRepository.lockForSale(holdingID, accountID)
+                    .orElseThrow(() -> new IllegalArgumentException("Holding not found or already being sold: " + holdingID));
+            quantity = claim.quantity();
+            quoteData = quoteCache.get(claim.symbol())
+                    .orElseThrow(() -> new IllegalArgumentException("Quote not found: " + claim.symbol()));
+            holdingRepository.markSaleInFlight(holdingID);
+            holding = entityManager.getReference(Holding.class, holdingID);
+        }
+
+        Account account = entityManager.getReference(Account.class, accountID);
+        Quote quote = entityManager.getReference(Quote.class, quoteData.getSymbol());
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Order order = new Order(type, "open", now, null, quantity, limit, orderFee, account, quote, holding);
+        order.setLimitPrice(limit);
+        orderRepository.persist(order);
+
+        if (buy && ledger.isEnabled()) {
+            ledger.record(order.getOrderID(), accountID, total.negate());
+        }
+        triggerBook.addOnCommit(order.getOrderID(), type, limit, quoteData);
+
+        LOG.infof("%s order placed: orderID=%s, user=%s, symbol=%s, quantity=%s, limit=%s",
+                 type, order.getOrderID(), userID, quoteData.getSymbol(), quantity, limit);
+
+        return new OrderDTO(order.getOrderID(), type, "open", now, null, quantity, limit, orderFee,
+                            quoteData.getSymbol(), quoteData.getCompanyName(), accountID, holdingID);
+    }
+
+    /**
+     * Execute a limit or stop order whose limit the price has crossed, then complete it
+     * Called by the order processor with the price that triggered the order.
+     *
+     * @throws IllegalStateException if the order has already been executed or cancelled
+     */
+    @Transactional
+    public OrderDTO executeTriggeredOrder(Integer orderID, BigDecimal triggerPrice) {
+        LOG.debugf("Execute triggered order: orderID=%s, price=%s", orderID, triggerPrice);
+
+        List<Object[]> rows = entityManager.createQuery(
+            "SELECT o.orderType, o.limitPrice, o.quantity, o.orderFee, o.account.accountID " +
+            "FROM Order o WHERE o.orderID = :id", Object[].class)
+            .setParameter("id", orderID)
+            .getResultList();
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Order not found: " + orderID);
+        }
+        String orderType = (String) rows.get(0)[0];
+        BigDecimal limit = (BigDecimal) rows.get(0)[1];
+        double quantity = ((Number) rows.get(0)[2]).doubleValue();
+        BigDecimal orderFee = (BigDecimal) rows.get(0)[3];
+        Integer accountID = (Integer) rows.get(0)[4];
+
+        // Limit orders fill at their limit price, a stop at the price that triggered it
+        BigDecimal price = TradeConfig.STOP_SELL.equals(orderType)
+                ? triggerPrice.setScale(FinancialUtils.SCALE, FinancialUtils.ROUND)
+                : limit;
+        if (!orderRepository.claimForExecution(orderID, price)) {
+            throw new IllegalStateException("Order " + orderID + " is no longer open");
+        }
+
+        // Buys were paid for when placed; sells are credited now
+        if (TradeConfig.isSell(orderType)) {
+            BigDecimal total = Money.toBigDecimal(Money.value(quantity, Money.toCents(price)) - Money.toCents(orderFee));
+            if (ledger.isEnabled()) {
+                ledger.record(orderID, accountID, total);
+            } else {
+                accountRepository.credit(accountID, total);
+            }
+        }
+
+        LOG.infof("Triggered order executed: orderID=%s, type=%s, price=%s", orderID, orderType, price);
+        return completeOrder(orderID);
+    }
+
+    /**
+     * Submit several buy and sell orders for one user in a single transaction
+     * Per Phase 2: Feature Implementation - Core Trading Operations
+     *
+     * Every order is validated before anything is written: holdings being sold are
+     * claimed (locked) with one statement and all quotes are resolved with one query,
+     * sells are checked first so their proceeds fund the buys. Invalid orders are
+     * rejected individually; the accepted ones are written without intermediate flushes
+     * so the JDBC batch size applies, and the batch's net cost or proceeds are applied
+     * to the balance with one conditional update (or through the ledger).
+     */
+    @Transactional
+    public List<BatchOrderResultDTO> submitOrders(String userID, List<OrderRequestDTO> requests,
+                                                  int orderProcessingMode) {
+        LOG.debugf("Submit orders: user=%s, count=%s, mode=%s", userID, requests.size(), orderProcessingMode);
+
+        Integer accountID = credentialCache.cachedAccountID(userID)
+                .or(() -> accountRepository.findAccountIdByUserID(userID))
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userID));
+        Account account = entityManager.getReference(Account.class, accountID);
+
+        // Claim the holdings being sold, restricted to this account; a holding already sold,
+        // being sold or backing an open order is not claimed and its sell is rejected
+        Set<Integer> requestedHoldings = new HashSet<>();
+        for (OrderRequestDTO request : requests) {
+            if (request != null && "sell".equalsIgnoreCase(request.getOrderType()) && request.getHoldingID() != null) {
+                requestedHoldings.add(request.getHoldingID());
+            }
+        }
+        Map<Integer, Double> holdingQuantities = new HashMap<>();
+        Map<Integer, String> holdingSymbols = new HashMap<>();
+        holdingRepository.lockForSale(requestedHoldings, accountID).forEach((holdingID, claim) -> {
+            holdingQuantities.put(holdingID, claim.quantity());
+            holdingSymbols.put(holdingID, claim.symbol());
+        });
+
+        // Resolve every quote involved with one query
+        Set<String> symbols = new HashSet<>(holdingSymbols.values());
+        for (OrderRequestDTO request : requests) {
+            if (request != null && "buy".equalsIgnoreCase(request.getOrderType()) && request.getSymbol() != null) {
+                symbols.add(request.getSymbol());
+            }
+        }
+        Map<String, Quote> quotes = new HashMap<>();
+        if (!symbols.isEmpty()) {
+            for (Quote quote : quoteRepository.findBySymbols(List.copyOf(symbols))) {
+                quotes.put(quote.getSymbol().toUpperCase(Locale.ROOT), quote);
+            }
+        }
+
+        // Validate sells first so their proceeds are available to the buys
+        BatchOrderResultDTO[] results = new BatchOrderResultDTO[requests.size()];
+        long startBalance = Money.toCents(ledger.isEnabled()
+                ? ledger.balance(accountID)
+                : accountRepository.findBalance(accountID).orElse(BigDecimal.ZERO));
+        long balance = startBalance;
+        Set<Integer> selling = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequestDTO request = requests.get(i);
+            if (request == null) {
+                results[i] = BatchOrderResultDTO.rejected(i, "order is required");
+                continue;
+            }
+            if (!"sell".equalsIgnoreCase(request.getOrderType())) {
+                continue;
+            }
+            Integer holdingID = request.getHoldingID();
+            if (holdingID == null) {
+                results[i] = BatchOrderResultDTO.rejected(i, "holdingID is required");
+            } else if (!holdingQuantities.containsKey(holdingID)) {
+                ordersHoldingAlreadySold.increment();
+                results[i] = BatchOrderResultDTO.rejected(i, "Holding not found or already being sold: " + holdingID);
+            } else if (!selling.add(holdingID)) {
+                results[i] = BatchOrderResultDTO.rejected(i, "Holding sold more than once in batch: " + holdingID);
+            } else {
+                BigDecimal price = quotes.get(holdingSymbols.get(holdingID).toUpperCase(Locale.ROOT)).getPrice();
+                balance += Money.value(holdingQuantities.get(holdingID), Money.toCents(price))
+                        - Money.toCents(TradeConfig.getOrderFee("sell"));
+            }
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequestDTO request = requests.get(i);
+            if (request == null || "sell".equalsIgnoreCase(request.getOrderType())) {
+                continue;
+            }
+            if (!"buy".equalsIgnoreCase(request.getOrderType())) {
+                results[i] = BatchOrderResultDTO.rejected(i, "orderType must be buy or sell");
+                continue;
+            }
+            Quote quote = request.getSymbol() == null ? null : quotes.get(request.getSymbol().toUpperCase(Locale.ROOT));
+            if (request.getQuantity() <= 0) {
+                results[i] = BatchOrderResultDTO.rejected(i, "quantity must be greater than 0");
+            } else if (quote == null) {
+                results[i] = BatchOrderResultDTO.rejected(i, "Quote not found: " + request.getSymbol());
+            } else {
+                long total = Money.value(request.getQuantity(), Money.toCents(quote.getPrice()))
+                        + Money.toCents(TradeConfig.getOrderFee("buy"));
+                if (balance < total) {
+                    ordersInsufficientFunds.increment();
+                    results[i] = BatchOrderResultDTO.rejected(i, "Insufficient funds: balance="
+                            + Money.toBigDecimal(balance) + ", required=" + Money.toBigDecimal(total));
+                } else {
+                    balance -= total;
+                }
+            }
+        }
+
+        boolean synch = orderProcessingMode == TradeConfig.SYNCH;
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        // Sold holdings: removed now when synchronous, otherwise marked in-flight for the order processor
+        if (!selling.isEmpty()) {
+            if (synch) {
+                entityManager.createQuery("UPDATE Order o SET o.holding = null WHERE o.holding.holdingID IN :ids")
+                        .setParameter("ids", selling)
+                        .executeUpdate();
+                entityManager.createQuery("DELETE FROM Holding h WHERE h.holdingID IN :ids")
+                        .setParameter("ids", selling)
+                        .executeUpdate();
+                for (Integer holdingID : selling) {
+                    portfolioAggregates.holdingRemoved(accountID, holdingID);
+                }
+            } else {
+                entityManager.createQuery("UPDATE Holding h SET h.purchaseDate = :inFlight WHERE h.holdingID IN :ids")
+                        .setParameter("inFlight", HoldingRepository.SALE_IN_FLIGHT)
+                        .setParameter("ids", selling)
+                        .executeUpdate();
+            }
+        }
+
+        // The net cost of the batch is taken before anything is written, as a conditional
+        // debit of whatever the balance is now; net proceeds are credited the same way
+        BigDecimal net = Money.toBigDecimal(balance - startBalance);
+        if (net.signum() < 0) {
+            boolean funded = ledger.isEnabled()
+                    ? ledger.reserve(accountID, net.negate())
+                    : accountRepository.debitIfCovered(accountID, net.negate());
+            if (!funded) {
+                ordersInsufficientFunds.increment();
+                throw new IllegalArgumentException("Insufficient funds: balance changed while the batch was validated");
+            }
+        } else if (net.signum() > 0 && !ledger.isEnabled()) {
+            accountRepository.credit(accountID, net);
+        }
+
+        // Write the accepted orders (and holdings for synchronous buys) with a single flush at commit
+        Integer firstOrderID = null;
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            OrderRequestDTO request = requests.get(i);
+            boolean buy = "buy".equalsIgnoreCase(request.getOrderType());
+            String orderType = buy ? "buy" : "sell";
+            Quote quote = buy
+                    ? quotes.get(request.getSymbol().toUpperCase(Locale.ROOT))
+                    : quotes.get(holdingSymbols.get(request.getHoldingID()).toUpperCase(Locale.ROOT));
+            double quantity = buy ? request.getQuantity() : holdingQuantities.get(request.getHoldingID());
+            BigDecimal price = quote.getPrice().setScale(FinancialUtils.SCALE, FinancialUtils.ROUND);
+
+            Holding holding = null;
+            if (buy && synch) {
+                holding = new Holding(quantity, price, now, account, quote);
+                holdingRepository.persist(holding);
+                portfolioAggregates.holdingAdded(accountID, holding.getHoldingID(),
+                                                 quote.getSymbol(), quantity, price);
+            } else if (!buy && !synch) {
+                holding = entityManager.getReference(Holding.class, request.getHoldingID());
+            }
+
+            Order order = new Order(orderType, synch ? "closed" : "open", now, synch ? now : null,
+                                    quantity, price, TradeConfig.getOrderFee(orderType), account, quote, holding);
+            orderRepository.persist(order);
+            if (firstOrderID == null) {
+                firstOrderID = order.getOrderID();
+            }
+            if (!synch) {
+                orderProcessor.submitOnCommit(order.getOrderID());
+            }
+            results[i] = BatchOrderResultDTO.accepted(i, new OrderDTO(order));
+        }
+
+        if (ledger.isEnabled() && firstOrderID != null && net.signum() != 0) {
+            // One journal record for the whole batch; it commits with the batch's orders
+            ledger.record(firstOrderID, accountID, net);
+        }
+        if (synch) {
+            long closed = Arrays.stream(results).filter(BatchOrderResultDTO::isSuccess).count();
+            transactionCallbacks.afterCommit(() -> ordersClosed.increment(closed));
+        }
+
+        LOG.infof("Batch submitted: user=%s, orders=%s, accepted=%s", userID, requests.size(),
+                 Arrays.stream(results).filter(BatchOrderResultDTO::isSuccess).count());
+        return Arrays.asList(results);
+    }
+
     /**
      * Complete an order - creates holding for buy, removes holding for sell
      * Per Phase 2: Feature Implementation - Core Trading Operations
      */
+    @Timed(value = "daytrader.trade.operation", extraTags = {"operation", "completeOrder"}, histogram = true)
     @Transactional
     public OrderDTO completeOrder(Integer orderID) {
         LOG.debugf("Complete order: orderID=%s", orderID);
@@ -412,7 +823,7 @@ public class TradeService {
             throw new IllegalStateException("Order already completed: " + orderID);
         }
 
-        if ("buy".equalsIgnoreCase(orderType)) {
+        if (TradeConfig.isBuy(orderType)) {
             // For buy orders, load full entities since we need to create new holding
             entityManager.clear();
             Order order = orderRepository.findByIdWithDetails(orderID)
@@ -423,16 +834,18 @@ public class TradeService {
             // Create new holding for buy order
             Holding newHolding = createHolding(account, quote, quantity, price);
             order.setHolding(newHolding);
+            portfolioAggregates.holdingAdded(accountId, newHolding.getHoldingID(), symbol, quantity, price);
 
             // Mark order as closed
             order.setOrderStatus("closed");
             order.setCompletionDate(new Timestamp(System.currentTimeMillis()));
             orderRepository.persist(order);
+            transactionCallbacks.afterCommit(ordersClosed::increment);
 
             LOG.infof("Order completed: orderID=%s, type=%s", orderID, orderType);
             return new OrderDTO(order);
 
-        } else if ("sell".equalsIgnoreCase(orderType)) {
+        } else if (TradeConfig.isSell(orderType)) {
             // For sell orders, use native SQL to avoid entity graph issues
             if (holdingId == null) {
                 // Mark order as cancelled via native SQL
@@ -441,6 +854,7 @@ public class TradeService {
                     .setParameter(1, new Timestamp(System.currentTimeMillis()))
                     .setParameter(2, orderID)
                     .executeUpdate();
+                ordersHoldingAlreadySold.increment();
                 throw new IllegalStateException("Unable to sell order " + orderID + " - holding already sold");
             }
 
@@ -456,6 +870,8 @@ public class TradeService {
                 .setParameter(1, holdingId)
                 .executeUpdate();
 
+            portfolioAggregates.holdingRemoved(accountId, holdingId);
+
             // Mark order as closed via native SQL
             entityManager.createNativeQuery(
                 "UPDATE orderejb SET ORDERSTATUS = 'closed', COMPLETIONDATE = ?1 WHERE ORDERID = ?2")
@@ -463,6 +879,8 @@ public class TradeService {
                 .setParameter(2, orderID)
                 .executeUpdate();
 
+            transactionCallbacks.afterCommit(ordersClosed::increment);
+
             LOG.infof("Order completed: orderID=%s, type=%s", orderID, orderType);
 
             // Return a minimal DTO for sell orders
@@ -482,6 +900,8 @@ public class TradeService {
     /**
      * Cancel an order
      * Per Phase 2: Feature Implementation - Core Trading Operations
+     *
+     * A resting limit or stop order is taken off the trigger book and returns what it reserved.
      */
     @Transactional
     public void cancelOrder(Integer orderID) {
@@ -490,13 +910,70 @@ public class TradeService {
         Order order = orderRepository.findByIdWithDetails(orderID)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderID));
 
+        if (TradeConfig.isTriggered(order.getOrderType()) && "open".equals(order.getOrderStatus())) {
+            cancelTriggeredOrder(order);
+            return;
+        }
+
         order.setOrderStatus("cancelled");
         order.setCompletionDate(new Timestamp(System.currentTimeMillis()));
         orderRepository.persist(order);
+        transactionCallbacks.afterCommit(ordersCancelled::increment);
 
         LOG.infof("Order cancelled: orderID=%s", orderID);
     }
 
+    /**
+     * Cancel a triggered limit or stop order whose execution failed and was rolled back,
+     * returning what it reserved. The order is no longer in the trigger book, so left open
+     * it would never trigger again.
+     *
+     * @return false if the order is no longer open
+     */
+    @Transactional
+    public boolean cancelFailedTriggeredOrder(Integer orderID) {
+        Optional<Order> order = orderRepository.findByIdWithDetails(orderID);
+        if (order.isEmpty() || !TradeConfig.isTriggered(order.get().getOrderType())
+                || !"open".equals(order.get().getOrderStatus())) {
+            return false;
+        }
+        cancelTriggeredOrder(order.get());
+        return true;
+    }
+
+    /**
+     * Cancel an asynchronous buy or sell whose completion failed for good, returning what it
+     * took when it was placed: the cost debited by a buy, or the proceeds credited by a sell
+     * and the holding it claimed
+     *
+     * @return false if the order is no longer open
+     */
+    @Transactional
+    public boolean cancelFailedOrder(Integer orderID) {
+        Optional<Order> found = orderRepository.findByIdWithDetails(orderID);
+        if (found.isEmpty() || TradeConfig.isTriggered(found.get().getOrderType())
+                || !orderRepository.cancelIfOpen(orderID, new Timestamp(System.currentTimeMillis()))) {
+            return false;
+        }
+        Order order = found.get();
+        Integer accountID = order.getAccount().getAccountID();
+        long value = Money.value(order.getQuantity(), Money.toCents(order.getPrice()));
+        long fee = Money.toCents(order.getOrderFee());
+        BigDecimal refund = Money.toBigDecimal(TradeConfig.isBuy(order.getOrderType()) ? value + fee : fee - value);
+        if (ledger.isEnabled()) {
+            ledger.record(orderID, accountID, refund);
+        } else {
+            accountRepository.credit(accountID, refund);
+        }
+        if (TradeConfig.isSell(order.getOrderType()) && order.getHolding() != null) {
+            holdingRepository.releaseSale(order.getHolding().getHoldingID());
+        }
+        transactionCallbacks.afterCommit(ordersCancelled::increment);
+
+        LOG.infof("Order cancelled after failed completion: orderID=%s, type=%s", orderID, order.getOrderType());
+        return true;
+    }
+
     /**
      * Get user's orders
      * Per Phase 2: Feature Implementation - Core Trading Operations
@@ -504,12 +981,35 @@ public class TradeService {
     public List<OrderDTO> getOrders(String userID) {
         LOG.debugf("Get orders for user: %s", userID);
 
-        Account account = accountRepository.findByProfileUserID(userID)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found for user: " + userID));
+        return orderRepository.findDtosByAccountId(getAccountID(userID));
+    }
 
-        return orderRepository.findByAccountId(account.getAccountID()).stream()
-                .map(OrderDTO::new)
-                .collect(Collectors.toList());
+    /**
+     * Get one page of a user's orders, newest first
+     * The page starts after the cursor, or at the newest order when the cursor is null.
+     */
+    public OrderPageDTO getOrdersPage(String userID, OrderCursor cursor, int limit) {
+        LOG.debugf("Get orders page for user: %s", userID);
+
+        // One extra row tells whether another page follows
+        return OrderPageDTO.of(orderRepository.findDtoPageByAccountId(getAccountID(userID), cursor, limit + 1), limit);
+    }
+
+    /**
+     * Pass every order of an account to the handler, newest first, without holding
+     * the order history in memory
+     */
+    public void forEachOrder(Integer accountID, int fetchSize, OrderRepository.OrderHandler handler)
+            throws SQLException, IOException {
+        orderRepository.forEachByAccountId(accountID, fetchSize, handler);
+    }
+
+    /**
+     * Get the account ID of a user
+     */
+    public Integer getAccountID(String userID) {
+        return accountRepository.findAccountIdByUserID(userID)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found for user: " + userID));
     }
 
     /**
@@ -520,29 +1020,19 @@ public class TradeService {
     public List<OrderDTO> getClosedOrders(String userID) {
         LOG.debugf("Get closed orders for user: %s", userID);
 
-        List<Order> closedOrders = orderRepository.findClosedOrdersByUserId(userID);
-
-        // Mark closed orders as completed
-        orderRepository.completeClosedOrders(userID);
-
-        return closedOrders.stream()
-                .map(OrderDTO::new)
-                .collect(Collectors.toList());
+        // Read and mark closed orders as completed in one round trip, keyed by account
+        return orderRepository.completeClosedOrders(getAccountID(userID));
     }
 
     /**
      * Get user's portfolio holdings
      * Per Phase 2: Feature Implementation - Core Trading Operations
      */
+    @Timed(value = "daytrader.trade.operation", extraTags = {"operation", "getHoldings"}, histogram = true)
     public List<HoldingDTO> getHoldings(String userID) {
         LOG.debugf("Get holdings for user: %s", userID);
 
-        Account account = accountRepository.findByProfileUserID(userID)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found for user: " + userID));
-
-        return holdingRepository.findByAccountIdWithQuote(account.getAccountID()).stream()
-                .map(HoldingDTO::new)
-                .collect(Collectors.toList());
+        return holdingRepository.findDtosByAccountId(getAccountID(userID));
     }
 
     /**
@@ -552,42 +1042,51 @@ public class TradeService {
     public HoldingDTO getHolding(Integer holdingID) {
         LOG.debugf("Get holding: holdingID=%s", holdingID);
 
-        Holding holding = holdingRepository.findByIdWithQuote(holdingID)
+        return holdingRepository.findDtoById(holdingID)
                 .orElseThrow(() -> new IllegalArgumentException("Holding not found: " + holdingID));
-
-        return new HoldingDTO(holding);
     }
 
     /**
      * Get portfolio summary for a user
      * Calculates total holdings value, gains, and other portfolio statistics
      */
+    @Timed(value = "daytrader.trade.operation", extraTags = {"operation", "getPortfolioSummary"}, histogram = true)
     public PortfolioSummaryDTO getPortfolioSummary(String userID) {
         LOG.debugf("Get portfolio summary for user: %s", userID);
 
-        Account account = accountRepository.findByProfileUserID(userID)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found for user: " + userID));
-
-        // Get all holdings with current prices
-        List<Holding> holdings = holdingRepository.findByAccountIdWithQuote(account.getAccountID());
-
-        // Calculate total holdings value
-        BigDecimal holdingsValue = BigDecimal.ZERO;
-        for (Holding holding : holdings) {
-            if (holding.getQuote() != null && holding.getQuote().getPrice() != null) {
-                BigDecimal marketValue = holding.getQuote().getPrice()
-                        .multiply(new BigDecimal(holding.getQuantity()));
-                holdingsValue = holdingsValue.add(marketValue);
+        // Read only the account columns the summary needs
+        List<Object[]> accounts = entityManager.createQuery(
+            "SELECT a.accountID, a.balance, a.openBalance FROM Account a WHERE a.profile.userID = :userID",
+            Object[].class)
+            .setParameter("userID", userID)
+            .getResultList();
+        if (accounts.isEmpty()) {
+            throw new IllegalArgumentException("Account not found for user: " + userID);
+        }
+        Object[] account = accounts.get(0);
+
+        // Value the pre-aggregated positions at current (cached) prices, in cents
+        long holdingsValue = 0;
+        long costBasis = 0;
+        int numberOfHoldings = 0;
+        for (PortfolioAggregateCache.Position position : portfolioAggregates.getPositions((Integer) account[0])) {
+            numberOfHoldings += position.getHoldingCount();
+            costBasis += position.getCostBasisCents();
+            Optional<QuoteDTO> quote = quoteCache.get(position.getSymbol());
+            if (quote.isPresent() && quote.get().getPrice() != null) {
+                holdingsValue += Money.multiply(Money.toCents(quote.get().getPrice()), position.getQuantityUnits());
             }
         }
 
-        return new PortfolioSummaryDTO(
-                account.getAccountID(),
-                account.getBalance(),
-                account.getOpenBalance(),
-                holdingsValue,
-                holdings.size()
+        PortfolioSummaryDTO summary = new PortfolioSummaryDTO(
+                (Integer) account[0],
+                ledger.currentBalance((Integer) account[0]).orElse((BigDecimal) account[1]),
+                (BigDecimal) account[2],
+                Money.toBigDecimal(holdingsValue),
+                numberOfHoldings
         );
+        summary.setCostBasis(Money.toBigDecimal(costBasis));
+        return summary;
     }
 
     /**
@@ -621,6 +1120,7 @@ public class TradeService {
         profile.setEmail(profileData.getEmail());
 
         accountProfileRepository.persist(profile);
+        credentialCache.invalidate(profile.getUserID());
 
         LOG.infof("Profile updated: userID=%s", profileData.getUserID());
         return new AccountProfileDTO(profile);
@@ -655,7 +1155,7 @@ public class TradeService {
         quoteRepository.persist(quote);
 
         LOG.debugf("Quote updated: symbol=%s, oldPrice=%s, newPrice=%s", symbol, oldPrice, newPrice);
-        return new QuoteDTO(quote);
+        return quoteChanged(quote);
     }
 
     /**
@@ -668,37 +1168,40 @@ public class TradeService {
     }
 
     /**
-     * Helper method to create an order
+     * Helper method to cancel a resting limit or stop order, returning what it reserved:
+     * the cost debited by a limit buy, or the holding claimed by a sell
      */
-    private Order createOrder(Account account, Quote quote, Holding holding, String orderType, double quantity) {
-        LOG.debugf("Create order: account=%s, symbol=%s, type=%s, quantity=%s",
-                  account.getAccountID(), quote.getSymbol(), orderType, quantity);
-
-        BigDecimal price = quote.getPrice().setScale(FinancialUtils.SCALE, FinancialUtils.ROUND);
-        BigDecimal orderFee = TradeConfig.getOrderFee(orderType);
-
-        // Ensure holding reference is properly managed in the persistence context
-        // Use getReference to get a proxy without loading, avoiding transient entity issues
-        Holding managedHolding = null;
-        if (holding != null && holding.getHoldingID() != null) {
-            managedHolding = entityManager.getReference(Holding.class, holding.getHoldingID());
+    private void cancelTriggeredOrder(Order order) {
+        Integer orderID = order.getOrderID();
+        if (!orderRepository.cancelIfOpen(orderID, new Timestamp(System.currentTimeMillis()))) {
+            throw new IllegalStateException("Order " + orderID + " is no longer open");
+        }
+        transactionCallbacks.afterCommit(() -> triggerBook.remove(orderID));
+
+        Integer accountID = order.getAccount().getAccountID();
+        if (TradeConfig.isBuy(order.getOrderType())) {
+            BigDecimal total = Money.toBigDecimal(Money.value(order.getQuantity(), Money.toCents(order.getLimitPrice()))
+                    + Money.toCents(order.getOrderFee()));
+            if (ledger.isEnabled()) {
+                ledger.record(orderID, accountID, total);
+            } else {
+                accountRepository.credit(accountID, total);
+            }
+        } else if (order.getHolding() != null) {
+            holdingRepository.releaseSale(order.getHolding().getHoldingID());
         }
+        transactionCallbacks.afterCommit(ordersCancelled::increment);
 
-        Order order = new Order(
-            orderType,
-            "open",
-            new Timestamp(System.currentTimeMillis()),
-            null,
-            quantity,
-            price,
-            orderFee,
-            account,
-            quote,
-            managedHolding
-        );
+        LOG.infof("Order cancelled: orderID=%s, type=%s", orderID, order.getOrderType());
+    }
 
-        orderRepository.persist(order);
-        return order;
+    /**
+     * Helper method to publish a quote change to the cache and other observers
+     */
+    private QuoteDTO quoteChanged(Quote quote) {
+        QuoteDTO quoteData = new QuoteDTO(quote);
+        quoteChangedEvent.fire(new QuoteChangedEvent(quoteData));
+        return quoteData;
     }
 
     /**
@@ -716,8 +1219,7 @@ public class TradeService {
             quote
         );
 
-        holdingRepository.persist(holding);
-        holdingRepository.flush(); // Ensure holding is persisted before referencing in order
+        holdingRepository.persist(holding); // ID assigned from the sequence block; inserted at flush
         return holding;
     }
 }
@@ -0,0 +1,77 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import java.util.function.Consumer;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Registers work to run once the current JTA transaction has finished.
+ *
+ * Used for side effects that must only become visible after the database
+ * changes they describe are committed (queueing, in-memory caches).
+ * When no transaction is active the callback runs immediately.
+ */
+@ApplicationScoped
+public class TransactionCallbacks {
+
+    @Inject
+    TransactionSynchronizationRegistry synchronizationRegistry;
+
+    /**
+     * Run the callback after the current transaction completes.
+     * The callback receives {@code true} if the transaction committed.
+     */
+    public void afterCompletion(Consumer<Boolean> callback) {
+        if (!isTransactionActive()) {
+            callback.accept(Boolean.TRUE);
+            return;
+        }
+        synchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == Status.STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Run the action only if the current transaction commits
+     */
+    public void afterCommit(Runnable action) {
+        afterCompletion(committed -> {
+            if (committed) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Whether the calling thread is associated with an active transaction
+     */
+    public boolean isTransactionActive() {
+        return synchronizationRegistry.getTransactionKey() != null;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money and share quantity arithmetic on primitive longs
+ *
+ * Money is held in cents (scale {@link FinancialUtils#SCALE}) and quantities in
+ * units of 10^-scale shares, {@link #QUANTITY_SCALE} unless a scale is given.
+ * Products and quotients are rounded with {@link FinancialUtils#ROUND}, so every
+ * result equals the BigDecimal computation on the same decimal values rounded to
+ * cents, without allocating. Values are converted from and to BigDecimal only
+ * where they enter or leave the application (entities, DTOs and JSON).
+ */
+public final class Money {
+
+    /**
+     * Default number of decimal places kept for share quantities
+     */
+    public static final int QUANTITY_SCALE = 6;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    // Below this magnitude a scaled double is within 1e-3 of the scaled decimal value
+    private static final double EXACT_LIMIT = 1e12;
+    private static final double HALF_MARGIN = 1e-3;
+
+    private Money() {
+    }
+
+    /**
+     * Amount in cents, rounded to {@link FinancialUtils#SCALE}
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(FinancialUtils.SCALE, FinancialUtils.ROUND).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Amount of a number of cents, at {@link FinancialUtils#SCALE}
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, FinancialUtils.SCALE);
+    }
+
+    /**
+     * Quantity in units of {@link #QUANTITY_SCALE}
+     */
+    public static long toUnits(double quantity) {
+        return toUnits(quantity, QUANTITY_SCALE);
+    }
+
+    /**
+     * Quantity in units of 10^-scale shares, rounding its decimal value
+     * (as printed by Double.toString) with {@link FinancialUtils#ROUND}
+     */
+    public static long toUnits(double quantity, int scale) {
+        double scaled = quantity * POWERS_OF_TEN[scale];
+        long rounded = Math.round(scaled);
+        // Math.round only differs from HALF_UP on the decimal value next to a tie
+        if (Math.abs(scaled) < EXACT_LIMIT && Math.abs(Math.abs(scaled - rounded) - 0.5) > HALF_MARGIN) {
+            return rounded;
+        }
+        return BigDecimal.valueOf(quantity).setScale(scale, FinancialUtils.ROUND).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Value in cents of a quantity in units of {@link #QUANTITY_SCALE} at a price in cents
+     */
+    public static long multiply(long cents, long units) {
+        return multiply(cents, units, QUANTITY_SCALE);
+    }
+
+    /**
+     * Value in cents of a quantity in units of 10^-scale shares at a price in cents
+     */
+    public static long multiply(long cents, long units, int scale) {
+        long high = Math.multiplyHigh(cents, units);
+        long low = cents * units;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divide(low, POWERS_OF_TEN[scale]);
+        }
+        return BigDecimal.valueOf(cents).multiply(BigDecimal.valueOf(units))
+                .divide(BigDecimal.valueOf(POWERS_OF_TEN[scale]), 0, FinancialUtils.ROUND)
+                .longValueExact();
+    }
+
+    /**
+     * Value in cents of a share quantity at a price in cents
+     */
+    public static long value(double quantity, long priceCents) {
+        return multiply(priceCents, toUnits(quantity));
+    }
+
+    /**
+     * Quotient rounded with {@link FinancialUtils#ROUND}, e.g. the average of a sum of cents
+     */
+    public static long divide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position in a user's order history, newest first
+ *
+ * Orders are paged by keyset on (openDate, orderID) rather than by offset, so each
+ * page is an index range scan regardless of how deep into the history it is. The
+ * cursor is passed to clients as an opaque URL-safe token.
+ */
+public final class OrderCursor {
+
+    private final Instant openDate;
+    private final int orderID;
+
+    public OrderCursor(Instant openDate, int orderID) {
+        this.openDate = openDate;
+        this.orderID = orderID;
+    }
+
+    /**
+     * Cursor positioned after the given order
+     */
+    public static OrderCursor after(Date openDate, Integer orderID) {
+        // Timestamp.toInstant keeps sub-millisecond precision so no row is skipped
+        Instant instant = openDate instanceof Timestamp ? ((Timestamp) openDate).toInstant() : openDate.toInstant();
+        return new OrderCursor(instant, orderID);
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}, or null for a missing token
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static OrderCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('/');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new OrderCursor(Instant.parse(value.substring(0, separator)),
+                    Integer.parseInt(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String value = openDate + "/" + orderID;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Open date as a JDBC timestamp in the JVM time zone, matching how order dates are written
+     */
+    public Timestamp getOpenDate() {
+        return Timestamp.from(openDate);
+    }
+
+    public int getOrderID() {
+        return orderID;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.util;
+
+import java.util.Locale;
+
+/**
+ * Stock symbol utility methods
+ *
+ * Symbols are stored in canonical form (trimmed, upper case) so lookups can
+ * use the quoteejb primary key directly instead of a case-insensitive scan.
+ */
+public class SymbolUtils {
+
+    private SymbolUtils() {
+    }
+
+    /**
+     * Canonical form of a symbol, or null for null
+     */
+    public static String normalize(String symbol) {
+        return symbol == null ? null : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -28,6 +28,11 @@ public class TradeConfig {
     public static final int ASYNCH_2PHASE = 1;
     public static final int ASYNCH_MANAGEDTHREAD = 2;
 
+    // Order types resting in the OrderTriggerBook until the quote price crosses their limit price
+    public static final String LIMIT_BUY = "limitbuy";   // buy once the price falls to the limit
+    public static final String LIMIT_SELL = "limitsell"; // sell once the price rises to the limit
+    public static final String STOP_SELL = "stopsell";   // stop-loss: sell once the price falls to the stop
+
     // Default order fee
     private static final BigDecimal ORDER_FEE = new BigDecimal("24.95");
     private static final BigDecimal CASH_FEE = new BigDecimal("0.00");
@@ -38,14 +43,60 @@ public class TradeConfig {
     public static final BigDecimal MAXIMUM_STOCK_PRICE = new BigDecimal("400.00");
     public static final BigDecimal MAXIMUM_STOCK_SPLIT_MULTIPLIER = new BigDecimal("0.5");
 
+    /**
+     * Resolve an order processing mode from its configured name.
+     * Accepts the legacy names (Sync, Async, Async_2-Phase) case-insensitively.
+     */
+    public static int getOrderProcessingMode(String name) {
+        String mode = name == null ? "" : name.trim().toLowerCase().replace('-', '_');
+        switch (mode) {
+            case "sync":
+            case "synch":
+                return SYNCH;
+            case "async":
+            case "asynch":
+            case "asynch_managedthread":
+                return ASYNCH_MANAGEDTHREAD;
+            case "async_2phase":
+            case "async_2_phase":
+            case "asynch_2phase":
+                return ASYNCH_2PHASE;
+            default:
+                throw new IllegalArgumentException("Unknown order processing mode: " + name);
+        }
+    }
+
     /**
      * Get order fee based on order type
      */
     public static BigDecimal getOrderFee(String orderType) {
-        if ("buy".equalsIgnoreCase(orderType) || "sell".equalsIgnoreCase(orderType)) {
+        if (isBuy(orderType) || isSell(orderType)) {
             return ORDER_FEE;
         }
         return CASH_FEE;
     }
+
+    /**
+     * Market or limit buy
+     */
+    public static boolean isBuy(String orderType) {
+        return "buy".equalsIgnoreCase(orderType) || LIMIT_BUY.equalsIgnoreCase(orderType);
+    }
+
+    /**
+     * Market, limit or stop sell
+     */
+    public static boolean isSell(String orderType) {
+        return "sell".equalsIgnoreCase(orderType) || LIMIT_SELL.equalsIgnoreCase(orderType)
+                || STOP_SELL.equalsIgnoreCase(orderType);
+    }
+
+    /**
+     * Limit or stop order, executed when the quote price crosses its limit price
+     */
+    public static boolean isTriggered(String orderType) {
+        return LIMIT_BUY.equalsIgnoreCase(orderType) || LIMIT_SELL.equalsIgnoreCase(orderType)
+                || STOP_SELL.equalsIgnoreCase(orderType);
+    }
 }
 
@@ -0,0 +1,7 @@
+-- Optional expression index for case-insensitive symbol lookups
+-- Only needed with daytrader.symbols.legacy-lookup=true, when mixed-case symbols
+-- are written to quoteejb outside the application. Enable by adding this location:
+-- quarkus.flyway.locations=db/migration,db/legacy-symbols
+-- Built CONCURRENTLY, outside a transaction (R__quote_symbol_upper_index.sql.conf).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS quoteejb_upper_symbol_idx ON quoteejb (UPPER(SYMBOL));
@@ -0,0 +1,19 @@
+-- Normalize quote symbols to canonical upper case
+-- Symbols are looked up by primary key on their upper-case form, so mixed-case
+-- rows written by older releases would no longer be found. Each mixed-case
+-- symbol is merged into its upper-case row: the row is created when missing,
+-- holdings and orders are repointed to it, and the mixed-case row is removed.
+
+INSERT INTO quoteejb (SYMBOL, COMPANYNAME, VOLUME, PRICE, OPEN1, LOW, HIGH, CHANGE1)
+SELECT DISTINCT ON (UPPER(q.SYMBOL))
+       UPPER(q.SYMBOL), q.COMPANYNAME, q.VOLUME, q.PRICE, q.OPEN1, q.LOW, q.HIGH, q.CHANGE1
+FROM quoteejb q
+WHERE q.SYMBOL <> UPPER(q.SYMBOL)
+  AND NOT EXISTS (SELECT 1 FROM quoteejb c WHERE c.SYMBOL = UPPER(q.SYMBOL))
+ORDER BY UPPER(q.SYMBOL), q.SYMBOL;
+
+UPDATE holdingejb SET QUOTE_SYMBOL = UPPER(QUOTE_SYMBOL) WHERE QUOTE_SYMBOL <> UPPER(QUOTE_SYMBOL);
+
+UPDATE orderejb SET QUOTE_SYMBOL = UPPER(QUOTE_SYMBOL) WHERE QUOTE_SYMBOL <> UPPER(QUOTE_SYMBOL);
+
+DELETE FROM quoteejb WHERE SYMBOL <> UPPER(SYMBOL);
@@ -0,0 +1,9 @@
+-- Index for order history keyset pagination
+-- GET /api/v1/orders reads an account's orders newest first and continues after
+-- the last (OPENDATE, ORDERID) returned, so each page is a short range scan of
+-- this index instead of a sort of the account's whole history.
+-- Built CONCURRENTLY, outside a transaction (V1_2__order_history_keyset_index.sql.conf),
+-- so orders can still be written meanwhile; see V1_4 for recovering a failed build.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS orderejb_account_history_idx
+    ON orderejb (ACCOUNT_ACCOUNTID, OPENDATE DESC, ORDERID DESC);
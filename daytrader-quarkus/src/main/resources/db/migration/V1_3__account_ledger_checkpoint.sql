@@ -0,0 +1,8 @@
+-- Checkpoint for the account balance ledger (daytrader.ledger.enabled)
+-- Holds the highest journal sequence already applied to accountejb; written in
+-- the same transaction as the balance updates it covers.
+
+CREATE TABLE IF NOT EXISTS ledgercheckpointejb (
+    CHECKPOINTID INTEGER NOT NULL PRIMARY KEY,
+    FLUSHEDSEQUENCE BIGINT NOT NULL
+);
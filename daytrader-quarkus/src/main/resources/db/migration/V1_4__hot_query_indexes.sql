@@ -0,0 +1,27 @@
+-- Indexes for the hot repository queries
+-- Order history by account is served by orderejb_account_history_idx (V1_2).
+-- Orders are only looked up by status while open or closed, so that index is
+-- partial and stays small however many completed orders accumulate.
+-- quoteejb_change_idx serves the top gainers (scanned backwards) and losers.
+--
+-- The indexes are built CONCURRENTLY so trading continues while they are built,
+-- which cannot run in a transaction (V1_4__hot_query_indexes.sql.conf). A build
+-- that fails leaves an INVALID index behind that IF NOT EXISTS would keep: drop
+-- it before repairing and rerunning the migration. Statistics are left to
+-- autovacuum, as ANALYZE would hold the migration until every table is sampled.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS orderejb_pending_status_idx
+    ON orderejb (ORDERSTATUS, ACCOUNT_ACCOUNTID)
+    WHERE ORDERSTATUS IN ('open', 'closed');
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS orderejb_holding_idx
+    ON orderejb (HOLDING_HOLDINGID);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS holdingejb_account_idx
+    ON holdingejb (ACCOUNT_ACCOUNTID);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS accountejb_profile_idx
+    ON accountejb (PROFILE_USERID);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS quoteejb_change_idx
+    ON quoteejb (CHANGE1);
@@ -0,0 +1,20 @@
+-- Pooled sequence IDs for accounts, holdings and orders (replaces IDENTITY columns)
+-- Hibernate reserves ${id_block_size} IDs per sequence value (IdBlocks.SIZE) and hands
+-- out the block ending at that value, so each sequence restarts one block above the
+-- highest existing ID. The columns default to the sequence for SQL inserts that omit
+-- the ID; each such insert takes the top of a block of its own.
+
+CREATE SEQUENCE IF NOT EXISTS accountejb_seq INCREMENT BY ${id_block_size} OWNED BY accountejb.ACCOUNTID;
+SELECT setval('accountejb_seq', COALESCE(MAX(ACCOUNTID), 0) + ${id_block_size}, false) FROM accountejb;
+ALTER TABLE accountejb ALTER COLUMN ACCOUNTID DROP IDENTITY IF EXISTS;
+ALTER TABLE accountejb ALTER COLUMN ACCOUNTID SET DEFAULT nextval('accountejb_seq');
+
+CREATE SEQUENCE IF NOT EXISTS holdingejb_seq INCREMENT BY ${id_block_size} OWNED BY holdingejb.HOLDINGID;
+SELECT setval('holdingejb_seq', COALESCE(MAX(HOLDINGID), 0) + ${id_block_size}, false) FROM holdingejb;
+ALTER TABLE holdingejb ALTER COLUMN HOLDINGID DROP IDENTITY IF EXISTS;
+ALTER TABLE holdingejb ALTER COLUMN HOLDINGID SET DEFAULT nextval('holdingejb_seq');
+
+CREATE SEQUENCE IF NOT EXISTS orderejb_seq INCREMENT BY ${id_block_size} OWNED BY orderejb.ORDERID;
+SELECT setval('orderejb_seq', COALESCE(MAX(ORDERID), 0) + ${id_block_size}, false) FROM orderejb;
+ALTER TABLE orderejb ALTER COLUMN ORDERID DROP IDENTITY IF EXISTS;
+ALTER TABLE orderejb ALTER COLUMN ORDERID SET DEFAULT nextval('orderejb_seq');
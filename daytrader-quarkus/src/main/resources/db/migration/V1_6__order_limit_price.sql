@@ -0,0 +1,6 @@
+-- Limit and stop orders (ORDERTYPE limitbuy, limitsell, stopsell)
+-- LIMITPRICE holds the price at which a resting order executes. Open orders with a
+-- limit price are loaded into the in-memory trigger book at startup; that scan is
+-- served by orderejb_pending_status_idx (V1_4).
+
+ALTER TABLE orderejb ADD COLUMN IF NOT EXISTS LIMITPRICE DECIMAL(14, 2);
@@ -0,0 +1,8 @@
+-- Commit markers for the account balance ledger (daytrader.ledger.enabled)
+-- One row per journal record, inserted in the transaction that made the balance change;
+-- recovery replays only journal records whose marker exists. Rows at or below the
+-- checkpoint are deleted together with the checkpoint update.
+
+CREATE TABLE IF NOT EXISTS ledgercommitejb (
+    JOURNALSEQUENCE BIGINT NOT NULL PRIMARY KEY
+);
@@ -0,0 +1,59 @@
+-- DayTrader schema as created by earlier releases
+-- Existing databases already have these tables and are baselined at version 1
+-- (quarkus.flyway.baseline-on-migrate), so this script only runs on an empty
+-- database. Later migrations bring both to the current schema: ID sequences are
+-- added by V1_5 and indexes by V1_2 and V1_4.
+
+CREATE TABLE IF NOT EXISTS accountprofileejb (
+    USERID VARCHAR(250) NOT NULL PRIMARY KEY,
+    PASSWD VARCHAR(250),
+    FULLNAME VARCHAR(250),
+    ADDRESS VARCHAR(250),
+    EMAIL VARCHAR(250),
+    CREDITCARD VARCHAR(250)
+);
+
+CREATE TABLE IF NOT EXISTS accountejb (
+    ACCOUNTID INTEGER NOT NULL PRIMARY KEY,
+    LOGINCOUNT INTEGER NOT NULL,
+    LOGOUTCOUNT INTEGER NOT NULL,
+    LASTLOGIN TIMESTAMP,
+    CREATIONDATE TIMESTAMP,
+    BALANCE DECIMAL(14, 2),
+    OPENBALANCE DECIMAL(14, 2),
+    PROFILE_USERID VARCHAR(250)
+);
+
+CREATE TABLE IF NOT EXISTS quoteejb (
+    SYMBOL VARCHAR(250) NOT NULL PRIMARY KEY,
+    COMPANYNAME VARCHAR(250),
+    VOLUME DOUBLE PRECISION NOT NULL,
+    PRICE DECIMAL(14, 2),
+    OPEN1 DECIMAL(14, 2),
+    LOW DECIMAL(14, 2),
+    HIGH DECIMAL(14, 2),
+    CHANGE1 DOUBLE PRECISION NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS holdingejb (
+    HOLDINGID INTEGER NOT NULL PRIMARY KEY,
+    QUANTITY DOUBLE PRECISION NOT NULL,
+    PURCHASEPRICE DECIMAL(14, 2),
+    PURCHASEDATE TIMESTAMP,
+    ACCOUNT_ACCOUNTID INTEGER,
+    QUOTE_SYMBOL VARCHAR(250)
+);
+
+CREATE TABLE IF NOT EXISTS orderejb (
+    ORDERID INTEGER NOT NULL PRIMARY KEY,
+    ORDERTYPE VARCHAR(250),
+    ORDERSTATUS VARCHAR(250),
+    OPENDATE TIMESTAMP,
+    COMPLETIONDATE TIMESTAMP,
+    QUANTITY DOUBLE PRECISION NOT NULL,
+    PRICE DECIMAL(14, 2),
+    ORDERFEE DECIMAL(14, 2),
+    ACCOUNT_ACCOUNTID INTEGER,
+    QUOTE_SYMBOL VARCHAR(250),
+    HOLDING_HOLDINGID INTEGER
+);
@@ -0,0 +1,6 @@
+-- H2 only (dev and test): default the ID columns to their pooled sequences, as V1_5 does on PostgreSQL
+-- Runs after Hibernate generates the schema, for SQL inserts that omit the ID (import-dev.sql,
+-- the IDENTITY-style baseline of InsertBatchBenchmark); each such insert takes a block of its own
+ALTER TABLE accountejb ALTER COLUMN ACCOUNTID SET DEFAULT NEXT VALUE FOR accountejb_seq;
+ALTER TABLE holdingejb ALTER COLUMN HOLDINGID SET DEFAULT NEXT VALUE FOR holdingejb_seq;
+ALTER TABLE orderejb ALTER COLUMN ORDERID SET DEFAULT NEXT VALUE FOR orderejb_seq;
@@ -12,7 +12,7 @@ INSERT INTO KEYGENEJB (KEYNAME, KEYVAL) VALUES ('account', 1000);
 INSERT INTO KEYGENEJB (KEYNAME, KEYVAL) VALUES ('holding', 1000);
 INSERT INTO KEYGENEJB (KEYNAME, KEYVAL) VALUES ('order', 1000);
 
--- Insert sample quotes
+-- Insert sample quotes (symbols in canonical upper case, see SymbolUtils)
 INSERT INTO quoteejb (SYMBOL, COMPANYNAME, VOLUME, PRICE, OPEN1, LOW, HIGH, CHANGE1) 
 VALUES ('IBM', 'International Business Machines', 1000000, 150.50, 149.00, 148.50, 151.00, 1.50);
 
@@ -35,30 +35,30 @@ VALUES ('user1', 'password1', 'John Doe', '123 Main St, New York, NY 10001', 'jo
 INSERT INTO accountprofileejb (USERID, PASSWD, FULLNAME, ADDRESS, EMAIL, CREDITCARD) 
 VALUES ('user2', 'password2', 'Jane Smith', '456 Oak Ave, San Francisco, CA 94102', 'jane.smith@example.com', '9876-5432-1098-7654');
 
--- Insert sample accounts (let IDENTITY columns auto-generate IDs)
+-- Insert sample accounts (IDs default to the next sequence value)
 INSERT INTO accountejb (LOGINCOUNT, LOGOUTCOUNT, LASTLOGIN, CREATIONDATE, BALANCE, OPENBALANCE, PROFILE_USERID)
 VALUES (5, 4, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 100000.00, 100000.00, 'user1');
 
 INSERT INTO accountejb (LOGINCOUNT, LOGOUTCOUNT, LASTLOGIN, CREATIONDATE, BALANCE, OPENBALANCE, PROFILE_USERID)
 VALUES (3, 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 50000.00, 50000.00, 'user2');
 
--- Insert sample holdings (let IDENTITY columns auto-generate IDs)
--- Note: ACCOUNT_ACCOUNTID references are now 1, 2 since they're auto-generated
+-- Insert sample holdings (IDs default to the next sequence value)
+-- Note: IDs step by IdBlocks.SIZE, so references are looked up rather than assumed
 INSERT INTO holdingejb (QUANTITY, PURCHASEPRICE, PURCHASEDATE, ACCOUNT_ACCOUNTID, QUOTE_SYMBOL)
-VALUES (100, 145.00, CURRENT_TIMESTAMP, 1, 'IBM');
+VALUES (100, 145.00, CURRENT_TIMESTAMP, (SELECT ACCOUNTID FROM accountejb WHERE PROFILE_USERID = 'user1'), 'IBM');
 
 INSERT INTO holdingejb (QUANTITY, PURCHASEPRICE, PURCHASEDATE, ACCOUNT_ACCOUNTID, QUOTE_SYMBOL)
-VALUES (50, 170.00, CURRENT_TIMESTAMP, 1, 'AAPL');
+VALUES (50, 170.00, CURRENT_TIMESTAMP, (SELECT ACCOUNTID FROM accountejb WHERE PROFILE_USERID = 'user1'), 'AAPL');
 
 INSERT INTO holdingejb (QUANTITY, PURCHASEPRICE, PURCHASEDATE, ACCOUNT_ACCOUNTID, QUOTE_SYMBOL)
-VALUES (75, 375.00, CURRENT_TIMESTAMP, 2, 'MSFT');
+VALUES (75, 375.00, CURRENT_TIMESTAMP, (SELECT ACCOUNTID FROM accountejb WHERE PROFILE_USERID = 'user2'), 'MSFT');
 
--- Insert sample orders (let IDENTITY columns auto-generate IDs)
+-- Insert sample orders (IDs default to the next sequence value)
 INSERT INTO orderejb (ORDERTYPE, ORDERSTATUS, OPENDATE, COMPLETIONDATE, QUANTITY, PRICE, ORDERFEE, ACCOUNT_ACCOUNTID, QUOTE_SYMBOL, HOLDING_HOLDINGID)
-VALUES ('buy', 'completed', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 100, 145.00, 10.00, 1, 'IBM', 1);
+VALUES ('buy', 'completed', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 100, 145.00, 10.00, (SELECT ACCOUNTID FROM accountejb WHERE PROFILE_USERID = 'user1'), 'IBM', (SELECT HOLDINGID FROM holdingejb WHERE QUOTE_SYMBOL = 'IBM'));
 
 INSERT INTO orderejb (ORDERTYPE, ORDERSTATUS, OPENDATE, COMPLETIONDATE, QUANTITY, PRICE, ORDERFEE, ACCOUNT_ACCOUNTID, QUOTE_SYMBOL, HOLDING_HOLDINGID)
-VALUES ('buy', 'completed', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 50, 170.00, 10.00, 1, 'AAPL', 2);
+VALUES ('buy', 'completed', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 50, 170.00, 10.00, (SELECT ACCOUNTID FROM accountejb WHERE PROFILE_USERID = 'user1'), 'AAPL', (SELECT HOLDINGID FROM holdingejb WHERE QUOTE_SYMBOL = 'AAPL'));
 
 INSERT INTO orderejb (ORDERTYPE, ORDERSTATUS, OPENDATE, COMPLETIONDATE, QUANTITY, PRICE, ORDERFEE, ACCOUNT_ACCOUNTID, QUOTE_SYMBOL, HOLDING_HOLDINGID)
-VALUES ('buy', 'completed', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 75, 375.00, 10.00, 2, 'MSFT', 3);
+VALUES ('buy', 'completed', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 75, 375.00, 10.00, (SELECT ACCOUNTID FROM accountejb WHERE PROFILE_USERID = 'user2'), 'MSFT', (SELECT HOLDINGID FROM holdingejb WHERE QUOTE_SYMBOL = 'MSFT'));
@@ -0,0 +1,50 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.repository;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import com.ibm.websphere.samples.daytrader.service.DataPopulationService;
+import com.ibm.websphere.samples.daytrader.util.PostgreSQLTestProfile;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Query plan regression tests against PostgreSQL
+ * The same checks as {@link QueryPlanTest}, against the indexes created by the
+ * Flyway migrations rather than those Hibernate generates for H2.
+ */
+@QuarkusTest
+@TestProfile(PostgreSQLTestProfile.class)
+@EnabledIf("com.ibm.websphere.samples.daytrader.util.PostgreSQLTestProfile#containersAvailable")
+class QueryPlanPostgreSQLTest {
+
+    @Inject
+    DataPopulationService dataPopulationService;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Test
+    void testHotQueriesUseIndexes() throws Exception {
+        QueryPlanTest.assertHotQueriesUseIndexes(dataPopulationService, dataSource);
+    }
+}
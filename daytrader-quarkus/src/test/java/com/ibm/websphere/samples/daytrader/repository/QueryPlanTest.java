@@ -0,0 +1,123 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.daytrader.dto.PopulationRequestDTO;
+import com.ibm.websphere.samples.daytrader.service.DataPopulationService;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Query plan regression tests
+ * With a populated database, the hot repository queries must be served by an
+ * index rather than a scan of their table. Runs on H2 here, and on PostgreSQL with
+ * the migrated schema in {@link QueryPlanPostgreSQLTest}.
+ */
+@QuarkusTest
+class QueryPlanTest {
+
+    @Inject
+    DataPopulationService dataPopulationService;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Test
+    void testHotQueriesUseIndexes() throws Exception {
+        assertHotQueriesUseIndexes(dataPopulationService, dataSource);
+    }
+
+    /**
+     * Populate the database and check the plans of the hot queries; shared with
+     * {@link QueryPlanPostgreSQLTest}, as H2 and PostgreSQL plan differently
+     */
+    static void assertHotQueriesUseIndexes(DataPopulationService dataPopulationService, AgroalDataSource dataSource)
+            throws Exception {
+        populate(dataPopulationService);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+
+            // Order history and closed-order completion by account
+            assertIndexed(statement, "orderejb",
+                    "SELECT ORDERID FROM orderejb WHERE ACCOUNT_ACCOUNTID = 1 ORDER BY OPENDATE DESC, ORDERID DESC");
+            assertIndexed(statement, "orderejb",
+                    "SELECT ORDERID FROM orderejb WHERE ORDERSTATUS = 'closed' AND ACCOUNT_ACCOUNTID = 1");
+            // Order processor recovery
+            assertIndexed(statement, "orderejb", "SELECT ORDERID FROM orderejb WHERE ORDERSTATUS = 'open'");
+            // Clearing holding references before a sell removes the holding
+            assertIndexed(statement, "orderejb", "SELECT ORDERID FROM orderejb WHERE HOLDING_HOLDINGID = 1");
+            // Portfolio
+            assertIndexed(statement, "holdingejb", "SELECT HOLDINGID FROM holdingejb WHERE ACCOUNT_ACCOUNTID = 1");
+            // Account by user
+            assertIndexed(statement, "accountejb", "SELECT ACCOUNTID FROM accountejb WHERE PROFILE_USERID = 'uid:0'");
+            // Top losers read the change index in order instead of sorting every quote
+            String plan = explain(statement, "SELECT SYMBOL FROM quoteejb ORDER BY CHANGE1 FETCH FIRST 5 ROWS ONLY");
+            assertTrue(plan.toUpperCase(Locale.ROOT).contains("QUOTEEJB_CHANGE_IDX"), plan);
+        }
+    }
+
+    private static void populate(DataPopulationService dataPopulationService) throws InterruptedException {
+        String run = "plan" + System.currentTimeMillis() % 100000;
+        PopulationRequestDTO request = new PopulationRequestDTO();
+        request.setUsers(2000);
+        request.setQuotes(500);
+        request.setHoldingsPerUser(5);
+        request.setUserPrefix(run + "_uid:");
+        request.setSymbolPrefix(run + "_s:");
+        dataPopulationService.start(request);
+
+        String state = "running";
+        for (int attempt = 0; attempt < 600 && "running".equals(state); attempt++) {
+            Thread.sleep(100);
+            state = dataPopulationService.getStatus().getState();
+        }
+        assertEquals("completed", state);
+    }
+
+    private static void assertIndexed(Statement statement, String table, String sql) throws SQLException {
+        // H2 reports a scan as "<TABLE>.tableScan", PostgreSQL as "Seq Scan on <table>"
+        String plan = explain(statement, sql).toUpperCase(Locale.ROOT);
+        assertFalse(plan.contains(table.toUpperCase(Locale.ROOT) + ".TABLESCAN"), plan);
+        assertFalse(plan.contains("SEQ SCAN ON " + table.toUpperCase(Locale.ROOT)), plan);
+    }
+
+    private static String explain(Statement statement, String sql) throws SQLException {
+        // PostgreSQL returns one row per plan node
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        assertFalse(plan.isEmpty());
+        return plan.toString();
+    }
+}
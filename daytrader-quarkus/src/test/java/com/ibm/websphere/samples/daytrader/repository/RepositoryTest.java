@@ -27,8 +27,11 @@ import jakarta.transaction.Transactional;
 
 import org.junit.jupiter.api.Test;
 
+import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
+import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
 import com.ibm.websphere.samples.daytrader.entity.Account;
 import com.ibm.websphere.samples.daytrader.entity.AccountProfile;
+import com.ibm.websphere.samples.daytrader.entity.Holding;
 import com.ibm.websphere.samples.daytrader.entity.Quote;
 
 import io.quarkus.test.junit.QuarkusTest;
@@ -56,6 +59,26 @@ class RepositoryTest {
     @Inject
     OrderRepository orderRepository;
 
+    @Test
+    @Transactional
+    void testSqlInsertWithoutIdUsesSequenceDefault() {
+        // Set by h2-id-defaults.sql here and by V1_5 on PostgreSQL, not by the entity mapping
+        String symbol = "SEQ" + System.currentTimeMillis() % 100000;
+        quoteRepository.persist(new Quote(symbol, "Sequence Default Inc", 0, new BigDecimal("10.00"),
+                                          new BigDecimal("10.00"), new BigDecimal("10.00"), new BigDecimal("10.00"), 0.0));
+        quoteRepository.flush();
+        holdingRepository.getEntityManager().createNativeQuery(
+                "INSERT INTO holdingejb (QUANTITY, PURCHASEPRICE, PURCHASEDATE, QUOTE_SYMBOL) VALUES (1, 10.00, CURRENT_TIMESTAMP, ?1)")
+                .setParameter(1, symbol)
+                .executeUpdate();
+
+        Number holdingID = (Number) holdingRepository.getEntityManager().createNativeQuery(
+                "SELECT HOLDINGID FROM holdingejb WHERE QUOTE_SYMBOL = ?1")
+                .setParameter(1, symbol)
+                .getSingleResult();
+        assertTrue(holdingID.intValue() > 0);
+    }
+
     // AccountProfile Repository Tests
     @Test
     @Transactional
@@ -120,6 +143,19 @@ class RepositoryTest {
         assertEquals(new BigDecimal("100.00"), found.get().getPrice());
     }
 
+    @Test
+    @Transactional
+    void testQuoteFindBySymbolNormalizesInput() {
+        Quote quote = new Quote("NORM", "Normalized Company", 1000000.0,
+                               new BigDecimal("10.00"), new BigDecimal("10.00"),
+                               new BigDecimal("10.00"), new BigDecimal("10.00"), 0.0);
+        quoteRepository.persist(quote);
+
+        assertTrue(quoteRepository.findBySymbol(" norm ").isPresent());
+        assertEquals(1, quoteRepository.findBySymbols(List.of("norm")).size());
+        assertFalse(quoteRepository.findBySymbol(null).isPresent());
+    }
+
     @Test
     @Transactional
     void testQuoteFindAll() {
@@ -155,5 +191,45 @@ class RepositoryTest {
         assertEquals(new BigDecimal("105.00"), found.get().getPrice());
         assertEquals(5.0, found.get().getChange());
     }
-}
 
+    @Test
+    @Transactional
+    void testDtoProjectionsMatchEntities() {
+        AccountProfile profile = new AccountProfile("projectionuser", "password123",
+                                                    "Projection User", "123 Projection St",
+                                                    "projection@example.com", "1234-5678");
+        accountProfileRepository.persist(profile);
+        Quote quote = new Quote("PROJ", "Projection Company", 1000000.0,
+                               new BigDecimal("100.00"), new BigDecimal("99.00"),
+                               new BigDecimal("98.00"), new BigDecimal("101.00"), 1.0);
+        quoteRepository.persist(quote);
+
+        Account account = new Account();
+        account.setProfile(profile);
+        account.setCreationDate(new Date());
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setOpenBalance(new BigDecimal("1000.00"));
+        accountRepository.persist(account);
+        Holding holding = new Holding(10.0, new BigDecimal("90.00"), new Date(), account, quote);
+        holdingRepository.persist(holding);
+        accountRepository.flush();
+
+        AccountDTO accountData = accountRepository.findDtoById(account.getAccountID()).orElseThrow();
+        assertEquals(account.getAccountID(), accountData.getAccountID());
+        assertEquals(0, account.getBalance().compareTo(accountData.getBalance()));
+        assertEquals("projectionuser", accountData.getProfileID());
+        assertEquals(account.getAccountID(), accountRepository.findDtoByUserID("projectionuser").orElseThrow().getAccountID());
+        assertFalse(accountRepository.findDtoById(-1).isPresent());
+
+        HoldingDTO expected = new HoldingDTO(holding);
+        List<HoldingDTO> holdings = holdingRepository.findDtosByAccountId(account.getAccountID());
+        assertEquals(1, holdings.size());
+        assertEquals(expected.getHoldingID(), holdings.get(0).getHoldingID());
+        assertEquals("PROJ", holdings.get(0).getSymbol());
+        assertEquals(0, expected.getGain().compareTo(holdings.get(0).getGain()));
+        assertEquals("PROJ", holdingRepository.findDtoById(holding.getHoldingID()).orElseThrow().getSymbol());
+
+        assertTrue(quoteRepository.findAllDtos().stream()
+                .anyMatch(q -> "PROJ".equals(q.getSymbol()) && q.getChange() == 1.0));
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import jakarta.inject.Inject;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.service.TradeService;
+import com.ibm.websphere.samples.daytrader.util.PostgreSQLTestProfile;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Schema migration tests against an empty PostgreSQL database
+ * Every migration, starting with the V1 baseline schema, must apply at startup
+ * and leave a schema the application can trade against.
+ */
+@QuarkusTest
+@TestProfile(PostgreSQLTestProfile.class)
+@EnabledIf("com.ibm.websphere.samples.daytrader.util.PostgreSQLTestProfile#containersAvailable")
+class SchemaMigrationPostgreSQLTest {
+
+    @Inject
+    Flyway flyway;
+
+    @Inject
+    TradeService tradeService;
+
+    @Test
+    void testEmptyDatabaseIsMigratedFromBaseline() {
+        MigrationInfo[] applied = flyway.info().applied();
+        assertTrue(applied.length > 1);
+        assertEquals("1", applied[0].getVersion().getVersion());
+        assertEquals(MigrationState.SUCCESS, applied[0].getState());
+        for (MigrationInfo migration : applied) {
+            assertTrue(migration.getState().isApplied() && !migration.getState().isFailed(),
+                       migration.getScript() + ": " + migration.getState());
+        }
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void testMigratedSchemaSupportsTrading() {
+        String testUserID = "migrationtest" + System.currentTimeMillis();
+        String testSymbol = "MIG" + System.currentTimeMillis() % 100000;
+        tradeService.createQuote(testSymbol, "Migration Test Inc", new BigDecimal("20.00"));
+        tradeService.register(testUserID, "password123", "Migration User", "1 Migration St",
+                              "migration@example.com", "1234-5678", new BigDecimal("1000.00"));
+
+        OrderDTO buy = tradeService.buy(testUserID, testSymbol, 2.0, TradeConfig.SYNCH);
+        assertNotNull(buy.getHoldingID());
+        OrderDTO limit = tradeService.placeTriggeredOrder(testUserID, TradeConfig.LIMIT_BUY, testSymbol, 1.0,
+                                                          null, new BigDecimal("15.00"));
+        assertEquals("open", limit.getOrderStatus());
+        assertEquals("closed", tradeService.sell(testUserID, buy.getHoldingID(), TradeConfig.SYNCH).getOrderStatus());
+    }
+}
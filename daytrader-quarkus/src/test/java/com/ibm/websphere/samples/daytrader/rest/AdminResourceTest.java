@@ -0,0 +1,121 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.rest;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
+import com.ibm.websphere.samples.daytrader.service.TradeService;
+import com.ibm.websphere.samples.daytrader.util.TestJwtGenerator;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+/**
+ * AdminResource REST integration tests
+ * Tests data population, its validation and the admin role it requires
+ */
+@QuarkusTest
+class AdminResourceTest {
+
+    @Inject
+    TradeService tradeService;
+
+    @Test
+    void testPopulate() throws InterruptedException {
+        String run = "pop" + System.currentTimeMillis() % 100000;
+        String jwtToken = TestJwtGenerator.generateToken("admin", Set.of("Admin"));
+
+        given()
+            .header("Authorization", "Bearer " + jwtToken)
+            .contentType(ContentType.JSON)
+            .body("{\"users\": 25, \"quotes\": 10, \"holdingsPerUser\": 3, "
+                + "\"userPrefix\": \"" + run + "_uid:\", \"symbolPrefix\": \"" + run + "_s:\"}")
+            .when().post("/api/v1/admin/populate")
+            .then()
+                .statusCode(202)
+                .body("state", is("running"));
+
+        String state = "running";
+        for (int attempt = 0; attempt < 100 && "running".equals(state); attempt++) {
+            Thread.sleep(100);
+            state = given()
+                .header("Authorization", "Bearer " + jwtToken)
+                .when().get("/api/v1/admin/populate")
+                .then()
+                    .statusCode(200)
+                    .extract().path("state");
+        }
+
+        given()
+            .header("Authorization", "Bearer " + jwtToken)
+            .when().get("/api/v1/admin/populate")
+            .then()
+                .statusCode(200)
+                .body("state", is("completed"))
+                .body("quotes", is(10))
+                .body("accounts", is(25))
+                .body("holdings", is(75))
+                .body("orders", is(75));
+
+        List<HoldingDTO> holdings = tradeService.getHoldings(run + "_uid:0");
+        assertEquals(3, holdings.size());
+        assertEquals(3, tradeService.getOrders(run + "_uid:0").size());
+
+        // IDs are reserved a block at a time rather than one block per row
+        assertEquals(tradeService.getAccountID(run + "_uid:0") + 1, tradeService.getAccountID(run + "_uid:1"));
+        List<Integer> holdingIDs = holdings.stream().map(HoldingDTO::getHoldingID).sorted().toList();
+        assertEquals(List.of(holdingIDs.get(0), holdingIDs.get(0) + 1, holdingIDs.get(0) + 2), holdingIDs);
+    }
+
+    @Test
+    void testPopulateInvalidRequest() {
+        given()
+            .header("Authorization", "Bearer " + TestJwtGenerator.generateToken("admin", Set.of("Admin")))
+            .contentType(ContentType.JSON)
+            .body("{\"users\": 10, \"quotes\": 0, \"holdingsPerUser\": 1}")
+            .when().post("/api/v1/admin/populate")
+            .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testPopulateRequiresAdminRole() {
+        // A trader token is authenticated but not authorized
+        given()
+            .header("Authorization", "Bearer " + TestJwtGenerator.generateToken("trader"))
+            .contentType(ContentType.JSON)
+            .body("{\"users\": 10, \"quotes\": 10, \"holdingsPerUser\": 1}")
+            .when().post("/api/v1/admin/populate")
+            .then()
+                .statusCode(403);
+
+        given()
+            .header("Authorization", "Bearer " + TestJwtGenerator.generateToken("trader"))
+            .when().get("/api/v1/admin/populate")
+            .then()
+                .statusCode(403);
+    }
+}
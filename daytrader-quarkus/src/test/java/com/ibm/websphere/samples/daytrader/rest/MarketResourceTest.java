@@ -17,8 +17,21 @@ package com.ibm.websphere.samples.daytrader.rest;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -26,15 +39,19 @@ import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.websphere.samples.daytrader.entity.Quote;
 import com.ibm.websphere.samples.daytrader.repository.QuoteRepository;
 import com.ibm.websphere.samples.daytrader.service.MarketSummaryService;
+import com.ibm.websphere.samples.daytrader.service.TradeService;
 
+import io.quarkus.test.common.http.TestHTTPResource;
 import io.quarkus.test.junit.QuarkusTest;
 
 /**
  * MarketResource REST integration tests
- * Tests get market summary endpoint
+ * Tests get market summary and market data stream endpoints
  * Per Phase 2: Market Summary & Profiles specification
  */
 @QuarkusTest
@@ -46,6 +63,15 @@ class MarketResourceTest {
     @Inject
     MarketSummaryService marketSummaryService;
 
+    @Inject
+    TradeService tradeService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @TestHTTPResource("/api/v1/market/stream")
+    URL streamUrl;
+
     @BeforeEach
     @Transactional
     void setUp() {
@@ -112,5 +138,81 @@ class MarketResourceTest {
             .then()
                 .statusCode(200);
     }
-}
 
+    @Test
+    void testStreamUnknownSymbol() {
+        given()
+            .queryParam("symbols", "NONEXISTENT")
+            .when().get("/api/v1/market/stream")
+            .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testStreamTooManySymbols() {
+        String symbols = IntStream.rangeClosed(1, 51)
+                .mapToObj(i -> "SYM" + i)
+                .collect(Collectors.joining(","));
+
+        given()
+            .queryParam("symbols", symbols)
+            .when().get("/api/v1/market/stream")
+            .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testStreamPushesQuoteChanges() throws Exception {
+        String symbol = "SSE" + System.currentTimeMillis() % 100000;
+        tradeService.createQuote(symbol, "Stream Test Inc", new BigDecimal("10.00"));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(streamUrl + "?symbols=" + symbol + "&summary=false"))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+
+        // Collect the data of each 'quotes' event in the background so reads can time out
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            String event = null;
+            for (String line : (Iterable<String>) response.body()::iterator) {
+                if (line.startsWith("event:")) {
+                    event = line.substring("event:".length()).trim();
+                } else if (line.startsWith("data:") && "quotes".equals(event)) {
+                    events.add(line.substring("data:".length()).trim());
+                } else if (line.isEmpty()) {
+                    event = null;
+                }
+            }
+        }, "market-stream-test");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            // The current value is sent on subscribe, before any change
+            JsonNode initial = quote(events.poll(10, TimeUnit.SECONDS), symbol);
+            assertEquals(0, new BigDecimal("10.00").compareTo(initial.get("price").decimalValue()));
+
+            tradeService.updateQuotePrice(symbol, new BigDecimal("12.50"));
+
+            JsonNode changed = quote(events.poll(10, TimeUnit.SECONDS), symbol);
+            assertEquals(0, new BigDecimal("12.50").compareTo(changed.get("price").decimalValue()));
+            assertEquals(2.5, changed.get("change").doubleValue(), 0.001);
+        } finally {
+            response.body().close();
+        }
+    }
+
+    /**
+     * The quote for a symbol in the data of a 'quotes' event
+     */
+    private JsonNode quote(String data, String symbol) throws Exception {
+        assertNotNull(data, "No quotes event received");
+        JsonNode quotes = objectMapper.readTree(data);
+        assertEquals(1, quotes.size());
+        assertEquals(symbol, quotes.get(0).get("symbol").asText());
+        return quotes.get(0);
+    }
+}
@@ -16,11 +16,19 @@
 package com.ibm.websphere.samples.daytrader.rest;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -105,6 +113,29 @@ class OrderResourceTest {
                 .body("price", is(100.00f));
     }
 
+    @Test
+    void testBuyRecordsMetrics() {
+        String testUserID = "metricstest" + System.currentTimeMillis();
+        tradeService.register(testUserID, testPassword, "Metrics Test User", "123 Metrics St",
+                             "metrics@example.com", "1234-5678-9012-3456", new BigDecimal("10000.00"));
+
+        given()
+            .header("Authorization", "Bearer " + TestJwtGenerator.generateToken(testUserID))
+            .contentType(ContentType.JSON)
+            .body("{\"symbol\": \"BUYTEST\", \"quantity\": 1.0}")
+            .when().post("/api/v1/orders/buy")
+            .then()
+                .statusCode(201);
+
+        given()
+            .when().get("/metrics")
+            .then()
+                .statusCode(200)
+                .body(containsString("operation=\"buy\""))
+                .body(containsString("daytrader_orders_outcome_total{outcome=\"closed\""))
+                .body(containsString("endpoint=\"OrderResource.buy\""));
+    }
+
     @Test
     void testBuyStockUserNotFoundInJWT() {
         // JWT contains a user that doesn't exist in the database
@@ -205,6 +236,54 @@ class OrderResourceTest {
                 .body("quantity", is(5.0f));
     }
 
+    @Test
+    void testSubmitBatch() {
+        String testUserID = "batchtest" + System.currentTimeMillis();
+        tradeService.register(testUserID, testPassword, "Batch Test User", "123 Order St",
+                             "order@example.com", "1234-5678-9012-3456", new BigDecimal("10000.00"));
+
+        String jwtToken = TestJwtGenerator.generateToken(testUserID);
+
+        given()
+            .header("Authorization", "Bearer " + jwtToken)
+            .contentType(ContentType.JSON)
+            .body("[{\"orderType\": \"buy\", \"symbol\": \"BUYTEST\", \"quantity\": 2.0}," +
+                  " {\"orderType\": \"buy\", \"symbol\": \"NONEXISTENT\", \"quantity\": 1.0}]")
+            .when().post("/api/v1/orders/batch")
+            .then()
+                .statusCode(200)
+                .body("size()", is(2))
+                .body("[0].success", is(true))
+                .body("[0].order.orderStatus", is("closed"))
+                .body("[1].success", is(false))
+                .body("[1].error", notNullValue());
+    }
+
+    @Test
+    void testSubmitEmptyBatch() {
+        String jwtToken = TestJwtGenerator.generateToken("batchtestempty");
+        given()
+            .header("Authorization", "Bearer " + jwtToken)
+            .contentType(ContentType.JSON)
+            .body("[]")
+            .when().post("/api/v1/orders/batch")
+            .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testSubmitBatchWithNullOrder() {
+        String jwtToken = TestJwtGenerator.generateToken("batchtestnull");
+        given()
+            .header("Authorization", "Bearer " + jwtToken)
+            .contentType(ContentType.JSON)
+            .body("[null, {\"orderType\": \"buy\", \"symbol\": \"BUYTEST\", \"quantity\": 1.0}]")
+            .when().post("/api/v1/orders/batch")
+            .then()
+                .statusCode(400)
+                .body("message", is("order 0 is required"));
+    }
+
     @Test
     void testSellHoldingUserNotFoundInJWT() {
         // JWT contains a user that doesn't exist in the database
@@ -260,6 +339,64 @@ class OrderResourceTest {
                 .body("size()", greaterThanOrEqualTo(2));
     }
 
+    @Test
+    void testGetOrdersPagesAndExport() {
+        String testUserID = "pageorderstest" + System.currentTimeMillis();
+        tradeService.register(testUserID, testPassword, "Page Orders User", "123 Order St",
+                             "order@example.com", "1234-5678-9012-3456", new BigDecimal("10000.00"));
+        String jwtToken = TestJwtGenerator.generateToken(testUserID);
+
+        Set<Integer> orderIDs = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            orderIDs.add(tradeService.buy(testUserID, "BUYTEST", 1.0, 0).getOrderID());
+        }
+
+        // Follow the cursor through pages of two orders, newest first
+        List<Integer> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = given()
+                .header("Authorization", "Bearer " + jwtToken)
+                .queryParam("limit", 2);
+            if (cursor != null) {
+                request.queryParam("cursor", cursor);
+            }
+            var response = request.when().get("/api/v1/orders")
+                .then()
+                    .statusCode(200)
+                    .extract();
+            paged.addAll(response.<List<Integer>>path("orderID"));
+            cursor = response.header(OrderResource.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(orderIDs, new HashSet<>(paged));
+        List<Integer> newestFirst = new ArrayList<>(paged);
+        newestFirst.sort(Comparator.reverseOrder());
+        assertEquals(newestFirst, paged);
+
+        // The export streams the same orders, one JSON object per line
+        String export = given()
+            .header("Authorization", "Bearer " + jwtToken)
+            .when().get("/api/v1/orders/export")
+            .then()
+                .statusCode(200)
+                .contentType(containsString("application/x-ndjson"))
+                .extract().asString();
+        String[] lines = export.strip().split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].contains("\"orderID\":" + paged.get(0)));
+
+        given()
+            .header("Authorization", "Bearer " + jwtToken)
+            .queryParam("cursor", "not-a-cursor")
+            .when().get("/api/v1/orders")
+            .then()
+                .statusCode(400);
+    }
+
     @Test
     void testGetOrdersUserNotFoundInJWT() {
         // JWT contains a user that doesn't exist in the database
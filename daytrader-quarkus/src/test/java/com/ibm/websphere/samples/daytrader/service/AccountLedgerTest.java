@@ -0,0 +1,205 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * AccountLedger integration tests
+ * Runs with the ledger enabled: buys and sells change the in-memory balance,
+ * and accountejb catches up when the ledger is flushed. Flushes and evictions only
+ * run when a test calls them, and a crash is simulated by stopping the ledger
+ * without flushing it and starting it again.
+ */
+@QuarkusTest
+@TestProfile(AccountLedgerTest.LedgerEnabled.class)
+class AccountLedgerTest {
+
+    @Inject
+    TradeService tradeService;
+
+    @Inject
+    AccountLedger ledger;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    void testLedgerBalanceIsWrittenBehind() {
+        assertTrue(ledger.isEnabled());
+
+        String testUserID = "ledgertest" + System.currentTimeMillis();
+        AccountDTO account = tradeService.register(testUserID, "password123", "Ledger User", "123 Ledger St",
+                                                   "ledger@example.com", "1234-5678", new BigDecimal("1000.00"));
+        tradeService.createQuote("LEDGERTEST", "Ledger Test Company", new BigDecimal("100.00"));
+
+        OrderDTO order = tradeService.buy(testUserID, "LEDGERTEST", 5.0, TradeConfig.SYNCH);
+        BigDecimal afterBuy = new BigDecimal("500.00").subtract(TradeConfig.getOrderFee("buy"));
+        assertEquals(0, afterBuy.compareTo(ledger.balance(account.getAccountID())));
+        assertEquals(0, afterBuy.compareTo(tradeService.getAccountData(account.getAccountID()).getBalance()));
+
+        // The reservation is refused in memory and nothing is journaled
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeService.buy(testUserID, "LEDGERTEST", 5.0, TradeConfig.SYNCH));
+        assertEquals(0, afterBuy.compareTo(ledger.balance(account.getAccountID())));
+
+        tradeService.sell(testUserID, order.getHoldingID(), TradeConfig.SYNCH);
+        BigDecimal afterSell = afterBuy.add(new BigDecimal("500.00")).subtract(TradeConfig.getOrderFee("sell"));
+        assertEquals(0, afterSell.compareTo(ledger.balance(account.getAccountID())));
+
+        ledger.flush();
+        BigDecimal stored = (BigDecimal) entityManager.createNativeQuery(
+                "SELECT BALANCE FROM accountejb WHERE ACCOUNTID = ?1")
+                .setParameter(1, account.getAccountID())
+                .getSingleResult();
+        assertEquals(0, afterSell.compareTo(stored));
+    }
+
+    @Test
+    void testCommittedChangesAreReplayedOnceAfterCrash() {
+        String testUserID = "ledgercrash" + System.nanoTime();
+        Integer accountID = register(testUserID);
+        tradeService.createQuote("LEDGERCRASH", "Ledger Crash Company", new BigDecimal("100.00"));
+
+        // The buy is committed and journaled, but not yet written to accountejb
+        tradeService.buy(testUserID, "LEDGERCRASH", 5.0, TradeConfig.SYNCH);
+        BigDecimal afterBuy = new BigDecimal("500.00").subtract(TradeConfig.getOrderFee("buy"));
+        assertEquals(0, new BigDecimal("1000.00").compareTo(storedBalance(accountID)));
+
+        ledger.stop();
+        ledger.start();
+        assertEquals(0, afterBuy.compareTo(storedBalance(accountID)));
+        assertEquals(0, afterBuy.compareTo(ledger.balance(accountID)));
+
+        // Recovery moved the checkpoint past the change, so it is not applied again
+        ledger.stop();
+        ledger.start();
+        assertEquals(0, afterBuy.compareTo(storedBalance(accountID)));
+        assertEquals(0, afterBuy.compareTo(ledger.balance(accountID)));
+    }
+
+    @Test
+    void testFlushedChangesAreNotReplayed() {
+        String testUserID = "ledgerflushed" + System.nanoTime();
+        Integer accountID = register(testUserID);
+        tradeService.createQuote("LEDGERFLUSH", "Ledger Flush Company", new BigDecimal("100.00"));
+
+        tradeService.buy(testUserID, "LEDGERFLUSH", 5.0, TradeConfig.SYNCH);
+        BigDecimal afterBuy = new BigDecimal("500.00").subtract(TradeConfig.getOrderFee("buy"));
+        ledger.flush();
+        assertEquals(0, afterBuy.compareTo(storedBalance(accountID)));
+
+        // The record is still in the journal, but at or below the checkpoint
+        ledger.stop();
+        ledger.start();
+        assertEquals(0, afterBuy.compareTo(storedBalance(accountID)));
+        assertEquals(0, afterBuy.compareTo(ledger.balance(accountID)));
+    }
+
+    @Test
+    void testRolledBackChangesAreNotReplayed() {
+        String testUserID = "ledgerrollback" + System.nanoTime();
+        Integer accountID = register(testUserID);
+        Integer orderID = tradeService.buy(testUserID, createQuote("LEDGERROLL"), 1.0, TradeConfig.SYNCH).getOrderID();
+        ledger.flush();
+        BigDecimal afterBuy = storedBalance(accountID);
+
+        // A credit keyed on an order that already exists is journaled (and forced to disk)
+        // before its transaction fails, like a triggered sell whose completion throws
+        assertThrows(RuntimeException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            ledger.record(orderID, accountID, new BigDecimal("250.00"));
+            entityManager.flush();
+            throw new IllegalStateException("Completion failed");
+        }));
+        assertEquals(0, afterBuy.compareTo(ledger.balance(accountID)));
+
+        // Crash before the rolled back change is flushed: it has no commit marker and is skipped
+        ledger.stop();
+        ledger.start();
+        assertEquals(0, afterBuy.compareTo(storedBalance(accountID)));
+        assertEquals(0, afterBuy.compareTo(ledger.balance(accountID)));
+    }
+
+    @Test
+    void testIdleBalancesAreEvictedOnceFlushed() {
+        String testUserID = "ledgerevict" + System.nanoTime();
+        Integer accountID = register(testUserID);
+        tradeService.createQuote("LEDGEREVICT", "Ledger Evict Company", new BigDecimal("100.00"));
+
+        tradeService.buy(testUserID, "LEDGEREVICT", 5.0, TradeConfig.SYNCH);
+        BigDecimal afterBuy = new BigDecimal("500.00").subtract(TradeConfig.getOrderFee("buy"));
+
+        // Kept while accountejb lags behind it
+        ledger.evictIdle();
+        assertTrue(ledger.currentBalance(accountID).isPresent());
+
+        ledger.flush();
+        ledger.evictIdle();
+        assertTrue(ledger.currentBalance(accountID).isEmpty());
+
+        // Loaded again from accountejb on next use
+        assertEquals(0, afterBuy.compareTo(ledger.balance(accountID)));
+    }
+
+    private Integer register(String userID) {
+        return tradeService.register(userID, "password123", "Ledger User", "123 Ledger St",
+                                     "ledger@example.com", "1234-5678", new BigDecimal("1000.00"))
+                .getAccountID();
+    }
+
+    private String createQuote(String prefix) {
+        String symbol = prefix + (System.nanoTime() % 100000);
+        tradeService.createQuote(symbol, "Ledger Test Company", new BigDecimal("100.00"));
+        return symbol;
+    }
+
+    private BigDecimal storedBalance(Integer accountID) {
+        return (BigDecimal) entityManager.createNativeQuery("SELECT BALANCE FROM accountejb WHERE ACCOUNTID = ?1")
+                .setParameter(1, accountID)
+                .getSingleResult();
+    }
+
+    public static class LedgerEnabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            // A fresh journal per run: the in-memory test database starts empty.
+            // Flushes and evictions are left to the tests
+            return Map.of("daytrader.ledger.enabled", "true",
+                          "daytrader.ledger.journal-directory", "target/ledger-" + System.nanoTime(),
+                          "daytrader.ledger.journal-sync", "false",
+                          "daytrader.ledger.flush-interval", "1h",
+                          "daytrader.ledger.eviction-interval", "1h",
+                          "daytrader.ledger.expire-after-access", "0s");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.daytrader.util.TestJwtGenerator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.jwt.auth.principal.JWTParser;
+import io.smallrye.jwt.auth.principal.ParseException;
+
+/**
+ * CachingJWTParser integration tests
+ * A token is verified on first use and served from the cache afterwards
+ */
+@QuarkusTest
+class CachingJWTParserTest {
+
+    @Inject
+    JWTParser parser;
+
+    @Inject
+    JwtService jwtService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Test
+    void testVerifiedTokenIsCached() throws ParseException {
+        assertInstanceOf(CachingJWTParser.class, parser);
+        String token = jwtService.generateTraderToken("jwtcache" + System.nanoTime());
+        double hits = meterRegistry.counter("daytrader.jwt.verify.cache.hits").count();
+
+        JsonWebToken first = parser.parse(token);
+        JsonWebToken second = parser.parse(token);
+
+        assertSame(first, second);
+        assertEquals(hits + 1, meterRegistry.counter("daytrader.jwt.verify.cache.hits").count());
+        assertTrue(meterRegistry.timer("daytrader.jwt.sign", "algorithm", "RS256").count() > 0);
+    }
+
+    @Test
+    void testInvalidTokenIsNeverCached() throws ParseException {
+        String token = TestJwtGenerator.generateToken("jwttamper" + System.nanoTime());
+        parser.parse(token);
+
+        // Same header and claims, different signature
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA" + token.substring(token.lastIndexOf('.') + 5);
+        assertThrows(ParseException.class, () -> parser.parse(tampered));
+        assertThrows(ParseException.class, () -> parser.parse(tampered));
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.jwt.auth.principal.JWTParser;
+import io.smallrye.jwt.auth.principal.ParseException;
+
+/**
+ * JwtService integration tests with ES256 signing
+ * Issued tokens carry the configured algorithm and verify with the EC public key
+ */
+@QuarkusTest
+@TestProfile(JwtServiceTest.Es256.class)
+class JwtServiceTest {
+
+    @Inject
+    JwtService jwtService;
+
+    @Inject
+    JWTParser parser;
+
+    @Test
+    void testTokensAreSignedWithEs256() throws ParseException {
+        String userID = "es256user" + System.nanoTime();
+        String token = jwtService.generateTraderToken(userID);
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                                   StandardCharsets.UTF_8);
+        assertTrue(header.contains("\"ES256\""), header);
+        assertEquals(userID, parser.parse(token).getSubject());
+    }
+
+    public static class Es256 implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "smallrye.jwt.new-token.signature-algorithm", "ES256",
+                    "smallrye.jwt.sign.key.location", "keys/ecPrivateKey.pem",
+                    "mp.jwt.verify.publickey.location", "META-INF/resources/ecPublicKey.pem");
+        }
+    }
+}
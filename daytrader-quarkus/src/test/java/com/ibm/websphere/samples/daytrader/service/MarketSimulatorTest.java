@@ -0,0 +1,127 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.repository.QuoteRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * MarketSimulator integration tests
+ * Tests the penny stock and maximum price rules and the coalesced quote writes
+ */
+@QuarkusTest
+class MarketSimulatorTest {
+
+    @Inject
+    MarketSimulator marketSimulator;
+
+    @Inject
+    QuoteCache quoteCache;
+
+    @Inject
+    QuoteRepository quoteRepository;
+
+    @Inject
+    TradeService tradeService;
+
+    @Test
+    void testNextPriceRules() {
+        // Ordinary ticks move the price by the change factor, rounded half up to the cent
+        assertEquals(11000, MarketSimulator.nextPriceCents(10000, 110));
+        assertEquals(9000, MarketSimulator.nextPriceCents(10000, 90));
+        assertEquals(2, MarketSimulator.nextPriceCents(2, 90));
+
+        // A penny stock recovers (x600) and a stock above the maximum price splits (x0.5)
+        assertEquals(600, MarketSimulator.nextPriceCents(1, 95));
+        assertEquals(20001, MarketSimulator.nextPriceCents(40001, 105));
+        assertEquals(44000, MarketSimulator.nextPriceCents(40000, 110));
+    }
+
+    @Test
+    void testTicksAreWrittenAndPublished() throws InterruptedException {
+        String symbol = "SIM" + (System.nanoTime() % 1000000);
+        tradeService.createQuote(symbol, "Simulated Inc", new BigDecimal("50.00"));
+
+        // Only the test quote, so fixtures of other tests keep their prices
+        marketSimulator.start(List.of(symbol));
+        try {
+            assertTrue(marketSimulator.isRunning());
+            QuoteDTO written = read(symbol);
+            for (int i = 0; i < 100 && written.getVolume() == 0; i++) {
+                Thread.sleep(100);
+                written = read(symbol);
+            }
+        } finally {
+            marketSimulator.stop();
+        }
+        assertFalse(marketSimulator.isRunning());
+        marketSimulator.flush();
+        assertEquals(0, marketSimulator.getPending());
+
+        // The row holds the coalesced ticks, and the cache saw the same quote
+        QuoteDTO written = read(symbol);
+        assertTrue(written.getVolume() > 0);
+        assertTrue(written.getPrice().compareTo(new BigDecimal("0.01")) >= 0);
+        assertTrue(written.getLow().compareTo(written.getPrice()) <= 0);
+        assertTrue(written.getHigh().compareTo(written.getPrice()) >= 0);
+        assertEquals(0, written.getPrice().compareTo(quoteCache.get(symbol).orElseThrow().getPrice()));
+        assertEquals(written.getVolume(), quoteCache.get(symbol).orElseThrow().getVolume());
+    }
+
+    @Test
+    void testOnlySelectedQuotesAreSimulated() throws InterruptedException {
+        String symbol = "SIM" + (System.nanoTime() % 1000000);
+        String other = "SIX" + (System.nanoTime() % 1000000);
+        tradeService.createQuote(symbol, "Simulated Inc", new BigDecimal("50.00"));
+        tradeService.createQuote(other, "Unsimulated Inc", new BigDecimal("50.00"));
+
+        marketSimulator.start(List.of(symbol));
+        try {
+            for (int i = 0; i < 100 && read(symbol).getVolume() == 0; i++) {
+                Thread.sleep(100);
+            }
+            // Quotes created while a selection is simulated are left alone too
+            tradeService.createQuote(other + "N", "New Inc", new BigDecimal("50.00"));
+            Thread.sleep(300);
+        } finally {
+            marketSimulator.stop();
+        }
+        marketSimulator.flush();
+
+        assertTrue(read(symbol).getVolume() > 0);
+        for (String untouched : List.of(other, other + "N")) {
+            assertEquals(0, read(untouched).getVolume());
+            assertEquals(0, new BigDecimal("50.00").compareTo(read(untouched).getPrice()));
+        }
+    }
+
+    private QuoteDTO read(String symbol) {
+        return QuarkusTransaction.requiringNew().call(
+                () -> quoteRepository.findBySymbol(symbol).map(QuoteDTO::new).orElseThrow());
+    }
+}
@@ -47,6 +47,9 @@ class MarketSummaryServiceTest {
     @Inject
     QuoteRepository quoteRepository;
 
+    @Inject
+    TradeService tradeService;
+
     @BeforeEach
     void setUp() {
         // Each test method has @Transactional so data is isolated and rolled back
@@ -148,5 +151,22 @@ class MarketSummaryServiceTest {
             assertTrue(topLosers.get(topLosers.size() - 1).getChange() <= 0);
         }
     }
-}
 
+    @Test
+    void testSummaryFollowsQuoteUpdates() {
+        // Not @Transactional: the summary is only updated once quote changes commit
+        String symbol = "INC" + System.currentTimeMillis() % 100000;
+        tradeService.createQuote(symbol, "Incremental Test", new BigDecimal("1.00"));
+
+        tradeService.updateQuotePrice(symbol, new BigDecimal("100000.00"));
+        List<QuoteDTO> topGainers = marketSummaryService.getMarketSummary().getTopGainers();
+        assertEquals(symbol, topGainers.get(0).getSymbol());
+
+        // A gainer that falls must leave the gainers and become the biggest loser
+        tradeService.updateQuotePrice(symbol, new BigDecimal("1.00"));
+        MarketSummaryDTO summary = marketSummaryService.getMarketSummary();
+        assertTrue(summary.getTopGainers().stream().noneMatch(q -> symbol.equals(q.getSymbol())));
+        List<QuoteDTO> topLosers = summary.getTopLosers();
+        assertEquals(symbol, topLosers.get(topLosers.size() - 1).getSymbol());
+    }
+}
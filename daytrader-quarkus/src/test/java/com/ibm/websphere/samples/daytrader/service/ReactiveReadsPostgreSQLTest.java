@@ -0,0 +1,145 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
+import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderPageDTO;
+import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
+import com.ibm.websphere.samples.daytrader.util.OrderCursor;
+import com.ibm.websphere.samples.daytrader.util.PostgreSQLTestProfile;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * ReactiveTradeService integration tests against PostgreSQL
+ * Reads every kind of row through the reactive client and the blocking JDBC path
+ * and checks both return the same DTOs and fail the same way.
+ */
+@QuarkusTest
+@TestProfile(PostgreSQLTestProfile.class)
+@EnabledIf("com.ibm.websphere.samples.daytrader.util.PostgreSQLTestProfile#containersAvailable")
+class ReactiveReadsPostgreSQLTest {
+
+    @Inject
+    TradeService tradeService;
+
+    @Inject
+    ReactiveTradeService reactiveTradeService;
+
+    @Inject
+    QuoteCache quoteCache;
+
+    @Test
+    void testReactiveReadsMatchBlockingReads() {
+        assertTrue(reactiveTradeService.isReactive());
+
+        String testUserID = "reactivetest" + System.currentTimeMillis();
+        String testSymbol = "RPG" + System.currentTimeMillis() % 100000;
+        tradeService.createQuote(testSymbol, "Reactive PostgreSQL Inc", new BigDecimal("30.00"));
+        AccountDTO account = tradeService.register(testUserID, "password123", "Reactive User", "1 Reactive St",
+                                                   "reactive@example.com", "1234-5678", new BigDecimal("10000.00"));
+        tradeService.buy(testUserID, testSymbol, 2.0, TradeConfig.SYNCH);
+        tradeService.buy(testUserID, testSymbol, 3.0, TradeConfig.SYNCH);
+        tradeService.updateQuotePrice(testSymbol, new BigDecimal("31.25"));
+        tradeService.buy(testUserID, testSymbol, 1.5, TradeConfig.SYNCH);
+
+        // Quotes: the single quote read goes to the database, not the cache
+        quoteCache.invalidate(testSymbol);
+        assertEquals(quote(tradeService.getQuote(testSymbol)),
+                     quote(reactiveTradeService.getQuote(testSymbol).await().indefinitely()));
+        assertEquals(tradeService.getAllQuotes().stream().map(ReactiveReadsPostgreSQLTest::quote).sorted().toList(),
+                     reactiveTradeService.getAllQuotes().await().indefinitely().stream()
+                             .map(ReactiveReadsPostgreSQLTest::quote).sorted().toList());
+
+        // Account
+        AccountDTO blockingAccount = tradeService.getAccountData(account.getAccountID());
+        AccountDTO reactiveAccount = reactiveTradeService.getAccountData(account.getAccountID()).await().indefinitely();
+        assertEquals(blockingAccount.getProfileID(), reactiveAccount.getProfileID());
+        assertEquals(0, blockingAccount.getBalance().compareTo(reactiveAccount.getBalance()));
+        assertEquals(0, blockingAccount.getOpenBalance().compareTo(reactiveAccount.getOpenBalance()));
+        assertEquals(blockingAccount.getLoginCount(), reactiveAccount.getLoginCount());
+
+        // Holdings
+        List<HoldingDTO> blockingHoldings = tradeService.getHoldings(testUserID);
+        assertEquals(3, blockingHoldings.size());
+        assertEquals(blockingHoldings.stream().map(ReactiveReadsPostgreSQLTest::holding).sorted().toList(),
+                     reactiveTradeService.getHoldings(testUserID).await().indefinitely().stream()
+                             .map(ReactiveReadsPostgreSQLTest::holding).sorted().toList());
+
+        // Orders, in full and page by page: the cursors must match too
+        assertEquals(tradeService.getOrders(testUserID).stream().map(ReactiveReadsPostgreSQLTest::order).toList(),
+                     reactiveTradeService.getOrders(testUserID).await().indefinitely().stream()
+                             .map(ReactiveReadsPostgreSQLTest::order).toList());
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderCursor after = OrderCursor.decode(cursor);
+            OrderPageDTO blockingPage = tradeService.getOrdersPage(testUserID, after, 2);
+            OrderPageDTO reactivePage = reactiveTradeService.getOrdersPage(testUserID, after, 2).await().indefinitely();
+            assertEquals(blockingPage.getOrders().stream().map(ReactiveReadsPostgreSQLTest::order).toList(),
+                         reactivePage.getOrders().stream().map(ReactiveReadsPostgreSQLTest::order).toList());
+            assertEquals(blockingPage.getNextCursor(), reactivePage.getNextCursor());
+            cursor = blockingPage.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(2, pages);
+
+        // Failures
+        assertThrows(IllegalArgumentException.class,
+                     () -> reactiveTradeService.getQuote("NOSUCH" + testSymbol).await().indefinitely());
+        assertThrows(IllegalArgumentException.class,
+                     () -> reactiveTradeService.getAccountData(-1).await().indefinitely());
+        assertThrows(IllegalArgumentException.class,
+                     () -> reactiveTradeService.getHoldings("nosuch" + testUserID).await().indefinitely());
+    }
+
+    private static String quote(QuoteDTO quote) {
+        return String.join("|", quote.getSymbol(), quote.getCompanyName(), plain(quote.getPrice()),
+                           plain(quote.getOpen()), plain(quote.getLow()), plain(quote.getHigh()),
+                           String.valueOf(quote.getVolume()), String.valueOf(quote.getChange()));
+    }
+
+    private static String holding(HoldingDTO holding) {
+        return String.join("|", String.valueOf(holding.getHoldingID()), String.valueOf(holding.getQuantity()),
+                           plain(holding.getPurchasePrice()), String.valueOf(holding.getPurchaseDate().getTime()),
+                           holding.getSymbol(), plain(holding.getCurrentPrice()));
+    }
+
+    private static String order(OrderDTO order) {
+        return String.join("|", String.valueOf(order.getOrderID()), order.getOrderType(), order.getOrderStatus(),
+                           String.valueOf(order.getOpenDate().getTime()), String.valueOf(order.getQuantity()),
+                           plain(order.getPrice()), plain(order.getOrderFee()), order.getSymbol(),
+                           String.valueOf(order.getHoldingID()));
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "null" : value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -18,9 +18,17 @@ package com.ibm.websphere.samples.daytrader.service;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -28,12 +36,17 @@ import org.junit.jupiter.api.Test;
 
 import com.ibm.websphere.samples.daytrader.dto.AccountDTO;
 import com.ibm.websphere.samples.daytrader.dto.AccountProfileDTO;
+import com.ibm.websphere.samples.daytrader.dto.BatchOrderResultDTO;
 import com.ibm.websphere.samples.daytrader.dto.HoldingDTO;
 import com.ibm.websphere.samples.daytrader.dto.MarketSummaryDTO;
 import com.ibm.websphere.samples.daytrader.dto.OrderDTO;
+import com.ibm.websphere.samples.daytrader.dto.OrderRequestDTO;
+import com.ibm.websphere.samples.daytrader.dto.PortfolioSummaryDTO;
 import com.ibm.websphere.samples.daytrader.dto.QuoteDTO;
 import com.ibm.websphere.samples.daytrader.entity.Account;
 import com.ibm.websphere.samples.daytrader.entity.AccountProfile;
+import com.ibm.websphere.samples.daytrader.entity.Holding;
+import com.ibm.websphere.samples.daytrader.entity.Order;
 import com.ibm.websphere.samples.daytrader.entity.Quote;
 import com.ibm.websphere.samples.daytrader.repository.AccountProfileRepository;
 import com.ibm.websphere.samples.daytrader.repository.AccountRepository;
@@ -42,8 +55,12 @@ import com.ibm.websphere.samples.daytrader.repository.OrderRepository;
 import com.ibm.websphere.samples.daytrader.repository.QuoteRepository;
 import com.ibm.websphere.samples.daytrader.util.TradeConfig;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
 /**
  * TradeService integration tests using @QuarkusTest
  * Tests login, logout, register, getQuote, getAllQuotes, and error handling
@@ -55,6 +72,9 @@ class TradeServiceTest {
     @Inject
     TradeService tradeService;
 
+    @Inject
+    ReactiveTradeService reactiveTradeService;
+
     @Inject
     AccountRepository accountRepository;
 
@@ -70,6 +90,12 @@ class TradeServiceTest {
     @Inject
     HoldingRepository holdingRepository;
 
+    @Inject
+    LoginStatistics loginStatistics;
+
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+
     private String testPassword = "password123";
 
     private String generateUniqueUserID() {
@@ -80,6 +106,11 @@ class TradeServiceTest {
         return prefix + System.currentTimeMillis() % 100000;
     }
 
+    private String orderStatus(Integer orderID) {
+        return QuarkusTransaction.requiringNew().call(
+                () -> orderRepository.findByIdWithDetails(orderID).orElseThrow().getOrderStatus());
+    }
+
     @BeforeEach
     void setUp() {
         // Note: Not using @Transactional here to avoid rollback issues
@@ -185,8 +216,8 @@ class TradeServiceTest {
     }
 
     @Test
-    @Transactional
     void testLogout() {
+        // Not @Transactional: statistics are written to the committed account row in the background
         String testUserID = generateUniqueUserID();
         tradeService.register(
             testUserID,
@@ -199,11 +230,50 @@ class TradeServiceTest {
         );
 
         tradeService.logout(testUserID);
+        assertEquals(1, tradeService.getAccountDataByUserID(testUserID).getLogoutCount());
 
+        loginStatistics.flush();
         Account account = accountRepository.findByProfileUserID(testUserID).orElseThrow();
         assertEquals(1, account.getLogoutCount());
     }
 
+    @Test
+    void testLoginStatisticsWrittenInBackground() {
+        String testUserID = generateUniqueUserID();
+        tradeService.register(testUserID, testPassword, "Service Test User", "123 Service St",
+                              "service@example.com", "1234-5678-9012-3456", new BigDecimal("10000.00"));
+
+        tradeService.login(testUserID, testPassword);
+        AccountDTO account = tradeService.login(testUserID, testPassword);
+        tradeService.logout(testUserID);
+        assertEquals(2, account.getLoginCount());
+        assertEquals(1, tradeService.getAccountDataByUserID(testUserID).getLogoutCount());
+
+        // Both logins and the logout are written as one update
+        loginStatistics.flush();
+        Account stored = accountRepository.findByProfileUserID(testUserID).orElseThrow();
+        assertEquals(2, stored.getLoginCount());
+        assertEquals(1, stored.getLogoutCount());
+        assertNotNull(stored.getLastLogin());
+        assertEquals(2, tradeService.getAccountDataByUserID(testUserID).getLoginCount());
+    }
+
+    @Test
+    void testLoginAfterPasswordChange() {
+        String testUserID = generateUniqueUserID();
+        tradeService.register(testUserID, testPassword, "Service Test User", "123 Service St",
+                              "service@example.com", "1234-5678-9012-3456", new BigDecimal("10000.00"));
+        // Caches the credentials
+        tradeService.login(testUserID, testPassword);
+
+        AccountProfileDTO updateData = tradeService.getAccountProfileData(testUserID);
+        updateData.setPassword("changed789");
+        tradeService.updateAccountProfile(updateData);
+
+        assertThrows(IllegalArgumentException.class, () -> tradeService.login(testUserID, testPassword));
+        assertEquals(testUserID, tradeService.login(testUserID, "changed789").getProfileID());
+    }
+
     @Test
     @Transactional
     void testLogoutNonExistentUser() {
@@ -275,6 +345,40 @@ class TradeServiceTest {
         assertEquals(new BigDecimal("380.00"), quoteDTO.getPrice());
     }
 
+    @Test
+    void testGetQuoteReflectsPriceUpdate() {
+        // Not @Transactional: cached quotes are only updated once changes commit
+        String testSymbol = generateUniqueSymbol("CCH");
+        tradeService.createQuote(testSymbol, "Cache Test Inc", new BigDecimal("40.00"));
+
+        assertEquals(new BigDecimal("40.00"), tradeService.getQuote(testSymbol).getPrice());
+        assertEquals(testSymbol, tradeService.getQuote(testSymbol.toLowerCase()).getSymbol());
+
+        tradeService.updateQuotePrice(testSymbol, new BigDecimal("42.50"));
+
+        QuoteDTO updated = tradeService.getQuote(testSymbol);
+        assertEquals(new BigDecimal("42.50"), updated.getPrice());
+        assertEquals(2.5, updated.getChange(), 0.001);
+    }
+
+    @Test
+    void testReactiveReadsMatchBlockingReads() {
+        // H2 has no reactive client, so the reactive facade must fall back to the blocking reads;
+        // ReactiveReadsPostgreSQLTest compares the reactive client against them on PostgreSQL
+        assertFalse(reactiveTradeService.isReactive());
+
+        String testSymbol = generateUniqueSymbol("RCT");
+        tradeService.createQuote(testSymbol, "Reactive Test Inc", new BigDecimal("30.00"));
+
+        QuoteDTO quote = reactiveTradeService.getQuote(testSymbol).await().indefinitely();
+        assertEquals(testSymbol, quote.getSymbol());
+        assertEquals(new BigDecimal("30.00"), quote.getPrice());
+        assertThrows(IllegalArgumentException.class,
+                     () -> reactiveTradeService.getQuote("NOSUCH" + testSymbol).await().indefinitely());
+        assertThrows(IllegalArgumentException.class,
+                     () -> reactiveTradeService.getHoldings(generateUniqueUserID()).await().indefinitely());
+    }
+
     @Test
     @Transactional
     void testGetAccountData() {
@@ -428,6 +532,377 @@ class TradeServiceTest {
         assertEquals(0, remainingHoldings.size());
     }
 
+    @Test
+    void testBuyStockAsynchronous() throws InterruptedException {
+        // Not @Transactional: the order is only queued once buy() commits
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("ASY");
+
+        tradeService.createQuote(testSymbol, "Async Test Inc", new BigDecimal("50.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+
+        OrderDTO order = tradeService.buy(testUserID, testSymbol, 4.0, TradeConfig.ASYNCH_MANAGEDTHREAD);
+
+        // The request returns the open order; the order processor completes it
+        assertNotNull(order);
+        assertEquals("open", order.getOrderStatus());
+
+        List<HoldingDTO> holdings = tradeService.getHoldings(testUserID);
+        for (int i = 0; i < 100 && holdings.isEmpty(); i++) {
+            Thread.sleep(100);
+            holdings = tradeService.getHoldings(testUserID);
+        }
+        assertEquals(1, holdings.size());
+        assertEquals(4.0, holdings.get(0).getQuantity());
+    }
+
+    @Test
+    void testLimitBuyExecutesWhenPriceFalls() throws InterruptedException {
+        // Not @Transactional: the order rests in the trigger book once placed and committed
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("LMB");
+
+        tradeService.createQuote(testSymbol, "Limit Buy Inc", new BigDecimal("50.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+
+        // The cost at the limit price is debited when the order is placed
+        OrderDTO order = tradeService.placeTriggeredOrder(testUserID, TradeConfig.LIMIT_BUY, testSymbol, 2.0,
+                                                          null, new BigDecimal("45.00"));
+        assertEquals("open", order.getOrderStatus());
+        BigDecimal expected = new BigDecimal("10000.00").subtract(new BigDecimal("90.00")).subtract(new BigDecimal("24.95"));
+        assertEquals(0, expected.compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+
+        // Above the limit nothing happens; at or below it the order fills at the limit price
+        tradeService.updateQuotePrice(testSymbol, new BigDecimal("46.00"));
+        assertTrue(tradeService.getHoldings(testUserID).isEmpty());
+        tradeService.updateQuotePrice(testSymbol, new BigDecimal("44.00"));
+
+        List<HoldingDTO> holdings = tradeService.getHoldings(testUserID);
+        for (int i = 0; i < 100 && holdings.isEmpty(); i++) {
+            Thread.sleep(100);
+            holdings = tradeService.getHoldings(testUserID);
+        }
+        assertEquals(1, holdings.size());
+        assertEquals(2.0, holdings.get(0).getQuantity());
+        assertEquals(0, new BigDecimal("45.00").compareTo(holdings.get(0).getPurchasePrice()));
+        assertEquals(0, expected.compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+    }
+
+    @Test
+    void testStopSellExecutesAtTriggeringPrice() throws InterruptedException {
+        // Not @Transactional: the order rests in the trigger book once placed and committed
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("STP");
+
+        tradeService.createQuote(testSymbol, "Stop Sell Inc", new BigDecimal("40.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+        Integer holdingID = tradeService.buy(testUserID, testSymbol, 5.0, TradeConfig.SYNCH).getHoldingID();
+        BigDecimal balanceAfterBuy = tradeService.getAccountDataByUserID(testUserID).getBalance();
+
+        // The holding is claimed by the stop, so it cannot be sold again meanwhile
+        OrderDTO order = tradeService.placeTriggeredOrder(testUserID, TradeConfig.STOP_SELL, null, 0,
+                                                          holdingID, new BigDecimal("35.00"));
+        assertEquals("open", order.getOrderStatus());
+        assertEquals(5.0, order.getQuantity());
+        assertEquals("cancelled", tradeService.sell(testUserID, holdingID, TradeConfig.SYNCH).getOrderStatus());
+
+        // The stop sells at the price that crossed it
+        tradeService.updateQuotePrice(testSymbol, new BigDecimal("34.00"));
+
+        List<HoldingDTO> holdings = tradeService.getHoldings(testUserID);
+        for (int i = 0; i < 100 && !holdings.isEmpty(); i++) {
+            Thread.sleep(100);
+            holdings = tradeService.getHoldings(testUserID);
+        }
+        assertTrue(holdings.isEmpty());
+        BigDecimal expected = balanceAfterBuy.add(new BigDecimal("170.00")).subtract(new BigDecimal("24.95"));
+        assertEquals(0, expected.compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+    }
+
+    @Test
+    void testCancelLimitBuyReturnsFunds() {
+        // Not @Transactional: the order rests in the trigger book once placed and committed
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("LMC");
+
+        tradeService.createQuote(testSymbol, "Limit Cancel Inc", new BigDecimal("50.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+
+        OrderDTO order = tradeService.placeTriggeredOrder(testUserID, TradeConfig.LIMIT_BUY, testSymbol, 2.0,
+                                                          null, new BigDecimal("45.00"));
+        tradeService.cancelOrder(order.getOrderID());
+
+        assertEquals(0, new BigDecimal("10000.00").compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+        assertThrows(IllegalStateException.class,
+                     () -> tradeService.executeTriggeredOrder(order.getOrderID(), new BigDecimal("40.00")));
+        assertThrows(IllegalArgumentException.class,
+                     () -> tradeService.placeTriggeredOrder(testUserID, "buy", testSymbol, 1.0, null, BigDecimal.TEN));
+    }
+
+    @Test
+    void testFailedTriggeredOrderIsCancelled() throws InterruptedException {
+        // Not @Transactional: the order rests in the trigger book once placed and committed
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("STF");
+
+        tradeService.createQuote(testSymbol, "Stop Failure Inc", new BigDecimal("40.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+        Integer holdingID = tradeService.buy(testUserID, testSymbol, 5.0, TradeConfig.SYNCH).getHoldingID();
+        BigDecimal balanceAfterBuy = tradeService.getAccountDataByUserID(testUserID).getBalance();
+        Integer orderID = tradeService.placeTriggeredOrder(testUserID, TradeConfig.STOP_SELL, null, 0,
+                                                           holdingID, new BigDecimal("35.00")).getOrderID();
+
+        // The holding disappears from under the resting stop, so its execution cannot succeed
+        QuarkusTransaction.requiringNew().run(() -> {
+            holdingRepository.getEntityManager().createNativeQuery(
+                "UPDATE orderejb SET HOLDING_HOLDINGID = NULL WHERE HOLDING_HOLDINGID = ?1")
+                .setParameter(1, holdingID)
+                .executeUpdate();
+            holdingRepository.getEntityManager().createNativeQuery("DELETE FROM holdingejb WHERE HOLDINGID = ?1")
+                .setParameter(1, holdingID)
+                .executeUpdate();
+        });
+        tradeService.updateQuotePrice(testSymbol, new BigDecimal("34.00"));
+
+        // The rolled back execution does not leave the order open, and credits nothing
+        String status = orderStatus(orderID);
+        for (int i = 0; i < 100 && !"cancelled".equals(status); i++) {
+            Thread.sleep(100);
+            status = orderStatus(orderID);
+        }
+        assertEquals("cancelled", status);
+        assertEquals(0, balanceAfterBuy.compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+        assertFalse(tradeService.cancelFailedTriggeredOrder(orderID));
+    }
+
+    @Test
+    void testFailedLimitBuyIsRefunded() {
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("LMF");
+
+        tradeService.createQuote(testSymbol, "Limit Failure Inc", new BigDecimal("50.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+
+        // A limit buy whose execution failed is cancelled and its reserved cost returned
+        Integer orderID = tradeService.placeTriggeredOrder(testUserID, TradeConfig.LIMIT_BUY, testSymbol, 2.0,
+                                                           null, new BigDecimal("45.00")).getOrderID();
+        assertTrue(tradeService.cancelFailedTriggeredOrder(orderID));
+        assertEquals("cancelled", orderStatus(orderID));
+        assertEquals(0, new BigDecimal("10000.00").compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+    }
+
+    @Test
+    void testFailedAsyncOrdersAreRefunded() {
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("AFR");
+
+        tradeService.createQuote(testSymbol, "Async Failure Inc", new BigDecimal("50.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+        Integer holdingID = tradeService.buy(testUserID, testSymbol, 4.0, TradeConfig.SYNCH).getHoldingID();
+        BigDecimal balanceAfterBuy = tradeService.getAccountDataByUserID(testUserID).getBalance();
+        Integer accountID = tradeService.getAccountID(testUserID);
+
+        // Open orders as an asynchronous buy and sell leave them until completed: the buy's cost
+        // debited, the sell's proceeds credited and its holding claimed
+        BigDecimal buyFee = TradeConfig.getOrderFee("buy");
+        BigDecimal sellFee = TradeConfig.getOrderFee("sell");
+        Integer[] orderIDs = QuarkusTransaction.requiringNew().call(() -> {
+            Account account = orderRepository.getEntityManager().getReference(Account.class, accountID);
+            Quote quote = orderRepository.getEntityManager().getReference(Quote.class, testSymbol);
+            Holding holding = holdingRepository.getEntityManager().getReference(Holding.class, holdingID);
+            Date now = new Date();
+            Order buy = new Order("buy", "open", now, null, 2.0, new BigDecimal("50.00"), buyFee,
+                                  account, quote, null);
+            Order sell = new Order("sell", "open", now, null, 4.0, new BigDecimal("50.00"), sellFee,
+                                   account, quote, holding);
+            orderRepository.persist(buy);
+            orderRepository.persist(sell);
+            accountRepository.credit(accountID, new BigDecimal("200.00").subtract(sellFee)
+                    .subtract(new BigDecimal("100.00")).subtract(buyFee));
+            holdingRepository.markSaleInFlight(holdingID);
+            return new Integer[] {buy.getOrderID(), sell.getOrderID()};
+        });
+
+        // Once their completion fails for good both are cancelled and everything returned
+        assertTrue(tradeService.cancelFailedOrder(orderIDs[0]));
+        assertTrue(tradeService.cancelFailedOrder(orderIDs[1]));
+        assertEquals("cancelled", orderStatus(orderIDs[0]));
+        assertEquals("cancelled", orderStatus(orderIDs[1]));
+        assertEquals(0, balanceAfterBuy.compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+        assertEquals("closed", tradeService.sell(testUserID, holdingID, TradeConfig.SYNCH).getOrderStatus());
+        assertFalse(tradeService.cancelFailedOrder(orderIDs[0]));
+    }
+
+    @Test
+    void testBuyStatementCount() {
+        // Not @Transactional: statements are counted for buy()'s own transaction
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("CNT");
+
+        tradeService.createQuote(testSymbol, "Count Test Inc", new BigDecimal("25.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+        // A logged-in user's account ID and the quote are served from the caches
+        tradeService.login(testUserID, testPassword);
+        tradeService.getQuote(testSymbol);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Balance debit, holding insert and order insert, plus a sequence call per table when an ID block runs out
+        statistics.clear();
+        OrderDTO order = tradeService.buy(testUserID, testSymbol, 10.0, TradeConfig.SYNCH);
+        assertTrue(statistics.getPrepareStatementCount() <= 5,
+                   "buy prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals("closed", order.getOrderStatus());
+        assertEquals(testSymbol, order.getSymbol());
+        assertEquals("Count Test Inc", order.getCompanyName());
+        assertNotNull(order.getHoldingID());
+
+        // A failed debit leaves the balance unchanged
+        assertThrows(IllegalArgumentException.class,
+                     () -> tradeService.buy(testUserID, testSymbol, 1000.0, TradeConfig.SYNCH));
+        BigDecimal expected = new BigDecimal("10000.00")
+                .subtract(new BigDecimal("250.00")).subtract(new BigDecimal("24.95"));
+        assertEquals(0, expected.compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+    }
+
+    @Test
+    void testSubmitOrders() {
+        // Not @Transactional: the batch runs in its own transaction
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("BAT");
+
+        tradeService.createQuote(testSymbol, "Batch Test Inc", new BigDecimal("100.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("1000.00")
+        );
+        tradeService.buy(testUserID, testSymbol, 5.0, TradeConfig.SYNCH);
+        Integer holdingID = tradeService.getHoldings(testUserID).get(0).getHoldingID();
+
+        // The sell proceeds fund the first buy; the last buy exceeds what remains
+        List<BatchOrderResultDTO> results = tradeService.submitOrders(testUserID, List.of(
+            OrderRequestDTO.buy(testSymbol.toLowerCase(), 9.0),
+            OrderRequestDTO.sell(holdingID),
+            OrderRequestDTO.buy("NONEXISTENT", 1.0),
+            OrderRequestDTO.sell(holdingID),
+            OrderRequestDTO.buy(testSymbol, 50.0)
+        ), TradeConfig.SYNCH);
+
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("closed", results.get(0).getOrder().getOrderStatus());
+        assertTrue(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+        assertFalse(results.get(4).isSuccess());
+        assertTrue(results.get(4).getError().startsWith("Insufficient funds"));
+
+        List<HoldingDTO> holdings = tradeService.getHoldings(testUserID);
+        assertEquals(1, holdings.size());
+        assertEquals(9.0, holdings.get(0).getQuantity());
+    }
+
+    @Test
+    void testSubmitOrdersBatchesInserts() {
+        // Not @Transactional: statements are counted for the batch's own transaction
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("INS");
+
+        tradeService.createQuote(testSymbol, "Insert Batch Inc", new BigDecimal("10.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("100000.00")
+        );
+        List<OrderRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(OrderRequestDTO.buy(testSymbol, 1.0));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // 20 holdings and 20 orders are inserted as one JDBC batch per table, not a statement per row
+        statistics.clear();
+        List<BatchOrderResultDTO> results = tradeService.submitOrders(testUserID, requests, TradeConfig.SYNCH);
+        assertTrue(results.stream().allMatch(BatchOrderResultDTO::isSuccess));
+        assertTrue(statistics.getPrepareStatementCount() <= 12,
+                   "batch prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(20, tradeService.getHoldings(testUserID).size());
+    }
+
     @Test
     @Transactional
     void testSellHoldingNotFound() {
@@ -451,6 +926,142 @@ class TradeServiceTest {
         assertEquals("cancelled", order.getOrderStatus());
     }
 
+    @Test
+    void testConcurrentSellsOfOneHolding() throws Exception {
+        // Not @Transactional: each sell claims the holding in its own transaction
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("CSL");
+
+        tradeService.createQuote(testSymbol, "Concurrent Sell Inc", new BigDecimal("40.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+        Integer holdingID = tradeService.buy(testUserID, testSymbol, 5.0, TradeConfig.SYNCH).getHoldingID();
+        BigDecimal balanceAfterBuy = tradeService.getAccountDataByUserID(testUserID).getBalance();
+
+        // Both sells race for the holding; the database lets exactly one of them have it
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<OrderDTO>> sells = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                sells.add(executor.submit(() -> {
+                    start.await();
+                    return tradeService.sell(testUserID, holdingID, TradeConfig.SYNCH);
+                }));
+            }
+            start.countDown();
+
+            List<String> statuses = new ArrayList<>();
+            for (Future<OrderDTO> sell : sells) {
+                statuses.add(sell.get(30, TimeUnit.SECONDS).getOrderStatus());
+            }
+            assertTrue(statuses.contains("closed"), statuses.toString());
+            assertTrue(statuses.contains("cancelled"), statuses.toString());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Credited once: 5 x 40.00 less the order fee
+        BigDecimal expected = balanceAfterBuy.add(new BigDecimal("200.00")).subtract(new BigDecimal("24.95"));
+        assertEquals(0, expected.compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+        assertTrue(tradeService.getHoldings(testUserID).isEmpty());
+    }
+
+    @Test
+    void testConcurrentBatchSellsOfOneHolding() throws Exception {
+        // Not @Transactional: each batch claims the holding in its own transaction
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("CBS");
+
+        tradeService.createQuote(testSymbol, "Concurrent Batch Inc", new BigDecimal("40.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+        Integer holdingID = tradeService.buy(testUserID, testSymbol, 5.0, TradeConfig.SYNCH).getHoldingID();
+        BigDecimal balanceAfterBuy = tradeService.getAccountDataByUserID(testUserID).getBalance();
+
+        // Two batches and a single sell race for the holding; exactly one of them gets it
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> sells = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                sells.add(executor.submit(() -> {
+                    start.await();
+                    return tradeService.submitOrders(testUserID, List.of(OrderRequestDTO.sell(holdingID)),
+                                                     TradeConfig.SYNCH).get(0).isSuccess();
+                }));
+            }
+            sells.add(executor.submit(() -> {
+                start.await();
+                return "closed".equals(tradeService.sell(testUserID, holdingID, TradeConfig.SYNCH).getOrderStatus());
+            }));
+            start.countDown();
+
+            int sold = 0;
+            for (Future<Boolean> sell : sells) {
+                sold += sell.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(1, sold);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Credited once: 5 x 40.00 less the order fee
+        BigDecimal expected = balanceAfterBuy.add(new BigDecimal("200.00")).subtract(new BigDecimal("24.95"));
+        assertEquals(0, expected.compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+        assertTrue(tradeService.getHoldings(testUserID).isEmpty());
+    }
+
+    @Test
+    void testBatchDoesNotSellHoldingOfRestingOrder() {
+        // Not @Transactional: the stop rests in the trigger book once placed and committed
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("BRS");
+
+        tradeService.createQuote(testSymbol, "Batch Resting Inc", new BigDecimal("40.00"));
+        tradeService.register(
+            testUserID,
+            testPassword,
+            "Test User",
+            "123 Test St",
+            "test@example.com",
+            "1234-5678-9012-3456",
+            new BigDecimal("10000.00")
+        );
+        Integer holdingID = tradeService.buy(testUserID, testSymbol, 5.0, TradeConfig.SYNCH).getHoldingID();
+        OrderDTO stop = tradeService.placeTriggeredOrder(testUserID, TradeConfig.STOP_SELL, null, 0,
+                                                         holdingID, new BigDecimal("30.00"));
+        BigDecimal balance = tradeService.getAccountDataByUserID(testUserID).getBalance();
+
+        // The holding backs the resting stop, so the batch sell is rejected and nothing is credited
+        for (int mode : new int[] {TradeConfig.SYNCH, TradeConfig.ASYNCH_MANAGEDTHREAD}) {
+            BatchOrderResultDTO result = tradeService.submitOrders(testUserID, List.of(OrderRequestDTO.sell(holdingID)),
+                                                                   mode).get(0);
+            assertFalse(result.isSuccess());
+        }
+        assertEquals(0, balance.compareTo(tradeService.getAccountDataByUserID(testUserID).getBalance()));
+        assertEquals(1, tradeService.getHoldings(testUserID).size());
+
+        // The stop can still be cancelled cleanly, releasing the holding
+        tradeService.cancelOrder(stop.getOrderID());
+        assertTrue(tradeService.submitOrders(testUserID, List.of(OrderRequestDTO.sell(holdingID)),
+                                             TradeConfig.SYNCH).get(0).isSuccess());
+    }
+
     @Test
     @Transactional
     void testCompleteOrder() {
@@ -586,6 +1197,11 @@ class TradeServiceTest {
         assertNotNull(closedOrders);
         assertEquals(1, closedOrders.size());
         assertEquals("closed", closedOrders.get(0).getOrderStatus());
+        assertEquals("AMD", closedOrders.get(0).getSymbol());
+
+        // The orders returned were completed by the same call
+        assertTrue(tradeService.getClosedOrders(testUserID).isEmpty());
+        assertEquals("completed", tradeService.getOrders(testUserID).get(0).getOrderStatus());
     }
 
     @Test
@@ -660,6 +1276,35 @@ class TradeServiceTest {
         assertEquals(new BigDecimal("350.00"), holding.getPurchasePrice());
     }
 
+    @Test
+    void testPortfolioSummaryFollowsTrades() {
+        // Not @Transactional: the portfolio aggregate is only updated once trades commit
+        String testUserID = generateUniqueUserID();
+        String testSymbol = generateUniqueSymbol("PAG");
+        tradeService.register(testUserID, testPassword, "Test User", "123 Test St",
+                              "test@example.com", "1234-5678-9012-3456", new BigDecimal("10000.00"));
+        tradeService.createQuote(testSymbol, "Aggregate Test Inc", new BigDecimal("50.00"));
+
+        // Load the aggregate before trading so the buys and sell are applied incrementally
+        assertEquals(0, tradeService.getPortfolioSummary(testUserID).getNumberOfHoldings());
+
+        tradeService.buy(testUserID, testSymbol, 10.0, TradeConfig.SYNCH);
+        tradeService.buy(testUserID, testSymbol, 4.0, TradeConfig.SYNCH);
+
+        PortfolioSummaryDTO summary = tradeService.getPortfolioSummary(testUserID);
+        assertEquals(2, summary.getNumberOfHoldings());
+        assertEquals(0, new BigDecimal("700.00").compareTo(summary.getHoldingsValue()));
+        assertEquals(0, new BigDecimal("700.00").compareTo(summary.getCostBasis()));
+
+        tradeService.updateQuotePrice(testSymbol, new BigDecimal("55.00"));
+        tradeService.sell(testUserID, tradeService.getHoldings(testUserID).get(0).getHoldingID(), TradeConfig.SYNCH);
+
+        summary = tradeService.getPortfolioSummary(testUserID);
+        assertEquals(1, summary.getNumberOfHoldings());
+        assertEquals(0, new BigDecimal("55.00").multiply(new BigDecimal(tradeService.getHoldings(testUserID).get(0).getQuantity()))
+                .compareTo(summary.getHoldingsValue()));
+    }
+
     @Test
     @Transactional
     void testGetAccountProfileData() {
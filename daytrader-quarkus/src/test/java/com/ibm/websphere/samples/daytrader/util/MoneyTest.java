@@ -0,0 +1,84 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for fixed-point money arithmetic
+ * Results must match BigDecimal rounded with FinancialUtils.ROUND
+ */
+class MoneyTest {
+
+    @Test
+    void testConversions() {
+        assertEquals(12345, Money.toCents(new BigDecimal("123.45")));
+        assertEquals(12346, Money.toCents(new BigDecimal("123.455")));
+        assertEquals(-12346, Money.toCents(new BigDecimal("-123.455")));
+        assertEquals(new BigDecimal("123.45"), Money.toBigDecimal(12345));
+        assertEquals(new BigDecimal("-0.05"), Money.toBigDecimal(-5));
+    }
+
+    @Test
+    void testQuantityUnitsRoundHalfUp() {
+        assertEquals(10_000_000, Money.toUnits(10.0));
+        assertEquals(100_000, Money.toUnits(0.1));
+        assertEquals(101, Money.toUnits(1.005, 2));
+        assertEquals(2, Money.toUnits(0.015, 2));
+        assertEquals(-2, Money.toUnits(-0.015, 2));
+        assertEquals(3, Money.toUnits(2.5, 0));
+        assertEquals(-3, Money.toUnits(-2.5, 0));
+        assertEquals(123_456_789_012L, Money.toUnits(123_456.789012));
+    }
+
+    @Test
+    void testDivideRoundsHalfUp() {
+        assertEquals(2, Money.divide(5, 3));
+        assertEquals(3, Money.divide(5, 2));
+        assertEquals(-3, Money.divide(-5, 2));
+        assertEquals(-3, Money.divide(5, -2));
+        assertEquals(2, Money.divide(7, 4));
+        assertEquals(1, Money.divide(5, 4));
+        assertEquals(0, Money.divide(0, 7));
+    }
+
+    @Test
+    void testMultiplyMatchesBigDecimal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long cents = random.nextInt(10_000_000) - 5_000_000;
+            double quantity = random.nextInt(100_000_000) / 1000.0;
+            BigDecimal expected = Money.toBigDecimal(cents).multiply(BigDecimal.valueOf(quantity))
+                    .setScale(FinancialUtils.SCALE, FinancialUtils.ROUND);
+            assertEquals(expected, Money.toBigDecimal(Money.value(quantity, cents)),
+                         () -> quantity + " x " + Money.toBigDecimal(cents));
+        }
+    }
+
+    @Test
+    void testMultiplyOverflowFallsBackToBigDecimal() {
+        long cents = 1_000_000_000_000L;
+        long units = Money.toUnits(1_000_000.5);
+        BigDecimal expected = Money.toBigDecimal(cents).multiply(new BigDecimal("1000000.5"))
+                .setScale(FinancialUtils.SCALE, FinancialUtils.ROUND);
+        assertEquals(expected, Money.toBigDecimal(Money.multiply(cents, units)));
+    }
+}
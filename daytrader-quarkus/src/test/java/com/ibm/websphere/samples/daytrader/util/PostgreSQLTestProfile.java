@@ -0,0 +1,60 @@
+/**
+ * (C) Copyright IBM Corporation 2024.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.util;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+/**
+ * Test profile running against PostgreSQL started by Dev Services instead of the
+ * in-memory H2 database, with the schema migrated by Flyway and the reactive client enabled
+ *
+ * Dev Services needs a container runtime; tests using this profile are annotated
+ * {@code @EnabledIf("com.ibm.websphere.samples.daytrader.util.PostgreSQLTestProfile#containersAvailable")}
+ * so they are skipped where none is available.
+ */
+public class PostgreSQLTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> overrides = new HashMap<>();
+        overrides.put("quarkus.datasource.db-kind", "postgresql");
+        overrides.put("quarkus.hibernate-orm.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        // Empty URLs count as unset, so Dev Services starts a container and configures both clients
+        overrides.put("quarkus.datasource.jdbc.url", "");
+        overrides.put("quarkus.datasource.reactive.url", "");
+        overrides.put("quarkus.datasource.reactive", "true");
+        overrides.put("quarkus.datasource.devservices.enabled", "true");
+        overrides.put("daytrader.reactive-reads.enabled", "true");
+        // The schema is built by the Flyway migrations, from V1 on the empty database, as in production
+        overrides.put("quarkus.hibernate-orm.database.generation", "none");
+        overrides.put("quarkus.flyway.migrate-at-start", "true");
+        // The H2 column defaults script is not needed: V1_5 sets them
+        overrides.put("quarkus.hibernate-orm.sql-load-script", "no-file");
+        return overrides;
+    }
+
+    /**
+     * Whether a Docker-compatible container runtime is reachable
+     */
+    public static boolean containersAvailable() {
+        return System.getenv("DOCKER_HOST") != null || Files.exists(Path.of("/var/run/docker.sock"));
+    }
+}